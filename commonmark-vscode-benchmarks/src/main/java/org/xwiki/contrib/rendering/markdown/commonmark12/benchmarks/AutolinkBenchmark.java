@@ -0,0 +1,95 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.DefaultMarkdownConfiguration;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.FastAutolinkExtension;
+
+import com.vladsch.flexmark.ext.autolink.AutolinkExtension;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.data.MutableDataHolder;
+import com.vladsch.flexmark.util.misc.Extension;
+
+/**
+ * Flexmark parsing time of a 10 MB generated corpus with Flexmark's autolink extension and with
+ * {@link FastAutolinkExtension}, everything else being configured as by default.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AutolinkBenchmark
+{
+    @Param({ "flexmark", "fast" })
+    public String autolink;
+
+    @Param({ "PROSE", "MIXED" })
+    public FeatureFamily family;
+
+    @Param({ "10485760" })
+    public int size;
+
+    private Parser parser;
+
+    private String content;
+
+    @Setup
+    public void setUp()
+    {
+        Extension autolinkExtension =
+            "flexmark".equals(this.autolink) ? AutolinkExtension.create() : FastAutolinkExtension.create();
+        MutableDataHolder options = new DefaultMarkdownConfiguration().getOptions();
+        List<Extension> extensions = new ArrayList<>();
+        for (Extension extension : Parser.EXTENSIONS.get(options)) {
+            extensions.add(extension instanceof FastAutolinkExtension ? autolinkExtension : extension);
+        }
+        options.set(Parser.EXTENSIONS, extensions);
+        this.parser = Parser.builder(options).build();
+        this.content =
+            new MarkdownCorpusGenerator(GeneratedCorpusBenchmark.SEED, this.family.createMix()).generate(this.size);
+    }
+
+    @Benchmark
+    public Document parse()
+    {
+        return this.parser.parse(this.content);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import org.xwiki.component.embed.EmbeddableComponentManager;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+
+/**
+ * Bootstraps the XWiki components needed to parse and render Markdown outside of an XWiki instance: all the components
+ * declared in the {@code META-INF/components.txt} files found in the classpath are registered in an embedded component
+ * manager.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public final class BenchmarkComponents
+{
+    private BenchmarkComponents()
+    {
+        // Utility class
+    }
+
+    /**
+     * @return a new component manager with all the classpath components registered
+     */
+    public static ComponentManager createComponentManager()
+    {
+        EmbeddableComponentManager componentManager = new EmbeddableComponentManager();
+        componentManager.initialize(BenchmarkComponents.class.getClassLoader());
+        return componentManager;
+    }
+
+    /**
+     * @param componentManager the component manager to look into
+     * @param role the role of the component
+     * @param hint the hint of the component
+     * @param <T> the role type
+     * @return the component instance
+     */
+    public static <T> T lookup(ComponentManager componentManager, Class<T> role, String hint)
+    {
+        try {
+            return componentManager.getInstance(role, hint);
+        } catch (ComponentLookupException e) {
+            throw new IllegalStateException(String.format("Missing component [%s] with hint [%s]", role, hint), e);
+        }
+    }
+}
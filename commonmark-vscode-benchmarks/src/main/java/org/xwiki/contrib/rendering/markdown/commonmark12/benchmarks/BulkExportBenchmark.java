@@ -0,0 +1,166 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.export.DirectoryExportTarget;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.export.ExportDocument;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.export.ExportTarget;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.export.MarkdownExporter;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.export.ZipExportTarget;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.ExportMetrics;
+import org.xwiki.rendering.parser.Parser;
+
+/**
+ * Exports generated documents to a temporary directory or ZIP file. The documents stand in for the pages of a wiki:
+ * their XDOMs are parsed from generated Markdown when the exporter loads them, as a wiki would load them from its
+ * storage. Set {@code -Dxwiki.commonmarkvscode.export.threads} to change the number of workers.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkExportBenchmark
+{
+    private static final String SYNTAX = "commonmark-vscode/0.1";
+
+    /**
+     * Where the documents are exported.
+     */
+    public enum Target
+    {
+        DIRECTORY,
+        ZIP
+    }
+
+    @Param
+    public Target target;
+
+    @Param({ "2000" })
+    public int documentCount;
+
+    @Param({ "16384" })
+    public int documentSize;
+
+    private Parser parser;
+
+    private MarkdownExporter exporter;
+
+    private List<String> contents;
+
+    private Path directory;
+
+    /**
+     * The throughput of the export, reported next to the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Throughput
+    {
+        public double documentsPerSecond;
+
+        public double megabytesPerSecond;
+
+        void set(ExportMetrics metrics)
+        {
+            this.documentsPerSecond = metrics.getDocumentThroughput();
+            this.megabytesPerSecond = metrics.getByteThroughput() / (1024 * 1024);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        ComponentManager componentManager = BenchmarkComponents.createComponentManager();
+        this.parser = BenchmarkComponents.lookup(componentManager, Parser.class, SYNTAX);
+        this.exporter = BenchmarkComponents.lookup(componentManager, MarkdownExporter.class, SYNTAX);
+
+        // A few distinct contents are enough, the documents are parsed again each time they are loaded.
+        this.contents = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            this.contents.add(new MarkdownCorpusGenerator(GeneratedCorpusBenchmark.SEED + i,
+                FeatureFamily.MIXED.createMix()).generate(this.documentSize));
+        }
+        this.directory = Files.createTempDirectory("markdown-export");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public ExportMetrics export(Throughput throughput) throws Exception
+    {
+        List<ExportDocument> documents = new ArrayList<>(this.documentCount);
+        for (int i = 0; i < this.documentCount; i++) {
+            String content = this.contents.get(i % this.contents.size());
+            documents.add(new ExportDocument(String.format("Space%d/Page%d.md", i % 20, i),
+                () -> this.parser.parse(new StringReader(content))));
+        }
+
+        ExportMetrics metrics = new ExportMetrics();
+        try (ExportTarget exportTarget = createTarget()) {
+            this.exporter.export(documents.iterator(), exportTarget, metrics);
+        }
+        throughput.set(metrics);
+        return metrics;
+    }
+
+    private ExportTarget createTarget() throws IOException
+    {
+        if (this.target == Target.ZIP) {
+            return new ZipExportTarget(this.directory.resolve("export.zip"));
+        }
+        return new DirectoryExportTarget(this.directory.resolve("export"));
+    }
+}
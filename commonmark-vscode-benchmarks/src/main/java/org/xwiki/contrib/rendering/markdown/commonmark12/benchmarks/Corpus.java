@@ -0,0 +1,198 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+/**
+ * The Markdown content families used by the benchmarks, each one stressing a different part of the parser.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public enum Corpus
+{
+    /**
+     * Paragraphs of plain text with a bit of emphasis and some links.
+     */
+    PROSE(64 * 1024, """
+        Lorem ipsum dolor sit amet, *consectetur* adipiscing elit, sed do eiusmod tempor incididunt ut labore et \
+        dolore magna aliqua. Ut enim ad minim veniam, quis **nostrud** exercitation ullamco laboris nisi ut aliquip \
+        ex ea commodo consequat. See [the documentation](https://www.xwiki.org) or [[Main.WebHome]] for details.
+
+        Duis aute irure dolor in reprehenderit in voluptate velit esse cillum dolore eu fugiat nulla pariatur. \
+        Excepteur sint occaecat cupidatat non proident, sunt in culpa qui officia deserunt mollit anim id est laborum.
+
+        """),
+
+    /**
+     * Prose mixed with many inline and block math expressions.
+     */
+    MATH(64 * 1024, """
+        Let $x_i$ be the samples and $\\mu = \\frac{1}{n}\\sum_{i=1}^{n} x_i$ their mean, then the variance is \
+        $\\sigma^2 = \\frac{1}{n}\\sum_{i=1}^{n}(x_i - \\mu)^2$ and costs $5 each to compute.
+
+        $$
+        \\int_{-\\infty}^{+\\infty} e^{-x^2} dx = \\sqrt{\\pi}
+        $$
+
+        Since $a^2 + b^2 = c^2$ we have $c = \\sqrt{a^2 + b^2}$, see $$E = mc^2$$ for another *famous* one.
+
+        """),
+
+    /**
+     * Tables with a few columns and rows.
+     */
+    TABLES(64 * 1024, """
+        | Name | Type | Default | Description |
+        |:-----|:----:|--------:|-------------|
+        | size | int | 10 | The **size** of the cache |
+        | name | String | none | The [name](https://www.xwiki.org) of the entry |
+        | enabled | boolean | true | Whether the `feature` is enabled |
+        | ratio | double | 0.75 | The load factor |
+
+        """),
+
+    /**
+     * Prose with a lot of inline HTML and a few HTML blocks.
+     */
+    INLINE_HTML(64 * 1024, """
+        Some <span style="color:red">red text</span> and <b>bold</b> or <em>emphasized</em> words, with a \
+        <a href="https://www.xwiki.org">link</a> and a line<br/>break.
+
+        <div class="box">
+        <p>An HTML block</p>
+        </div>
+
+        """),
+
+    /**
+     * Many short sections.
+     */
+    HEADINGS(64 * 1024, """
+        # Title with *emphasis*
+
+        Short paragraph.
+
+        ## Subtitle with a [link](https://www.xwiki.org)
+
+        ### Third level
+
+        Another short paragraph.
+
+        """),
+
+    /**
+     * Text full of characters that have a meaning in Markdown and need to be escaped again when rendering.
+     */
+    ESCAPES(64 * 1024, """
+        Literal \\*stars\\*, \\_underscores\\_, \\# hashes, \\`backticks\\`, \\[brackets\\] and \\<angles\\> \
+        along with 2 * 3 = 6, a_b_c, 100% and {braces} or ~~tildes~~ ^carets^ | pipes | and 1. numbers.
+
+        \\- not a list item and \\> not a quote, with C:\\\\Windows\\\\path and \\\\\\\\ backslashes.
+
+        """),
+
+    /**
+     * Lists nested several levels deep, both ordered and unordered.
+     */
+    NESTED_LISTS(64 * 1024, """
+        * first level item
+          * second level with **bold**
+            1. third level ordered
+               * fourth level with a [link](https://www.xwiki.org)
+                 * fifth level
+            2. third level again
+          * back to second
+        * first level again
+
+        """),
+
+    /**
+     * Nested block quotes containing other blocks.
+     */
+    QUOTES(64 * 1024, """
+        > A quoted paragraph with *emphasis*
+        > spanning two lines.
+        >
+        > > A nested quote with a [link](https://www.xwiki.org).
+        > >
+        > > > And a third level.
+        >
+        > * a list in a quote
+        > * another item
+
+        """),
+
+    /**
+     * Paragraphs made mostly of links of all kinds.
+     */
+    LINKS(64 * 1024, """
+        See [XWiki](https://www.xwiki.org "XWiki home"), <https://extensions.xwiki.org>, <contact@xwiki.org>, \
+        [[Main.WebHome]], [[Sandbox.TestPage|label with *emphasis*]], [a reference link][ref] and \
+        ![an image](https://www.xwiki.org/logo.png) followed by [another](https://www.xwiki.org/xwiki/bin/view/Main/).
+
+        [ref]: https://dev.xwiki.org "Development"
+
+        """),
+
+    /**
+     * Text using many abbreviations.
+     */
+    ABBREVIATIONS(64 * 1024, """
+        The HTML specification is maintained by the W3C and the WHATWG while the CSS one is W3C only. An API \
+        exposed over HTTP usually talks JSON, sometimes XML, and the HTML or CSS served by the same HTTP server.
+
+        *[HTML]: Hyper Text Markup Language
+        *[W3C]: World Wide Web Consortium
+        *[WHATWG]: Web Hypertext Application Technology Working Group
+        *[CSS]: Cascading Style Sheets
+        *[API]: Application Programming Interface
+        *[HTTP]: Hypertext Transfer Protocol
+        *[JSON]: JavaScript Object Notation
+        *[XML]: Extensible Markup Language
+
+        """),
+
+    /**
+     * A large document mixing all the other families.
+     */
+    HUGE(8 * 1024 * 1024, PROSE.block + MATH.block + TABLES.block + INLINE_HTML.block + HEADINGS.block);
+
+    private final int size;
+
+    private final String block;
+
+    Corpus(int size, String block)
+    {
+        this.size = size;
+        this.block = block;
+    }
+
+    /**
+     * @return the content of the corpus, always the same for a given corpus
+     */
+    public String create()
+    {
+        StringBuilder builder = new StringBuilder(this.size + this.block.length());
+        while (builder.length() < this.size) {
+            builder.append(this.block);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.ExtensionProfile;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.ProfiledStreamParser;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Parser throughput for each {@link ExtensionProfile}, on generated content resembling comments and descriptions.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtensionProfileBenchmark
+{
+    @Param({ "full", "no-autolink", "inline-only", "links", "minimal" })
+    public String profile;
+
+    @Param({ "PROSE", "WIKI_LINKS", "MIXED" })
+    public FeatureFamily family;
+
+    @Param({ "1024", "65536" })
+    public int size;
+
+    private ProfiledStreamParser parser;
+
+    private ExtensionProfile extensionProfile;
+
+    private String content;
+
+    @Setup
+    public void setUp()
+    {
+        ComponentManager componentManager = BenchmarkComponents.createComponentManager();
+        this.parser =
+            BenchmarkComponents.lookup(componentManager, ProfiledStreamParser.class, "commonmark-vscode/0.1");
+        this.extensionProfile = ExtensionProfile.fromId(this.profile);
+        this.content =
+            new MarkdownCorpusGenerator(GeneratedCorpusBenchmark.SEED, this.family.createMix()).generate(this.size);
+    }
+
+    @Benchmark
+    public void parse() throws ParseException
+    {
+        this.parser.parse(new StringReader(this.content), new NoOpListener(), this.extensionProfile);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.ExtractedResourceReference;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.ResourceReferenceExtractor;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.internal.parser.XDOMGeneratorListener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.StreamParser;
+
+/**
+ * Compares the link and image reference extraction of {@link ResourceReferenceExtractor} with a full parsing of the
+ * same content (the same measurements as {@link ParserBenchmark}, on generated corpora).
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractionBenchmark
+{
+    private static final String SYNTAX = "commonmark-vscode/0.1";
+
+    @Param({ "PROSE", "WIKI_LINKS", "MIXED" })
+    public FeatureFamily family;
+
+    @Param({ "1048576" })
+    public int size;
+
+    private StreamParser parser;
+
+    private ResourceReferenceExtractor extractor;
+
+    private String content;
+
+    @Setup
+    public void setUp()
+    {
+        ComponentManager componentManager = BenchmarkComponents.createComponentManager();
+        this.parser = BenchmarkComponents.lookup(componentManager, StreamParser.class, SYNTAX);
+        this.extractor = BenchmarkComponents.lookup(componentManager, ResourceReferenceExtractor.class, SYNTAX);
+        this.content = new MarkdownCorpusGenerator(GeneratedCorpusBenchmark.SEED, this.family.createMix())
+            .generate(this.size);
+    }
+
+    @Benchmark
+    public List<ExtractedResourceReference> extractReferences() throws ParseException
+    {
+        return this.extractor.extract(new StringReader(this.content));
+    }
+
+    @Benchmark
+    public void parseToNoOpListener() throws ParseException
+    {
+        this.parser.parse(new StringReader(this.content), new NoOpListener());
+    }
+
+    @Benchmark
+    public XDOM parseToXDOM() throws ParseException
+    {
+        XDOMGeneratorListener listener = new XDOMGeneratorListener();
+        this.parser.parse(new StringReader(this.content), listener);
+        return listener.getXDOM();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.util.function.Supplier;
+
+/**
+ * Predefined {@link FeatureMix feature mixes}, each one concentrating on the part of the parser and renderer handling a
+ * given Markdown feature.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public enum FeatureFamily
+{
+    /**
+     * Long plain paragraphs.
+     */
+    PROSE(() -> new FeatureMix().setParagraphLength(120)),
+
+    /**
+     * Paragraphs where many words are emphasized.
+     */
+    EMPHASIS(() -> new FeatureMix().setEmphasisDensity(0.4)),
+
+    /**
+     * Inline and block math.
+     */
+    MATH(() -> new FeatureMix().setInlineMathRatio(0.15).setBlockMathRatio(0.3)),
+
+    /**
+     * Mostly tables.
+     */
+    TABLES(() -> new FeatureMix().setTableRatio(0.8).setTableSize(8, 5).setParagraphLength(20)),
+
+    /**
+     * Deeply nested lists and quotes.
+     */
+    NESTING(() -> new FeatureMix().setListRatio(0.45).setQuoteRatio(0.45).setNestingDepth(6)
+        .setParagraphLength(8)),
+
+    /**
+     * Paragraphs with a lot of inline HTML.
+     */
+    INLINE_HTML(() -> new FeatureMix().setInlineHtmlRatio(0.3)),
+
+    /**
+     * Paragraphs with a lot of wiki links.
+     */
+    WIKI_LINKS(() -> new FeatureMix().setWikiLinkRatio(0.3)),
+
+    /**
+     * Paragraphs using many abbreviations.
+     */
+    ABBREVIATIONS(() -> new FeatureMix().setAbbreviationRatio(0.3)),
+
+    /**
+     * Paragraphs full of backslashes and characters that need escaping.
+     */
+    ESCAPES(() -> new FeatureMix().setEscapeRatio(0.3)),
+
+    /**
+     * Paragraphs full of prices, i.e. dollar signs that are not math delimiters.
+     */
+    PRICES(() -> new FeatureMix().setPriceRatio(0.2)),
+
+    /**
+     * Mostly fenced code blocks.
+     */
+    CODE(() -> new FeatureMix().setCodeFenceRatio(0.7)),
+
+    /**
+     * A bit of everything, close to a real wiki page.
+     */
+    MIXED(() -> new FeatureMix().setEmphasisDensity(0.05).setInlineMathRatio(0.02).setInlineHtmlRatio(0.02)
+        .setWikiLinkRatio(0.03).setAbbreviationRatio(0.02).setHeadingRatio(0.1).setBlockMathRatio(0.05)
+        .setTableRatio(0.1).setListRatio(0.15).setQuoteRatio(0.05).setNestingDepth(3).setCodeFenceRatio(0.05));
+
+    private final Supplier<FeatureMix> mix;
+
+    FeatureFamily(Supplier<FeatureMix> mix)
+    {
+        this.mix = mix;
+    }
+
+    /**
+     * @return a new mix for this family, that can be further customized
+     */
+    public FeatureMix createMix()
+    {
+        return this.mix.get();
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+/**
+ * The proportions of the Markdown features emitted by {@link MarkdownCorpusGenerator}. Block ratios are the
+ * probabilities for each generated block to be of the given kind (the remaining probability is for plain paragraphs)
+ * and word ratios are the probabilities for each generated word to be replaced by the given inline element (the
+ * remaining probability is for plain words). Each group must sum to at most 1.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public final class FeatureMix
+{
+    private int paragraphLength = 60;
+
+    private double emphasisDensity;
+
+    private double inlineMathRatio;
+
+    private double inlineHtmlRatio;
+
+    private double wikiLinkRatio;
+
+    private double abbreviationRatio;
+
+    private double escapeRatio;
+
+    private double priceRatio;
+
+    private double headingRatio;
+
+    private double blockMathRatio;
+
+    private double tableRatio;
+
+    private int tableRows = 5;
+
+    private int tableColumns = 4;
+
+    private double listRatio;
+
+    private double quoteRatio;
+
+    private int nestingDepth = 1;
+
+    private double codeFenceRatio;
+
+    /**
+     * @return the average number of words in a paragraph, list item, quote or table cell group
+     */
+    public int getParagraphLength()
+    {
+        return this.paragraphLength;
+    }
+
+    /**
+     * @param paragraphLength see {@link #getParagraphLength()}
+     * @return this mix
+     */
+    public FeatureMix setParagraphLength(int paragraphLength)
+    {
+        this.paragraphLength = checkPositive(paragraphLength, "paragraphLength");
+        return this;
+    }
+
+    /**
+     * @return the probability for a word to be emphasized (italic, bold or strikethrough)
+     */
+    public double getEmphasisDensity()
+    {
+        return this.emphasisDensity;
+    }
+
+    /**
+     * @param emphasisDensity see {@link #getEmphasisDensity()}
+     * @return this mix
+     */
+    public FeatureMix setEmphasisDensity(double emphasisDensity)
+    {
+        this.emphasisDensity = checkRatio(emphasisDensity, "emphasisDensity");
+        return this;
+    }
+
+    /**
+     * @return the probability for a word to be replaced by an inline math expression
+     */
+    public double getInlineMathRatio()
+    {
+        return this.inlineMathRatio;
+    }
+
+    /**
+     * @param inlineMathRatio see {@link #getInlineMathRatio()}
+     * @return this mix
+     */
+    public FeatureMix setInlineMathRatio(double inlineMathRatio)
+    {
+        this.inlineMathRatio = checkRatio(inlineMathRatio, "inlineMathRatio");
+        return this;
+    }
+
+    /**
+     * @return the probability for a word to be wrapped in inline HTML
+     */
+    public double getInlineHtmlRatio()
+    {
+        return this.inlineHtmlRatio;
+    }
+
+    /**
+     * @param inlineHtmlRatio see {@link #getInlineHtmlRatio()}
+     * @return this mix
+     */
+    public FeatureMix setInlineHtmlRatio(double inlineHtmlRatio)
+    {
+        this.inlineHtmlRatio = checkRatio(inlineHtmlRatio, "inlineHtmlRatio");
+        return this;
+    }
+
+    /**
+     * @return the probability for a word to be replaced by a wiki link
+     */
+    public double getWikiLinkRatio()
+    {
+        return this.wikiLinkRatio;
+    }
+
+    /**
+     * @param wikiLinkRatio see {@link #getWikiLinkRatio()}
+     * @return this mix
+     */
+    public FeatureMix setWikiLinkRatio(double wikiLinkRatio)
+    {
+        this.wikiLinkRatio = checkRatio(wikiLinkRatio, "wikiLinkRatio");
+        return this;
+    }
+
+    /**
+     * @return the probability for a word to be replaced by an abbreviation, defined at the end of the document
+     */
+    public double getAbbreviationRatio()
+    {
+        return this.abbreviationRatio;
+    }
+
+    /**
+     * @param abbreviationRatio see {@link #getAbbreviationRatio()}
+     * @return this mix
+     */
+    public FeatureMix setAbbreviationRatio(double abbreviationRatio)
+    {
+        this.abbreviationRatio = checkRatio(abbreviationRatio, "abbreviationRatio");
+        return this;
+    }
+
+    /**
+     * @return the probability for a word to contain backslash escapes or characters that have a meaning in Markdown
+     */
+    public double getEscapeRatio()
+    {
+        return this.escapeRatio;
+    }
+
+    /**
+     * @param escapeRatio see {@link #getEscapeRatio()}
+     * @return this mix
+     */
+    public FeatureMix setEscapeRatio(double escapeRatio)
+    {
+        this.escapeRatio = checkRatio(escapeRatio, "escapeRatio");
+        return this;
+    }
+
+    /**
+     * @return the probability for a word to be a price such as {@code $5}, i.e. a lone math delimiter
+     */
+    public double getPriceRatio()
+    {
+        return this.priceRatio;
+    }
+
+    /**
+     * @param priceRatio see {@link #getPriceRatio()}
+     * @return this mix
+     */
+    public FeatureMix setPriceRatio(double priceRatio)
+    {
+        this.priceRatio = checkRatio(priceRatio, "priceRatio");
+        return this;
+    }
+
+    /**
+     * @return the probability for a block to be a heading
+     */
+    public double getHeadingRatio()
+    {
+        return this.headingRatio;
+    }
+
+    /**
+     * @param headingRatio see {@link #getHeadingRatio()}
+     * @return this mix
+     */
+    public FeatureMix setHeadingRatio(double headingRatio)
+    {
+        this.headingRatio = checkRatio(headingRatio, "headingRatio");
+        return this;
+    }
+
+    /**
+     * @return the probability for a block to be a {@code $$} math block
+     */
+    public double getBlockMathRatio()
+    {
+        return this.blockMathRatio;
+    }
+
+    /**
+     * @param blockMathRatio see {@link #getBlockMathRatio()}
+     * @return this mix
+     */
+    public FeatureMix setBlockMathRatio(double blockMathRatio)
+    {
+        this.blockMathRatio = checkRatio(blockMathRatio, "blockMathRatio");
+        return this;
+    }
+
+    /**
+     * @return the probability for a block to be a table
+     */
+    public double getTableRatio()
+    {
+        return this.tableRatio;
+    }
+
+    /**
+     * @param tableRatio see {@link #getTableRatio()}
+     * @return this mix
+     */
+    public FeatureMix setTableRatio(double tableRatio)
+    {
+        this.tableRatio = checkRatio(tableRatio, "tableRatio");
+        return this;
+    }
+
+    /**
+     * @return the number of body rows of the generated tables
+     */
+    public int getTableRows()
+    {
+        return this.tableRows;
+    }
+
+    /**
+     * @return the number of columns of the generated tables
+     */
+    public int getTableColumns()
+    {
+        return this.tableColumns;
+    }
+
+    /**
+     * @param rows see {@link #getTableRows()}
+     * @param columns see {@link #getTableColumns()}
+     * @return this mix
+     */
+    public FeatureMix setTableSize(int rows, int columns)
+    {
+        this.tableRows = checkPositive(rows, "tableRows");
+        this.tableColumns = checkPositive(columns, "tableColumns");
+        return this;
+    }
+
+    /**
+     * @return the probability for a block to be a (possibly nested) list
+     */
+    public double getListRatio()
+    {
+        return this.listRatio;
+    }
+
+    /**
+     * @param listRatio see {@link #getListRatio()}
+     * @return this mix
+     */
+    public FeatureMix setListRatio(double listRatio)
+    {
+        this.listRatio = checkRatio(listRatio, "listRatio");
+        return this;
+    }
+
+    /**
+     * @return the probability for a block to be a (possibly nested) block quote
+     */
+    public double getQuoteRatio()
+    {
+        return this.quoteRatio;
+    }
+
+    /**
+     * @param quoteRatio see {@link #getQuoteRatio()}
+     * @return this mix
+     */
+    public FeatureMix setQuoteRatio(double quoteRatio)
+    {
+        this.quoteRatio = checkRatio(quoteRatio, "quoteRatio");
+        return this;
+    }
+
+    /**
+     * @return the nesting depth of the generated lists and quotes
+     */
+    public int getNestingDepth()
+    {
+        return this.nestingDepth;
+    }
+
+    /**
+     * @param nestingDepth see {@link #getNestingDepth()}
+     * @return this mix
+     */
+    public FeatureMix setNestingDepth(int nestingDepth)
+    {
+        this.nestingDepth = checkPositive(nestingDepth, "nestingDepth");
+        return this;
+    }
+
+    /**
+     * @return the probability for a block to be a fenced code block
+     */
+    public double getCodeFenceRatio()
+    {
+        return this.codeFenceRatio;
+    }
+
+    /**
+     * @param codeFenceRatio see {@link #getCodeFenceRatio()}
+     * @return this mix
+     */
+    public FeatureMix setCodeFenceRatio(double codeFenceRatio)
+    {
+        this.codeFenceRatio = checkRatio(codeFenceRatio, "codeFenceRatio");
+        return this;
+    }
+
+    /**
+     * @throws IllegalStateException if the block or word ratios sum to more than 1
+     */
+    void validate()
+    {
+        double blocks = this.headingRatio + this.blockMathRatio + this.tableRatio + this.listRatio + this.quoteRatio
+            + this.codeFenceRatio;
+        if (blocks > 1) {
+            throw new IllegalStateException(String.format("The block ratios sum to [%s], more than 1", blocks));
+        }
+        double words = this.emphasisDensity + this.inlineMathRatio + this.inlineHtmlRatio + this.wikiLinkRatio
+            + this.abbreviationRatio + this.escapeRatio + this.priceRatio;
+        if (words > 1) {
+            throw new IllegalStateException(String.format("The word ratios sum to [%s], more than 1", words));
+        }
+    }
+
+    private static double checkRatio(double value, String name)
+    {
+        if (value < 0 || value > 1) {
+            throw new IllegalArgumentException(String.format("[%s] must be between 0 and 1, got [%s]", name, value));
+        }
+        return value;
+    }
+
+    private static int checkPositive(int value, String name)
+    {
+        if (value < 1) {
+            throw new IllegalArgumentException(String.format("[%s] must be positive, got [%s]", name, value));
+        }
+        return value;
+    }
+}
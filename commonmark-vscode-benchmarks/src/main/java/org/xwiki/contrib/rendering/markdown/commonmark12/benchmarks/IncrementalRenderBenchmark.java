@@ -0,0 +1,117 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer.IncrementalMarkdownRenderer;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer.IncrementalRenderCache;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.renderer.BlockRenderer;
+
+/**
+ * Compares the rendering to Markdown of a document saved from the WYSIWYG editor with the block renderer and with
+ * {@link IncrementalMarkdownRenderer}. Each invocation renders the other one of two versions of the document that
+ * differ by a single paragraph, so that the incremental rendering reuses the Markdown of all the other blocks, as
+ * for successive saves of a document where a paragraph is edited between two saves.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalRenderBenchmark
+{
+    private static final String SYNTAX = "commonmark-vscode/0.1";
+
+    @Param({ "PROSE", "MIXED" })
+    public FeatureFamily family;
+
+    @Param({ "65536", "1048576" })
+    public int size;
+
+    private BlockRenderer blockRenderer;
+
+    private IncrementalMarkdownRenderer incrementalRenderer;
+
+    private final IncrementalRenderCache cache = new IncrementalRenderCache();
+
+    private final XDOM[] versions = new XDOM[2];
+
+    private int invocation;
+
+    @Setup
+    public void setUp() throws ParseException
+    {
+        ComponentManager componentManager = BenchmarkComponents.createComponentManager();
+        Parser parser = BenchmarkComponents.lookup(componentManager, Parser.class, SYNTAX);
+        this.blockRenderer = BenchmarkComponents.lookup(componentManager, BlockRenderer.class, SYNTAX);
+        this.incrementalRenderer =
+            BenchmarkComponents.lookup(componentManager, IncrementalMarkdownRenderer.class, SYNTAX);
+
+        String content = new MarkdownCorpusGenerator(GeneratedCorpusBenchmark.SEED, this.family.createMix())
+            .generate(this.size);
+        // Edit the paragraph starting after the middle of the content.
+        int middle = content.indexOf("\n\n", content.length() / 2) + 2;
+        String edited = content.substring(0, middle) + "Edited " + content.substring(middle);
+        this.versions[0] = parser.parse(new StringReader(content));
+        this.versions[1] = parser.parse(new StringReader(edited));
+    }
+
+    @Benchmark
+    public long full()
+    {
+        NullWikiPrinter printer = new NullWikiPrinter();
+        this.blockRenderer.render(nextVersion(), printer);
+        return printer.getLength();
+    }
+
+    @Benchmark
+    public long incremental()
+    {
+        NullWikiPrinter printer = new NullWikiPrinter();
+        this.incrementalRenderer.render(nextVersion(), printer, this.cache);
+        return printer.getLength();
+    }
+
+    private XDOM nextVersion()
+    {
+        return this.versions[this.invocation++ & 1];
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Generates synthetic Markdown with a given {@link FeatureMix} and size. The output only depends on the seed, the mix
+ * and the target size, so that benchmarks and scaling tests can exercise any feature at any size (typically from 1 KB
+ * to 100 MB) without storing large fixtures.
+ * <p>
+ * The content is generated block by block until the target size is reached, so the result is slightly larger than
+ * the target (by at most one block plus the abbreviation definitions).
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class MarkdownCorpusGenerator
+{
+    private static final String[] WORDS = {
+        "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do", "eiusmod",
+        "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua", "enim", "ad", "minim", "veniam",
+        "quis", "nostrud", "exercitation", "ullamco", "laboris", "nisi", "aliquip", "ex", "ea", "commodo",
+        "consequat", "duis", "aute", "irure", "in", "reprehenderit", "voluptate", "velit", "esse", "cillum", "fugiat",
+        "nulla", "pariatur", "excepteur", "sint", "occaecat", "cupidatat", "non", "proident", "sunt", "culpa", "qui",
+        "officia", "deserunt", "mollit", "anim", "id", "est", "laborum"
+    };
+
+    private static final String[][] ABBREVIATIONS = {
+        { "HTML", "Hyper Text Markup Language" },
+        { "CSS", "Cascading Style Sheets" },
+        { "W3C", "World Wide Web Consortium" },
+        { "API", "Application Programming Interface" },
+        { "HTTP", "Hypertext Transfer Protocol" },
+        { "JSON", "JavaScript Object Notation" },
+        { "XML", "Extensible Markup Language" },
+        { "URL", "Uniform Resource Locator" }
+    };
+
+    private static final String[] INLINE_MATH = {
+        "x_{%d}^2", "\\frac{a_{%d}}{b}", "\\sqrt{n + %d}", "\\sum_{i=1}^{%d} i", "e^{i\\pi} + %d"
+    };
+
+    private static final String[] BLOCK_MATH = {
+        "\\int_{0}^{%d} x^2 \\, dx", "\\sum_{k=0}^{%d} \\binom{n}{k} = 2^n", "\\lim_{n \\to \\infty} (1 + 1/n)^{%d}"
+    };
+
+    private static final String[] EMPHASIS = { "*", "**", "_", "~~" };
+
+    private static final String[] ESCAPES = {
+        "\\*%s\\*", "%s_%s", "C:\\%s\\%s", "2 * %s", "\\\\%s", "\\[%s\\]", "`%s`", "\\$%s"
+    };
+
+    private static final String[] HTML_TAGS = { "span", "b", "em", "code", "small" };
+
+    private static final String[] CODE_LANGUAGES = { "java", "javascript", "xml", "" };
+
+    private static final String NEW_LINE = "\n";
+
+    private static final char SPACE = ' ';
+
+    private final long seed;
+
+    private final FeatureMix mix;
+
+    /**
+     * @param seed the seed of the pseudo random generator, the same seed always produces the same content
+     * @param mix the proportions of the features to generate
+     */
+    public MarkdownCorpusGenerator(long seed, FeatureMix mix)
+    {
+        mix.validate();
+        this.seed = seed;
+        this.mix = mix;
+    }
+
+    /**
+     * @param targetSize the minimum number of characters to generate
+     * @return the generated Markdown
+     */
+    public String generate(int targetSize)
+    {
+        StringBuilder builder = new StringBuilder(targetSize + 1024);
+        try {
+            generate(builder, targetSize);
+        } catch (IOException e) {
+            // Never happens with a StringBuilder
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Streams the generated Markdown, for sizes that shouldn't be held in memory.
+     *
+     * @param output where to write the generated Markdown
+     * @param targetSize the minimum number of characters to generate
+     * @throws IOException if writing to the output fails
+     */
+    public void generate(Appendable output, long targetSize) throws IOException
+    {
+        Random random = new Random(this.seed);
+        BitSet usedAbbreviations = new BitSet(ABBREVIATIONS.length);
+        StringBuilder block = new StringBuilder(4096);
+        long size = 0;
+        while (size < targetSize) {
+            block.setLength(0);
+            appendBlock(block, random, usedAbbreviations);
+            block.append(NEW_LINE);
+            output.append(block);
+            size += block.length();
+        }
+
+        for (int i = usedAbbreviations.nextSetBit(0); i >= 0; i = usedAbbreviations.nextSetBit(i + 1)) {
+            output.append("*[").append(ABBREVIATIONS[i][0]).append("]: ").append(ABBREVIATIONS[i][1])
+                .append(NEW_LINE);
+        }
+    }
+
+    private void appendBlock(StringBuilder block, Random random, BitSet usedAbbreviations)
+    {
+        double choice = random.nextDouble();
+        if ((choice -= this.mix.getHeadingRatio()) < 0) {
+            block.append("#".repeat(1 + random.nextInt(6))).append(SPACE);
+            appendWords(block, random, 3 + random.nextInt(6), usedAbbreviations);
+            block.append(NEW_LINE);
+        } else if ((choice -= this.mix.getBlockMathRatio()) < 0) {
+            block.append("$$\n").append(String.format(pick(random, BLOCK_MATH), random.nextInt(100)))
+                .append("\n$$\n");
+        } else if ((choice -= this.mix.getTableRatio()) < 0) {
+            appendTable(block, random, usedAbbreviations);
+        } else if ((choice -= this.mix.getListRatio()) < 0) {
+            appendList(block, random, 0, usedAbbreviations);
+        } else if ((choice -= this.mix.getQuoteRatio()) < 0) {
+            appendQuote(block, random, 1, usedAbbreviations);
+        } else if ((choice -= this.mix.getCodeFenceRatio()) < 0) {
+            appendCodeFence(block, random);
+        } else {
+            appendWords(block, random, variate(random, this.mix.getParagraphLength()), usedAbbreviations);
+            block.append(NEW_LINE);
+        }
+    }
+
+    private void appendTable(StringBuilder block, Random random, BitSet usedAbbreviations)
+    {
+        int columns = this.mix.getTableColumns();
+        int cellLength = Math.max(1, this.mix.getParagraphLength() / columns);
+        block.append('|');
+        for (int column = 0; column < columns; column++) {
+            block.append(" Column ").append(column + 1).append(" |");
+        }
+        block.append("\n|");
+        for (int column = 0; column < columns; column++) {
+            block.append(column % 3 == 1 ? ":---:|" : "---|");
+        }
+        block.append(NEW_LINE);
+        for (int row = 0; row < this.mix.getTableRows(); row++) {
+            block.append('|');
+            for (int column = 0; column < columns; column++) {
+                block.append(SPACE);
+                appendWords(block, random, variate(random, cellLength), usedAbbreviations);
+                block.append(" |");
+            }
+            block.append(NEW_LINE);
+        }
+    }
+
+    private void appendList(StringBuilder block, Random random, int depth, BitSet usedAbbreviations)
+    {
+        int items = 2 + random.nextInt(2);
+        // A single item holds the nested list so that the block size grows linearly with the nesting depth.
+        int nestingItem = random.nextInt(items);
+        String indentation = "  ".repeat(depth);
+        for (int item = 0; item < items; item++) {
+            block.append(indentation).append("* ");
+            appendWords(block, random, variate(random, this.mix.getParagraphLength()), usedAbbreviations);
+            block.append(NEW_LINE);
+            if (item == nestingItem && depth + 1 < this.mix.getNestingDepth()) {
+                appendList(block, random, depth + 1, usedAbbreviations);
+            }
+        }
+    }
+
+    private void appendQuote(StringBuilder block, Random random, int depth, BitSet usedAbbreviations)
+    {
+        String prefix = "> ".repeat(depth);
+        block.append(prefix);
+        appendWords(block, random, variate(random, this.mix.getParagraphLength()), usedAbbreviations);
+        block.append(NEW_LINE);
+        if (depth < this.mix.getNestingDepth()) {
+            block.append(prefix.stripTrailing()).append(NEW_LINE);
+            appendQuote(block, random, depth + 1, usedAbbreviations);
+        }
+    }
+
+    private void appendCodeFence(StringBuilder block, Random random)
+    {
+        block.append("```").append(pick(random, CODE_LANGUAGES)).append(NEW_LINE);
+        int lines = 3 + random.nextInt(10);
+        for (int line = 0; line < lines; line++) {
+            block.append("    ".repeat(random.nextInt(3))).append(pick(random, WORDS)).append('(')
+                .append(pick(random, WORDS)).append(", ").append(random.nextInt(1000)).append(");\n");
+        }
+        block.append("```\n");
+    }
+
+    private void appendWords(StringBuilder block, Random random, int count, BitSet usedAbbreviations)
+    {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                block.append(i % 12 == 0 ? ". " : " ");
+            }
+            appendWord(block, random, usedAbbreviations);
+        }
+        block.append('.');
+    }
+
+    private void appendWord(StringBuilder block, Random random, BitSet usedAbbreviations)
+    {
+        double choice = random.nextDouble();
+        if ((choice -= this.mix.getEmphasisDensity()) < 0) {
+            String marker = pick(random, EMPHASIS);
+            block.append(marker).append(pick(random, WORDS)).append(marker);
+        } else if ((choice -= this.mix.getInlineMathRatio()) < 0) {
+            block.append('$').append(String.format(pick(random, INLINE_MATH), random.nextInt(100))).append('$');
+        } else if ((choice -= this.mix.getInlineHtmlRatio()) < 0) {
+            String tag = pick(random, HTML_TAGS);
+            block.append('<').append(tag).append(" class=\"c").append(random.nextInt(10)).append("\">")
+                .append(pick(random, WORDS)).append("</").append(tag).append('>');
+        } else if ((choice -= this.mix.getWikiLinkRatio()) < 0) {
+            block.append("[[Space").append(random.nextInt(10)).append(".Page").append(random.nextInt(1000));
+            if (random.nextBoolean()) {
+                block.append('|').append(pick(random, WORDS));
+            }
+            block.append("]]");
+        } else if ((choice -= this.mix.getAbbreviationRatio()) < 0) {
+            int abbreviation = random.nextInt(ABBREVIATIONS.length);
+            usedAbbreviations.set(abbreviation);
+            block.append(ABBREVIATIONS[abbreviation][0]);
+        } else if ((choice -= this.mix.getEscapeRatio()) < 0) {
+            block.append(String.format(pick(random, ESCAPES), pick(random, WORDS), pick(random, WORDS)));
+        } else if ((choice -= this.mix.getPriceRatio()) < 0) {
+            block.append('$').append(random.nextInt(1000));
+        } else {
+            block.append(pick(random, WORDS));
+        }
+    }
+
+    private static int variate(Random random, int average)
+    {
+        // Between half and one and a half times the average.
+        return Math.max(1, average / 2 + random.nextInt(average + 1));
+    }
+
+    private static String pick(Random random, String[] values)
+    {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.StreamParser;
+
+/**
+ * Parses deeply nested lists and blockquotes, whose paragraph events used to go through a wrapping listener per
+ * nesting level.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NestedStructureBenchmark
+{
+    /**
+     * The nested Markdown element.
+     */
+    public enum Structure
+    {
+        /**
+         * Bulleted list items.
+         */
+        LIST,
+
+        /**
+         * Blockquotes.
+         */
+        QUOTE
+    }
+
+    private static final String SENTENCE = "Some words with *emphasis* and a [[wiki link]] in a nested paragraph.\n";
+
+    @Param
+    public Structure structure;
+
+    @Param({ "10" })
+    public int depth;
+
+    @Param({ "200" })
+    public int blocks;
+
+    private StreamParser parser;
+
+    private String content;
+
+    @Setup
+    public void setUp()
+    {
+        ComponentManager componentManager = BenchmarkComponents.createComponentManager();
+        this.parser = BenchmarkComponents.lookup(componentManager, StreamParser.class, "commonmark-vscode/0.1");
+        this.content = createContent();
+    }
+
+    @Benchmark
+    public void parse() throws ParseException
+    {
+        this.parser.parse(new StringReader(this.content), new NoOpListener());
+    }
+
+    private String createContent()
+    {
+        boolean list = this.structure == Structure.LIST;
+        StringBuilder content = new StringBuilder();
+        for (int block = 0; block < this.blocks; block++) {
+            String prefix = "";
+            for (int level = 0; level < this.depth; level++) {
+                // Two paragraphs at each level, the nested element starting after them.
+                prefix = list ? "  ".repeat(level) : prefix + "> ";
+                String blankLine = (list ? "" : prefix.trim()) + '\n';
+                content.append(prefix).append(list ? "* " : "").append(SENTENCE).append(blankLine);
+                content.append(prefix).append(list ? "  " : "").append(SENTENCE).append(blankLine);
+            }
+            content.append("\nParagraph between the nested blocks.\n\n");
+        }
+        return content.toString();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.renderer.BlockRenderer;
+
+/**
+ * Measures the Markdown block renderer on large XDOMs, sequentially ({@code parallelThreshold} 0) and with its top-level
+ * blocks rendered in parallel by the thread pool of the renderer (see
+ * {@code -Dxwiki.commonmarkvscode.render.parallelThreshold} and {@code -Dxwiki.commonmarkvscode.render.threads}).
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelRenderBenchmark
+{
+    private static final String SYNTAX = "commonmark-vscode/0.1";
+
+    private static final String THRESHOLD = "xwiki.commonmarkvscode.render.parallelThreshold";
+
+    @Param({ "PROSE", "MIXED" })
+    public FeatureFamily family;
+
+    @Param({ "1048576", "8388608" })
+    public int size;
+
+    @Param({ "0", "64" })
+    public String parallelThreshold;
+
+    private BlockRenderer blockRenderer;
+
+    private XDOM xdom;
+
+    @Setup
+    public void setUp() throws ParseException
+    {
+        System.setProperty(THRESHOLD, this.parallelThreshold);
+        ComponentManager componentManager = BenchmarkComponents.createComponentManager();
+        Parser parser = BenchmarkComponents.lookup(componentManager, Parser.class, SYNTAX);
+        this.blockRenderer = BenchmarkComponents.lookup(componentManager, BlockRenderer.class, SYNTAX);
+        String content = new MarkdownCorpusGenerator(GeneratedCorpusBenchmark.SEED, this.family.createMix())
+            .generate(this.size);
+        this.xdom = parser.parse(new StringReader(content));
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        System.clearProperty(THRESHOLD);
+    }
+
+    @Benchmark
+    public long render()
+    {
+        NullWikiPrinter printer = new NullWikiPrinter();
+        this.blockRenderer.render(this.xdom, printer);
+        return printer.getLength();
+    }
+}
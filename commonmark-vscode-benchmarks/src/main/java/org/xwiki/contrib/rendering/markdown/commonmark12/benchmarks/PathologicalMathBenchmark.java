@@ -0,0 +1,126 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.StreamParser;
+
+/**
+ * Parser benchmarks on inputs designed to defeat the math delimiter matching: long {@code $} runs, many lone
+ * {@code $}, long backslash runs and escaped delimiters. The duration should grow linearly with the size.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathologicalMathBenchmark
+{
+    /**
+     * The pathological inputs, generated for a given size.
+     */
+    public enum Input
+    {
+        /**
+         * An unclosed inline expression followed by a single long run of {@code $}.
+         */
+        DOLLAR_RUN(size -> "Some $text " + "$".repeat(size) + " end"),
+
+        /**
+         * A lone {@code $} on each line, as in a price list.
+         */
+        PRICES(size -> repeat("* Item costs $5 per unit, shipping included\n", size)),
+
+        /**
+         * Long backslash runs in front of delimiters, as in logs with Windows paths.
+         */
+        BACKSLASHES(size -> repeat("C:" + "\\".repeat(64) + "$ logs\\\\$$ ", size)),
+
+        /**
+         * An unclosed math block followed by escaped pairs only.
+         */
+        ESCAPED_PAIRS(size -> "$$ " + repeat("\\$$ a ", size));
+
+        private final IntFunction<String> generator;
+
+        Input(IntFunction<String> generator)
+        {
+            this.generator = generator;
+        }
+
+        /**
+         * @param size the approximate size of the input
+         * @return the input
+         */
+        public String create(int size)
+        {
+            return this.generator.apply(size);
+        }
+
+        private static String repeat(String block, int size)
+        {
+            return block.repeat(Math.max(1, size / block.length()));
+        }
+    }
+
+    @Param
+    public Input input;
+
+    @Param({ "16384", "262144" })
+    public int size;
+
+    private StreamParser parser;
+
+    private String content;
+
+    @Setup
+    public void setUp()
+    {
+        ComponentManager componentManager = BenchmarkComponents.createComponentManager();
+        this.parser = BenchmarkComponents.lookup(componentManager, StreamParser.class, "commonmark-vscode/0.1");
+        this.content = this.input.create(this.size);
+    }
+
+    @Benchmark
+    public void parse() throws ParseException
+    {
+        this.parser.parse(new StringReader(this.content), new NoOpListener());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.renderer.PrintRenderer;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+
+/**
+ * Benchmarks of the {@code commonmark-vscode/0.1} renderer, i.e. {@code Markdown12Renderer} and the
+ * {@code Markdown12ChainingRenderer} it drives. The XDOMs are prepared once by parsing the corpus so that the
+ * {@code render} benchmark only measures the rendering, while {@code roundTrip} measures parsing and rendering
+ * together on the same content. Run with the GC profiler (the default of {@link BenchmarkRunner}) to get the
+ * allocation rates.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RendererBenchmark
+{
+    private static final String SYNTAX = "commonmark-vscode/0.1";
+
+    @Param({ "ESCAPES", "TABLES", "NESTED_LISTS", "QUOTES", "LINKS", "ABBREVIATIONS" })
+    public Corpus corpus;
+
+    private Parser parser;
+
+    private PrintRendererFactory rendererFactory;
+
+    private String content;
+
+    private XDOM xdom;
+
+    @Setup
+    public void setUp() throws ParseException
+    {
+        ComponentManager componentManager = BenchmarkComponents.createComponentManager();
+        this.parser = BenchmarkComponents.lookup(componentManager, Parser.class, SYNTAX);
+        this.rendererFactory = BenchmarkComponents.lookup(componentManager, PrintRendererFactory.class, SYNTAX);
+        this.content = this.corpus.create();
+        this.xdom = this.parser.parse(new StringReader(this.content));
+    }
+
+    @Benchmark
+    public long render()
+    {
+        return render(this.xdom);
+    }
+
+    @Benchmark
+    public long roundTrip() throws ParseException
+    {
+        return render(this.parser.parse(new StringReader(this.content)));
+    }
+
+    private long render(XDOM document)
+    {
+        NullWikiPrinter printer = new NullWikiPrinter();
+        PrintRenderer renderer = this.rendererFactory.createRenderer(printer);
+        document.traverse(renderer);
+        return printer.getLength();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.StreamParser;
+
+/**
+ * Measures the heap retained while parsing a large content, with and without releasing the visited top-level blocks
+ * (see {@code MarkdownConfiguration#getReleaseVisitedBlocksThreshold()}). The heap is sampled after a full GC every
+ * {@value #SAMPLE_INTERVAL} paragraphs, so the timings are not meaningful.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RetainedHeapBenchmark
+{
+    private static final int SAMPLE_INTERVAL = 20000;
+
+    private static final String RELEASE_THRESHOLD = "xwiki.commonmarkvscode.visit.releaseThreshold";
+
+    private static final long MB = 1024 * 1024;
+
+    @Param({ "false", "true" })
+    public boolean release;
+
+    @Param({ "PROSE", "MIXED" })
+    public FeatureFamily family;
+
+    @Param({ "67108864" })
+    public int size;
+
+    private StreamParser parser;
+
+    private String content;
+
+    /**
+     * The heap retained during the parsing, reported next to the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RetainedHeap
+    {
+        public long peakRetainedMB;
+
+        public long meanRetainedMB;
+
+        private long total;
+
+        private long samples;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            this.peakRetainedMB = 0;
+            this.meanRetainedMB = 0;
+            this.total = 0;
+            this.samples = 0;
+        }
+
+        void sample()
+        {
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            long retained = (runtime.totalMemory() - runtime.freeMemory()) / MB;
+            this.peakRetainedMB = Math.max(this.peakRetainedMB, retained);
+            this.total += retained;
+            this.samples++;
+            this.meanRetainedMB = this.total / this.samples;
+        }
+    }
+
+    /**
+     * Samples the retained heap at regular intervals during the parsing.
+     */
+    private static final class HeapSamplingListener extends NoOpListener
+    {
+        private final RetainedHeap heap;
+
+        private int paragraphs;
+
+        HeapSamplingListener(RetainedHeap heap)
+        {
+            this.heap = heap;
+        }
+
+        @Override
+        public void endParagraph(Map<String, String> parameters)
+        {
+            if (++this.paragraphs % SAMPLE_INTERVAL == 0) {
+                this.heap.sample();
+            }
+        }
+    }
+
+    @Setup
+    public void setUp()
+    {
+        System.setProperty(RELEASE_THRESHOLD, this.release ? "1" : "0");
+        ComponentManager componentManager = BenchmarkComponents.createComponentManager();
+        this.parser = BenchmarkComponents.lookup(componentManager, StreamParser.class, "commonmark-vscode/0.1");
+        this.content =
+            new MarkdownCorpusGenerator(GeneratedCorpusBenchmark.SEED, this.family.createMix()).generate(this.size);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        System.clearProperty(RELEASE_THRESHOLD);
+    }
+
+    @Benchmark
+    public void parse(RetainedHeap heap) throws ParseException
+    {
+        this.parser.parse(new StringReader(this.content), new HeapSamplingListener(heap));
+    }
+}
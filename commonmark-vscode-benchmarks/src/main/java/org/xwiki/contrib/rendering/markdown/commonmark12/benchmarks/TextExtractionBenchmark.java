@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.text.MarkdownTextExtractor;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.renderer.BlockRenderer;
+
+/**
+ * Compares the text extraction used for search indexing done by rendering the XDOM with the {@code plain/1.0}
+ * renderer with {@link MarkdownTextExtractor}, which doesn't build the XDOM. Run with the GC profiler (the default of
+ * {@link BenchmarkRunner}) to compare the allocations.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextExtractionBenchmark
+{
+    private static final String SYNTAX = "commonmark-vscode/0.1";
+
+    @Param({ "PROSE", "WIKI_LINKS", "MATH", "MIXED" })
+    public FeatureFamily family;
+
+    @Param({ "65536" })
+    public int size;
+
+    private Parser parser;
+
+    private BlockRenderer plainRenderer;
+
+    private MarkdownTextExtractor extractor;
+
+    private String content;
+
+    @Setup
+    public void setUp()
+    {
+        ComponentManager componentManager = BenchmarkComponents.createComponentManager();
+        this.parser = BenchmarkComponents.lookup(componentManager, Parser.class, SYNTAX);
+        this.plainRenderer = BenchmarkComponents.lookup(componentManager, BlockRenderer.class, "plain/1.0");
+        this.extractor = BenchmarkComponents.lookup(componentManager, MarkdownTextExtractor.class, SYNTAX);
+        this.content = new MarkdownCorpusGenerator(GeneratedCorpusBenchmark.SEED, this.family.createMix())
+            .generate(this.size);
+    }
+
+    @Benchmark
+    public long xdom() throws ParseException
+    {
+        XDOM xdom = this.parser.parse(new StringReader(this.content));
+        NullWikiPrinter printer = new NullWikiPrinter();
+        this.plainRenderer.render(xdom, printer);
+        return printer.getLength();
+    }
+
+    @Benchmark
+    public int extractor() throws ParseException
+    {
+        StringBuilder output = new StringBuilder(this.content.length());
+        this.extractor.extract(new StringReader(this.content), output);
+        return output.length();
+    }
+}
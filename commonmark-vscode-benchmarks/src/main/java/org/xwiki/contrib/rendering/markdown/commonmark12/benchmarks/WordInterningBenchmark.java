@@ -0,0 +1,137 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.internal.parser.XDOMGeneratorListener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.StreamParser;
+
+/**
+ * Measures the cost of the word interning (see {@code MarkdownConfiguration#isWordInterningEnabled()}) per parsing,
+ * and the heap retained by a set of cached XDOMs with and without it.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WordInterningBenchmark
+{
+    private static final String INTERN_ENABLED = "xwiki.commonmarkvscode.intern.enabled";
+
+    private static final int CACHED_XDOMS = 100;
+
+    @Param({ "false", "true" })
+    public boolean intern;
+
+    @Param({ "PROSE", "MIXED" })
+    public FeatureFamily family;
+
+    @Param({ "65536" })
+    public int size;
+
+    private StreamParser parser;
+
+    private String content;
+
+    /**
+     * The heap retained by each cached XDOM, reported next to the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RetainedHeap
+    {
+        public long retainedKBPerXDOM;
+    }
+
+    @Setup
+    public void setUp()
+    {
+        System.setProperty(INTERN_ENABLED, String.valueOf(this.intern));
+        ComponentManager componentManager = BenchmarkComponents.createComponentManager();
+        this.parser = BenchmarkComponents.lookup(componentManager, StreamParser.class, "commonmark-vscode/0.1");
+        this.content =
+            new MarkdownCorpusGenerator(GeneratedCorpusBenchmark.SEED, this.family.createMix()).generate(this.size);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        System.clearProperty(INTERN_ENABLED);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public XDOM parseToXDOM() throws ParseException
+    {
+        return parse();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<XDOM> cacheXDOMs(RetainedHeap heap) throws ParseException
+    {
+        long before = getUsedHeap();
+        List<XDOM> cache = new ArrayList<>(CACHED_XDOMS);
+        for (int i = 0; i < CACHED_XDOMS; i++) {
+            cache.add(parse());
+        }
+        heap.retainedKBPerXDOM = (getUsedHeap() - before) / 1024 / CACHED_XDOMS;
+        return cache;
+    }
+
+    private XDOM parse() throws ParseException
+    {
+        XDOMGeneratorListener listener = new XDOMGeneratorListener();
+        this.parser.parse(new StringReader(this.content), listener);
+        return listener.getXDOM();
+    }
+
+    private static long getUsedHeap()
+    {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
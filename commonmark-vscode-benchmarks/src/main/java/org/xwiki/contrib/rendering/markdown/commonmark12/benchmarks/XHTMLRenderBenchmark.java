@@ -0,0 +1,115 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.xhtml.MarkdownXHTMLRenderer;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.TransformationContext;
+import org.xwiki.rendering.transformation.TransformationException;
+import org.xwiki.rendering.transformation.TransformationManager;
+
+import static org.xwiki.contrib.rendering.markdown.commonmark12.internal.CommonMark12SyntaxProvider.COMMONMARK_VSCODE_0_1;
+
+/**
+ * Compares the latency of a read-only view rendering with the standard pipeline (parsing to XDOM, transformations and
+ * XHTML block renderer) and with {@link MarkdownXHTMLRenderer}, which only builds the XDOM of the content containing
+ * macros.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XHTMLRenderBenchmark
+{
+    private static final String SYNTAX = "commonmark-vscode/0.1";
+
+    @Param({ "PROSE", "WIKI_LINKS", "MATH", "MIXED" })
+    public FeatureFamily family;
+
+    @Param({ "65536" })
+    public int size;
+
+    private Parser parser;
+
+    private TransformationManager transformationManager;
+
+    private BlockRenderer xhtmlRenderer;
+
+    private MarkdownXHTMLRenderer directRenderer;
+
+    private String content;
+
+    @Setup
+    public void setUp()
+    {
+        ComponentManager componentManager = BenchmarkComponents.createComponentManager();
+        this.parser = BenchmarkComponents.lookup(componentManager, Parser.class, SYNTAX);
+        this.transformationManager =
+            BenchmarkComponents.lookup(componentManager, TransformationManager.class, "default");
+        this.xhtmlRenderer = BenchmarkComponents.lookup(componentManager, BlockRenderer.class, "xhtml/1.0");
+        this.directRenderer = BenchmarkComponents.lookup(componentManager, MarkdownXHTMLRenderer.class, SYNTAX);
+        this.content = new MarkdownCorpusGenerator(GeneratedCorpusBenchmark.SEED, this.family.createMix())
+            .generate(this.size);
+    }
+
+    @Benchmark
+    public long standard() throws ParseException, TransformationException
+    {
+        XDOM xdom = this.parser.parse(new StringReader(this.content));
+        TransformationContext context = new TransformationContext(xdom, COMMONMARK_VSCODE_0_1);
+        context.setTargetSyntax(Syntax.XHTML_1_0);
+        this.transformationManager.performTransformations(xdom, context);
+        NullWikiPrinter printer = new NullWikiPrinter();
+        this.xhtmlRenderer.render(xdom, printer);
+        return printer.getLength();
+    }
+
+    @Benchmark
+    public long direct() throws ParseException
+    {
+        NullWikiPrinter printer = new NullWikiPrinter();
+        this.directRenderer.render(new StringReader(this.content), printer);
+        return printer.getLength();
+    }
+}
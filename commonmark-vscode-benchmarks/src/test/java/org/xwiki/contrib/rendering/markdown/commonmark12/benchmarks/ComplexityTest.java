@@ -0,0 +1,253 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.benchmarks;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+
+import com.sun.management.ThreadMXBean;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Verifies that parsing and rendering scale linearly with the size of the content, for each {@link FeatureFamily}.
+ * The content is generated at sizes n, 2n, 4n and 8n with a fixed number of blocks, so that paragraphs, cells and list
+ * items grow with the document and quadratic algorithms working on a single text are caught too. The growth exponent
+ * of the duration and of the allocated bytes is estimated by a least squares fit in log-log space and must stay below
+ * a threshold (1 being linear and 2 quadratic).
+ * <p>
+ * These tests take a while and are only executed with the {@code complexity} profile, i.e.
+ * {@code mvn test -Pcomplexity -pl commonmark-vscode-benchmarks -am}. The thresholds can be changed with the
+ * {@code complexity.maxTimeExponent} and {@code complexity.maxAllocationExponent} system properties.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@RunWith(Parameterized.class)
+public class ComplexityTest
+{
+    private static final String SYNTAX = "commonmark-vscode/0.1";
+
+    private static final int BASE_SIZE = 64 * 1024;
+
+    private static final int[] SCALES = { 1, 2, 4, 8 };
+
+    /**
+     * Number of blocks of the generated content, whatever its size.
+     */
+    private static final int BLOCKS = 16;
+
+    /**
+     * Rough number of characters per generated word, including the separator.
+     */
+    private static final int WORD_SIZE = 7;
+
+    private static final int WARMUP_ROUNDS = 3;
+
+    private static final int MEASURE_ROUNDS = 5;
+
+    private static final double MAX_TIME_EXPONENT =
+        Double.parseDouble(System.getProperty("complexity.maxTimeExponent", "1.35"));
+
+    private static final double MAX_ALLOCATION_EXPONENT =
+        Double.parseDouble(System.getProperty("complexity.maxAllocationExponent", "1.15"));
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static Parser parser;
+
+    private static PrintRendererFactory rendererFactory;
+
+    private final FeatureFamily family;
+
+    /**
+     * @param family the feature family to verify
+     */
+    public ComplexityTest(FeatureFamily family)
+    {
+        this.family = family;
+    }
+
+    /**
+     * @return the feature families
+     */
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> families()
+    {
+        List<Object[]> families = new ArrayList<>();
+        for (FeatureFamily family : FeatureFamily.values()) {
+            families.add(new Object[] { family });
+        }
+        return families;
+    }
+
+    @BeforeClass
+    public static void setUpComponents()
+    {
+        ComponentManager componentManager = BenchmarkComponents.createComponentManager();
+        parser = BenchmarkComponents.lookup(componentManager, Parser.class, SYNTAX);
+        rendererFactory = BenchmarkComponents.lookup(componentManager, PrintRendererFactory.class, SYNTAX);
+    }
+
+    @Test
+    public void linearScaling() throws Exception
+    {
+        String[] contents = new String[SCALES.length];
+        XDOM[] documents = new XDOM[SCALES.length];
+        for (int i = 0; i < SCALES.length; i++) {
+            int size = BASE_SIZE * SCALES[i];
+            FeatureMix mix = this.family.createMix().setParagraphLength(size / (BLOCKS * WORD_SIZE));
+            contents[i] = new MarkdownCorpusGenerator(GeneratedCorpusBenchmark.SEED, mix).generate(size);
+            documents[i] = parser.parse(new StringReader(contents[i]));
+        }
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (int i = 0; i < SCALES.length; i++) {
+                parser.parse(new StringReader(contents[i]));
+                render(documents[i]);
+            }
+        }
+
+        Measure[] parse = new Measure[SCALES.length];
+        Measure[] render = new Measure[SCALES.length];
+        for (int i = 0; i < SCALES.length; i++) {
+            parse[i] = new Measure(contents[i].length());
+            render[i] = new Measure(contents[i].length());
+            for (int round = 0; round < MEASURE_ROUNDS; round++) {
+                String content = contents[i];
+                parse[i].run(() -> parser.parse(new StringReader(content)));
+                XDOM document = documents[i];
+                render[i].run(() -> render(document));
+            }
+        }
+
+        StringBuilder failures = new StringBuilder();
+        check("parse", parse, failures);
+        check("render", render, failures);
+        if (failures.length() > 0) {
+            fail(String.format("Super-linear growth for [%s]:%s", this.family, failures));
+        }
+    }
+
+    private static void render(XDOM document)
+    {
+        document.traverse(rendererFactory.createRenderer(new NullWikiPrinter()));
+    }
+
+    private static void check(String operation, Measure[] measures, StringBuilder failures)
+    {
+        double[] sizes = new double[measures.length];
+        double[] durations = new double[measures.length];
+        double[] allocations = new double[measures.length];
+        for (int i = 0; i < measures.length; i++) {
+            sizes[i] = measures[i].size;
+            durations[i] = measures[i].duration;
+            allocations[i] = measures[i].allocatedBytes;
+        }
+
+        double timeExponent = exponent(sizes, durations);
+        if (timeExponent > MAX_TIME_EXPONENT) {
+            failures.append(String.format("%n- %s time exponent [%.2f] > [%.2f], durations (ns) per size %s",
+                operation, timeExponent, MAX_TIME_EXPONENT, describe(sizes, durations)));
+        }
+        double allocationExponent = exponent(sizes, allocations);
+        if (allocationExponent > MAX_ALLOCATION_EXPONENT) {
+            failures.append(String.format("%n- %s allocation exponent [%.2f] > [%.2f], allocated bytes per size %s",
+                operation, allocationExponent, MAX_ALLOCATION_EXPONENT, describe(sizes, allocations)));
+        }
+    }
+
+    /**
+     * @return the slope of the least squares line through the points in log-log space
+     */
+    private static double exponent(double[] sizes, double[] values)
+    {
+        int count = sizes.length;
+        double sumX = 0;
+        double sumY = 0;
+        double sumXY = 0;
+        double sumXX = 0;
+        for (int i = 0; i < count; i++) {
+            double x = Math.log(sizes[i]);
+            double y = Math.log(Math.max(1, values[i]));
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+        }
+        return (count * sumXY - sumX * sumY) / (count * sumXX - sumX * sumX);
+    }
+
+    private static String describe(double[] sizes, double[] values)
+    {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < sizes.length; i++) {
+            description.append(String.format(" [%d: %d]", (long) sizes[i], (long) values[i]));
+        }
+        return description.toString();
+    }
+
+    /**
+     * The best duration and allocation observed for one operation at one size. Taking the minimum filters out GC
+     * pauses and other noise.
+     */
+    private static final class Measure
+    {
+        private final int size;
+
+        private long duration = Long.MAX_VALUE;
+
+        private long allocatedBytes = Long.MAX_VALUE;
+
+        Measure(int size)
+        {
+            this.size = size;
+        }
+
+        void run(Operation operation) throws Exception
+        {
+            long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            operation.run();
+            long end = System.nanoTime();
+            long allocatedAfter = THREADS.getCurrentThreadAllocatedBytes();
+            this.duration = Math.min(this.duration, end - start);
+            this.allocatedBytes = Math.min(this.allocatedBytes, allocatedAfter - allocatedBefore);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation
+    {
+        void run() throws Exception;
+    }
+}
@@ -26,9 +26,9 @@ import java.util.List;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.FastAutolinkExtension;
 
 import com.vladsch.flexmark.ext.abbreviation.AbbreviationExtension;
-import com.vladsch.flexmark.ext.autolink.AutolinkExtension;
 import com.vladsch.flexmark.ext.definition.DefinitionExtension;
 import com.vladsch.flexmark.ext.tables.TablesExtension;
 import com.vladsch.flexmark.ext.wikilink.WikiLinkExtension;
@@ -50,7 +50,7 @@ public abstract class AbstractMarkdownConfiguration
     // Default extensions we want to have in all MD flavors for XWiki.
     private static final List<Class<?>> DEFAULT_EXTENSIONS = Arrays.asList(
         WikiLinkExtension.class,
-        AutolinkExtension.class,
+        FastAutolinkExtension.class,
         DefinitionExtension.class,
         TablesExtension.class,
         AbbreviationExtension.class,
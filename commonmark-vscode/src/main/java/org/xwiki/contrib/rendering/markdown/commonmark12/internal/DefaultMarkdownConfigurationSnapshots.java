@@ -0,0 +1,249 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.FastAutolinkExtension;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.ModelContext;
+import org.xwiki.model.reference.EntityReference;
+
+import com.vladsch.flexmark.ext.autolink.AutolinkExtension;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.data.MutableDataHolder;
+import com.vladsch.flexmark.util.misc.Extension;
+
+/**
+ * Default {@link MarkdownConfigurationSnapshots} implementation. The configuration of a wiki is read from its
+ * {@code wiki} configuration source (the wiki preferences) when running in XWiki, falling back on
+ * {@link MarkdownConfiguration} for the values it doesn't define.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Component
+@Singleton
+public class DefaultMarkdownConfigurationSnapshots implements MarkdownConfigurationSnapshots, Initializable
+{
+    /**
+     * Used when there's no notion of wiki, e.g. when the rendering is used standalone.
+     */
+    static final String DEFAULT_WIKI = "";
+
+    static final String MATH_MACRO = "markdownMathMacro";
+
+    static final String INLINE_MATH_MACRO_PARAMETERS = "markdownInlineMathMacroParameters";
+
+    static final String BLOCK_MATH_MACRO_PARAMETERS = "markdownBlockMathMacroParameters";
+
+    static final String DISABLED_EXTENSIONS = "markdownDisabledExtensions";
+
+    private static final String WIKI_SOURCE = "wiki";
+
+    private static final String SEPARATOR = ",";
+
+    @Inject
+    private MarkdownConfiguration configuration;
+
+    @Inject
+    private ComponentManager componentManager;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Not available when the rendering is used outside of XWiki.
+     */
+    private ModelContext modelContext;
+
+    /**
+     * Not available when the rendering is used outside of XWiki.
+     */
+    private ConfigurationSource wikiConfiguration;
+
+    private final Map<String, MarkdownConfigurationSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * The configuration set with {@link #use(MarkdownConfigurationSnapshot)} for each thread.
+     */
+    private final ThreadLocal<MarkdownConfigurationSnapshot> used = new ThreadLocal<>();
+
+    @Override
+    public void initialize()
+    {
+        this.modelContext = lookup(ModelContext.class, "default");
+        this.wikiConfiguration = lookup(ConfigurationSource.class, WIKI_SOURCE);
+    }
+
+    private <T> T lookup(Class<T> role, String hint)
+    {
+        if (this.componentManager.hasComponent(role, hint)) {
+            try {
+                return this.componentManager.getInstance(role, hint);
+            } catch (ComponentLookupException e) {
+                this.logger.warn("Failed to lookup [{}] with hint [{}], ignoring it. Root error: [{}]", role.getName(),
+                    hint, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public MarkdownConfigurationSnapshot getCurrent()
+    {
+        MarkdownConfigurationSnapshot snapshot = this.used.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        return this.snapshots.computeIfAbsent(getCurrentWikiId(), this::createSnapshot);
+    }
+
+    @Override
+    public Scope use(MarkdownConfigurationSnapshot snapshot)
+    {
+        MarkdownConfigurationSnapshot previous = this.used.get();
+        this.used.set(snapshot);
+        return () -> {
+            if (previous != null) {
+                this.used.set(previous);
+            } else {
+                this.used.remove();
+            }
+        };
+    }
+
+    @Override
+    public void invalidate(String wikiId)
+    {
+        this.snapshots.remove(wikiId == null ? DEFAULT_WIKI : wikiId);
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        this.snapshots.clear();
+    }
+
+    private String getCurrentWikiId()
+    {
+        EntityReference reference = this.modelContext != null ? this.modelContext.getCurrentEntityReference() : null;
+        EntityReference wikiReference = reference != null ? reference.extractReference(EntityType.WIKI) : null;
+        return wikiReference != null ? wikiReference.getName() : DEFAULT_WIKI;
+    }
+
+    /**
+     * Called with the wiki being the current one, so that the wiki configuration source reads its preferences.
+     */
+    private MarkdownConfigurationSnapshot createSnapshot(String wikiId)
+    {
+        String mathMacroId = getProperty(MATH_MACRO);
+        if (mathMacroId == null) {
+            mathMacroId = this.configuration.getMathMacroId();
+        }
+        Map<String, String> inlineParameters =
+            getParameters(INLINE_MATH_MACRO_PARAMETERS, this.configuration.getInlineMathMacroParameters());
+        Map<String, String> blockParameters =
+            getParameters(BLOCK_MATH_MACRO_PARAMETERS, this.configuration.getBlockMathMacroParameters());
+
+        MutableDataHolder options = this.configuration.getOptions();
+        String disabledExtensions = getProperty(DISABLED_EXTENSIONS);
+        if (options != null && disabledExtensions != null) {
+            options.set(Parser.EXTENSIONS, filterExtensions(Parser.EXTENSIONS.get(options), disabledExtensions));
+        }
+
+        return new MarkdownConfigurationSnapshot(wikiId, mathMacroId, inlineParameters, blockParameters, options,
+            this.configuration);
+    }
+
+    private String getProperty(String key)
+    {
+        if (this.wikiConfiguration != null) {
+            String value = this.wikiConfiguration.getProperty(key, String.class);
+            if (StringUtils.isNotBlank(value)) {
+                return value.trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param key the key of a property holding parameters as a comma separated list of {@code name=value}
+     */
+    private Map<String, String> getParameters(String key, Map<String, String> defaultParameters)
+    {
+        String value = getProperty(key);
+        if (value == null) {
+            return defaultParameters;
+        }
+
+        Map<String, String> parameters = new LinkedHashMap<>();
+        for (String parameter : StringUtils.split(value, SEPARATOR)) {
+            String name = StringUtils.substringBefore(parameter, "=").trim();
+            if (!name.isEmpty()) {
+                parameters.put(name, StringUtils.substringAfter(parameter, "=").trim());
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * @param disabledExtensions a comma separated list of extension class names, simple or fully qualified
+     */
+    private List<Extension> filterExtensions(Collection<Extension> extensions, String disabledExtensions)
+    {
+        Set<String> disabled = new HashSet<>(Arrays.asList(StringUtils.stripAll(
+            StringUtils.split(disabledExtensions, SEPARATOR))));
+        List<Extension> result = new ArrayList<>();
+        for (Extension extension : extensions) {
+            Class<?> extensionClass = extension.getClass();
+            // The fast autolink extension replaces Flexmark's one and can still be disabled under its name.
+            if (!isDisabled(disabled, extensionClass) && !(extension instanceof FastAutolinkExtension
+                && isDisabled(disabled, AutolinkExtension.class)))
+            {
+                result.add(extension);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isDisabled(Set<String> disabled, Class<?> extensionClass)
+    {
+        return disabled.contains(extensionClass.getSimpleName()) || disabled.contains(extensionClass.getName());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
+
+/**
+ * Default {@link MarkdownContextPropagator} implementation. The execution context is only propagated when running in
+ * XWiki, the tasks running without any execution context otherwise.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Component
+@Singleton
+public class DefaultMarkdownContextPropagator implements MarkdownContextPropagator, Initializable
+{
+    @Inject
+    private MarkdownConfigurationSnapshots configurationSnapshots;
+
+    @Inject
+    private ComponentManager componentManager;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Not available when the rendering is used outside of XWiki.
+     */
+    private Execution execution;
+
+    /**
+     * Not available when the rendering is used outside of XWiki.
+     */
+    private ExecutionContextManager executionContextManager;
+
+    @Override
+    public void initialize()
+    {
+        this.execution = lookup(Execution.class);
+        this.executionContextManager = lookup(ExecutionContextManager.class);
+    }
+
+    private <T> T lookup(Class<T> role)
+    {
+        if (this.componentManager.hasComponent(role)) {
+            try {
+                return this.componentManager.getInstance(role);
+            } catch (ComponentLookupException e) {
+                this.logger.warn("Failed to lookup [{}], the Markdown tasks won't have any execution context. "
+                    + "Root error: [{}]", role.getName(), e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public CapturedContext capture()
+    {
+        return new DefaultCapturedContext(cloneExecutionContext(), Thread.currentThread().getContextClassLoader(),
+            this.configurationSnapshots.getCurrent());
+    }
+
+    private ExecutionContext cloneExecutionContext()
+    {
+        if (this.execution == null || this.executionContextManager == null) {
+            return null;
+        }
+
+        ExecutionContext context = this.execution.getContext();
+        if (context == null) {
+            return null;
+        }
+
+        try {
+            return this.executionContextManager.clone(context);
+        } catch (ExecutionContextException e) {
+            this.logger.warn("Failed to clone the execution context, the Markdown task will run without any. "
+                + "Root error: [{}]", e.getMessage());
+            return null;
+        }
+    }
+
+    private final class DefaultCapturedContext implements CapturedContext
+    {
+        private final ExecutionContext executionContext;
+
+        private final ClassLoader classLoader;
+
+        private final MarkdownConfigurationSnapshot configurationSnapshot;
+
+        DefaultCapturedContext(ExecutionContext executionContext, ClassLoader classLoader,
+            MarkdownConfigurationSnapshot configurationSnapshot)
+        {
+            this.executionContext = executionContext;
+            this.classLoader = classLoader;
+            this.configurationSnapshot = configurationSnapshot;
+        }
+
+        @Override
+        public MarkdownConfigurationSnapshot getConfigurationSnapshot()
+        {
+            return this.configurationSnapshot;
+        }
+
+        @Override
+        public Scope enter()
+        {
+            Thread thread = Thread.currentThread();
+            ClassLoader threadClassLoader = thread.getContextClassLoader();
+            thread.setContextClassLoader(this.classLoader);
+            if (this.executionContext != null) {
+                execution.pushContext(this.executionContext);
+            }
+            MarkdownConfigurationSnapshots.Scope snapshotScope = configurationSnapshots.use(this.configurationSnapshot);
+            return () -> {
+                snapshotScope.close();
+                if (this.executionContext != null) {
+                    execution.popContext();
+                }
+                thread.setContextClassLoader(threadClassLoader);
+            };
+        }
+    }
+}
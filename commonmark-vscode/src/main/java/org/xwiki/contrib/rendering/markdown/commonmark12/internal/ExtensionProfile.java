@@ -0,0 +1,156 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.DeepInlineHTMLExtension;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.FastAutolinkExtension;
+
+import com.vladsch.flexmark.ext.autolink.AutolinkExtension;
+import com.vladsch.flexmark.ext.wikilink.WikiLinkExtension;
+import com.vladsch.flexmark.ext.xwiki.macros.MacroExtension;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.data.DataKey;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import com.vladsch.flexmark.util.misc.Extension;
+
+/**
+ * Named subsets of the Markdown features, to parse simple content (comments, titles, descriptions, etc.) faster. A
+ * profile can only restrict the extensions enabled in the configuration, never add some.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public enum ExtensionProfile
+{
+    /**
+     * All the configured extensions.
+     */
+    FULL("full", null, true),
+
+    /**
+     * All the configured extensions except autolinks, which scan every text run.
+     */
+    NO_AUTOLINK("no-autolink", extension -> !isAutolink(extension), true),
+
+    /**
+     * Inline elements only (emphasis, links, wiki links, macros, inline HTML): block elements such as headings,
+     * lists, quotes, code blocks and tables are kept as plain paragraph text.
+     */
+    INLINE_ONLY("inline-only", ExtensionProfile::isInline, false),
+
+    /**
+     * The inline extensions only, with all the block elements: tables, definition lists and abbreviation definitions
+     * are kept as paragraph text, in which links and images are found the same way. Meant to extract the references of
+     * a content.
+     */
+    LINKS("links", ExtensionProfile::isInline, true),
+
+    /**
+     * Plain CommonMark, without any extension.
+     */
+    MINIMAL("minimal", extension -> false, true);
+
+    /**
+     * The block parsers disabled when only inline elements are allowed.
+     */
+    private static final List<DataKey<Boolean>> BLOCK_PARSERS = List.of(Parser.BLOCK_QUOTE_PARSER,
+        Parser.FENCED_CODE_BLOCK_PARSER, Parser.HEADING_PARSER, Parser.HTML_BLOCK_PARSER,
+        Parser.INDENTED_CODE_BLOCK_PARSER, Parser.LIST_BLOCK_PARSER, Parser.THEMATIC_BREAK_PARSER);
+
+    private final String id;
+
+    private final Predicate<Extension> extensionFilter;
+
+    private final boolean blocks;
+
+    ExtensionProfile(String id, Predicate<Extension> extensionFilter, boolean blocks)
+    {
+        this.id = id;
+        this.extensionFilter = extensionFilter;
+        this.blocks = blocks;
+    }
+
+    /**
+     * @return the identifier of the profile
+     */
+    public String getId()
+    {
+        return this.id;
+    }
+
+    /**
+     * @param options the configured Flexmark options
+     * @return a copy of the options restricted to this profile
+     */
+    public DataHolder apply(DataHolder options)
+    {
+        if (this.extensionFilter == null && this.blocks) {
+            return options;
+        }
+
+        MutableDataSet result = new MutableDataSet(options);
+        if (this.extensionFilter != null) {
+            List<Extension> extensions = new ArrayList<>();
+            for (Extension extension : Parser.EXTENSIONS.get(options)) {
+                if (this.extensionFilter.test(extension)) {
+                    extensions.add(extension);
+                }
+            }
+            result.set(Parser.EXTENSIONS, extensions);
+        }
+        if (!this.blocks) {
+            for (DataKey<Boolean> blockParser : BLOCK_PARSERS) {
+                result.set(blockParser, false);
+            }
+        }
+        return result.toImmutable();
+    }
+
+    /**
+     * @param id the identifier of a profile
+     * @return the corresponding profile
+     * @throws IllegalArgumentException if there's no profile with this identifier
+     */
+    public static ExtensionProfile fromId(String id)
+    {
+        for (ExtensionProfile profile : values()) {
+            if (profile.id.equals(id)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unknown Markdown extension profile [%s]", id));
+    }
+
+    private static boolean isInline(Extension extension)
+    {
+        return extension instanceof WikiLinkExtension || isAutolink(extension) || extension instanceof MacroExtension
+            || extension instanceof DeepInlineHTMLExtension;
+    }
+
+    private static boolean isAutolink(Extension extension)
+    {
+        return extension instanceof FastAutolinkExtension || extension instanceof AutolinkExtension;
+    }
+}
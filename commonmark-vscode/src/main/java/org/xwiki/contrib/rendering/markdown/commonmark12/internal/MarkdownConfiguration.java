@@ -37,6 +37,172 @@ public interface MarkdownConfiguration
         return System.getProperty("xwiki.commonmarkvscode.math.macro", "mathjax");
     }
 
+    /**
+     * @return the maximum number of parsed wiki link (and, separately, wiki image) references to keep in memory, 0 to
+     *         disable the cache
+     */
+    default int getReferenceCacheSize()
+    {
+        return Integer.getInteger("xwiki.commonmarkvscode.referenceCache.size", 1000);
+    }
+
+    /**
+     * @return {@code true} if parse timings and sizes should be gathered and published (through JMX by default)
+     */
+    default boolean isMetricsEnabled()
+    {
+        return Boolean.getBoolean("xwiki.commonmarkvscode.metrics.enabled");
+    }
+
+    /**
+     * @return {@code true} if the time spent in each Flexmark node handler should be measured (this adds a noticeable
+     *         overhead and is meant for troubleshooting)
+     */
+    default boolean isVisitProfilingEnabled()
+    {
+        return Boolean.getBoolean("xwiki.commonmarkvscode.profiling.enabled");
+    }
+
+    /**
+     * @return the maximum number of characters of a Markdown content to parse, 0 for no limit
+     */
+    default int getMaxInputLength()
+    {
+        return Integer.getInteger("xwiki.commonmarkvscode.limits.maxInputLength", 0);
+    }
+
+    /**
+     * @return the maximum number of math expressions in a Markdown content, 0 for no limit
+     */
+    default int getMaxMathTokens()
+    {
+        return Integer.getInteger("xwiki.commonmarkvscode.limits.maxMathTokens", 0);
+    }
+
+    /**
+     * @return the maximum nesting depth of the Markdown elements (a top-level paragraph being at depth 1), 0 for no
+     *         limit
+     */
+    default int getMaxNestingDepth()
+    {
+        return Integer.getInteger("xwiki.commonmarkvscode.limits.maxNestingDepth", 0);
+    }
+
+    /**
+     * @return the maximum number of Markdown elements in a content, 0 for no limit
+     */
+    default long getMaxNodeCount()
+    {
+        return Long.getLong("xwiki.commonmarkvscode.limits.maxNodeCount", 0);
+    }
+
+    /**
+     * @return the maximum duration of a parsing in milliseconds, 0 for no limit; in degraded mode, the parsing still
+     *         fails after twice this duration
+     */
+    default long getParseTimeout()
+    {
+        return Long.getLong("xwiki.commonmarkvscode.limits.timeout", 0);
+    }
+
+    /**
+     * @return {@code true} if a content exceeding a limit should be partially converted, the rest being emitted as
+     *         verbatim text, {@code false} to fail the parsing
+     */
+    default boolean isDegradedParsingEnabled()
+    {
+        return Boolean.getBoolean("xwiki.commonmarkvscode.limits.degraded");
+    }
+
+    /**
+     * @return the number of characters of a Markdown content from which each top-level block is released once its
+     *         events have been generated, so that the memory used by the parsed content decreases during the
+     *         conversion of huge contents; 0 to never release the blocks
+     */
+    default int getReleaseVisitedBlocksThreshold()
+    {
+        return Integer.getInteger("xwiki.commonmarkvscode.visit.releaseThreshold", 0);
+    }
+
+    /**
+     * @return {@code true} if the parsed words should be replaced by shared instances, to reduce the memory used by
+     *         the XDOMs kept in memory at the cost of a table lookup per word
+     */
+    default boolean isWordInterningEnabled()
+    {
+        return Boolean.getBoolean("xwiki.commonmarkvscode.intern.enabled");
+    }
+
+    /**
+     * @return the maximum number of shared words (rounded up to a power of 2)
+     */
+    default int getWordInternTableSize()
+    {
+        return Integer.getInteger("xwiki.commonmarkvscode.intern.tableSize", 65536);
+    }
+
+    /**
+     * @return the maximum number of asynchronous parsings running at the same time
+     */
+    default int getAsyncParseThreads()
+    {
+        return Integer.getInteger("xwiki.commonmarkvscode.async.threads",
+            Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @return the maximum number of asynchronous parsings waiting for a thread, new parsings being rejected once it's
+     *         reached
+     */
+    default int getAsyncParseQueueSize()
+    {
+        return Integer.getInteger("xwiki.commonmarkvscode.async.queueSize", 100);
+    }
+
+    /**
+     * @return {@code true} if asynchronous parsings should run on virtual threads when the JVM supports them
+     */
+    default boolean isAsyncParseVirtualThreadsEnabled()
+    {
+        return Boolean.getBoolean("xwiki.commonmarkvscode.async.virtualThreads");
+    }
+
+    /**
+     * @return the number of documents rendered at the same time by a bulk export to Markdown, each of them keeping
+     *         its XDOM and its rendered content in memory until it's written
+     */
+    default int getExportThreads()
+    {
+        return Integer.getInteger("xwiki.commonmarkvscode.export.threads", Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @return the number of top-level blocks from which the Markdown block renderer renders the blocks of a document in
+     *         parallel before joining their Markdown, 0 to always render sequentially
+     */
+    default int getParallelRenderThreshold()
+    {
+        return Integer.getInteger("xwiki.commonmarkvscode.render.parallelThreshold", 0);
+    }
+
+    /**
+     * @return the number of threads rendering the blocks of the documents rendered in parallel, shared by all the
+     *         documents being rendered, see {@link #getParallelRenderThreshold()}
+     */
+    default int getParallelRenderThreads()
+    {
+        return Integer.getInteger("xwiki.commonmarkvscode.render.threads", Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @return {@code true} if the parser should hash the source of each top-level block and add the hashes to the
+     *         document metadata, see {@code SourceHashes}
+     */
+    default boolean isSourceHashingEnabled()
+    {
+        return Boolean.getBoolean("xwiki.commonmarkvscode.hash.enabled");
+    }
+
     default Map<String, String> getInlineMathMacroParameters()
     {
         return Collections.emptyMap();
@@ -0,0 +1,67 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal;
+
+import java.util.Objects;
+
+import org.xwiki.observation.event.Event;
+
+/**
+ * Notifies that the Markdown configuration of a wiki, or of all the wikis, changed, so that the corresponding
+ * {@link MarkdownConfigurationSnapshot}s are computed again.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class MarkdownConfigurationChangedEvent implements Event
+{
+    private final String wikiId;
+
+    /**
+     * The configuration of all the wikis changed, also used to listen to all the changes.
+     */
+    public MarkdownConfigurationChangedEvent()
+    {
+        this(null);
+    }
+
+    /**
+     * @param wikiId the wiki whose configuration changed
+     */
+    public MarkdownConfigurationChangedEvent(String wikiId)
+    {
+        this.wikiId = wikiId;
+    }
+
+    /**
+     * @return the wiki whose configuration changed, {@code null} for all the wikis
+     */
+    public String getWikiId()
+    {
+        return this.wikiId;
+    }
+
+    @Override
+    public boolean matches(Object otherEvent)
+    {
+        return otherEvent instanceof MarkdownConfigurationChangedEvent && (this.wikiId == null
+            || Objects.equals(this.wikiId, ((MarkdownConfigurationChangedEvent) otherEvent).getWikiId()));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.bridge.DocumentModelBridge;
+import org.xwiki.bridge.event.DocumentCreatedEvent;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+/**
+ * Invalidates the {@link MarkdownConfigurationSnapshot}s when the configuration changes: when a
+ * {@link MarkdownConfigurationChangedEvent} is sent, or when the preferences document of a wiki ({@code
+ * XWiki.XWikiPreferences}), from which the {@code wiki} configuration source reads the configuration, is created,
+ * updated or deleted.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Component
+@Named(MarkdownConfigurationChangedListener.NAME)
+@Singleton
+public class MarkdownConfigurationChangedListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "commonmark-vscode.configurationChanged";
+
+    /**
+     * The preferences document, in any wiki. The document events can only be filtered on the document of a given
+     * wiki, so the document is matched when the event is received.
+     */
+    private static final LocalDocumentReference PREFERENCES_DOCUMENT =
+        new LocalDocumentReference("XWiki", "XWikiPreferences");
+
+    @Inject
+    private MarkdownConfigurationSnapshots snapshots;
+
+    /**
+     * Default constructor.
+     */
+    public MarkdownConfigurationChangedListener()
+    {
+        super(NAME, new MarkdownConfigurationChangedEvent(), new DocumentCreatedEvent(), new DocumentUpdatedEvent(),
+            new DocumentDeletedEvent());
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (event instanceof MarkdownConfigurationChangedEvent) {
+            String wikiId = ((MarkdownConfigurationChangedEvent) event).getWikiId();
+            if (wikiId == null) {
+                this.snapshots.invalidateAll();
+            } else {
+                this.snapshots.invalidate(wikiId);
+            }
+        } else if (source instanceof DocumentModelBridge) {
+            DocumentReference document = ((DocumentModelBridge) source).getDocumentReference();
+            if (PREFERENCES_DOCUMENT.equals(document.getLocalDocumentReference())) {
+                this.snapshots.invalidate(document.getWikiReference().getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import com.vladsch.flexmark.util.misc.Extension;
+
+/**
+ * Immutable view of the Markdown configuration of a wiki, along with the Flexmark parsers of each
+ * {@link ExtensionProfile}, built once from it. Flexmark parsers are thread safe so the same snapshot can be used by
+ * concurrent parsings. The settings that don't depend on the wiki (limits, optional processing) are read once from the
+ * {@link MarkdownConfiguration} as well, so that the parsings and renderings don't read them each time.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public final class MarkdownConfigurationSnapshot
+{
+    private final String wikiId;
+
+    private final String mathMacroId;
+
+    private final Map<String, String> inlineMathMacroParameters;
+
+    private final Map<String, String> blockMathMacroParameters;
+
+    private final DataHolder options;
+
+    private final List<Extension> extensions;
+
+    private final Map<ExtensionProfile, Parser> parsers = new EnumMap<>(ExtensionProfile.class);
+
+    private final int maxInputLength;
+
+    private final int maxMathTokens;
+
+    private final int maxNestingDepth;
+
+    private final long maxNodeCount;
+
+    private final long parseTimeout;
+
+    private final boolean degradedParsingEnabled;
+
+    private final int releaseVisitedBlocksThreshold;
+
+    private final boolean wordInterningEnabled;
+
+    private final boolean sourceHashingEnabled;
+
+    private final boolean visitProfilingEnabled;
+
+    private final int parallelRenderThreshold;
+
+    /**
+     * @param wikiId the wiki this configuration applies to
+     * @param mathMacroId the id of the macro generated for math expressions
+     * @param inlineMathMacroParameters the parameters of the macros generated for inline math expressions
+     * @param blockMathMacroParameters the parameters of the macros generated for block math expressions
+     * @param options the Flexmark options, including the extensions
+     */
+    public MarkdownConfigurationSnapshot(String wikiId, String mathMacroId,
+        Map<String, String> inlineMathMacroParameters, Map<String, String> blockMathMacroParameters,
+        DataHolder options)
+    {
+        this(wikiId, mathMacroId, inlineMathMacroParameters, blockMathMacroParameters, options, null);
+    }
+
+    /**
+     * @param wikiId the wiki this configuration applies to
+     * @param mathMacroId the id of the macro generated for math expressions
+     * @param inlineMathMacroParameters the parameters of the macros generated for inline math expressions
+     * @param blockMathMacroParameters the parameters of the macros generated for block math expressions
+     * @param options the Flexmark options, including the extensions
+     * @param configuration provides the settings that don't depend on the wiki, {@code null} for no limit and no
+     *            optional processing
+     */
+    public MarkdownConfigurationSnapshot(String wikiId, String mathMacroId,
+        Map<String, String> inlineMathMacroParameters, Map<String, String> blockMathMacroParameters,
+        DataHolder options, MarkdownConfiguration configuration)
+    {
+        this.wikiId = wikiId;
+        this.mathMacroId = mathMacroId;
+        this.inlineMathMacroParameters = copy(inlineMathMacroParameters);
+        this.blockMathMacroParameters = copy(blockMathMacroParameters);
+        this.options = options == null ? new MutableDataSet().toImmutable() : options.toImmutable();
+        this.extensions = Collections.unmodifiableList(new ArrayList<>(Parser.EXTENSIONS.get(this.options)));
+        for (ExtensionProfile profile : ExtensionProfile.values()) {
+            this.parsers.put(profile, Parser.builder(profile.apply(this.options)).build());
+        }
+
+        boolean configured = configuration != null;
+        this.maxInputLength = configured ? configuration.getMaxInputLength() : 0;
+        this.maxMathTokens = configured ? configuration.getMaxMathTokens() : 0;
+        this.maxNestingDepth = configured ? configuration.getMaxNestingDepth() : 0;
+        this.maxNodeCount = configured ? configuration.getMaxNodeCount() : 0;
+        this.parseTimeout = configured ? configuration.getParseTimeout() : 0;
+        this.degradedParsingEnabled = configured && configuration.isDegradedParsingEnabled();
+        this.releaseVisitedBlocksThreshold = configured ? configuration.getReleaseVisitedBlocksThreshold() : 0;
+        this.wordInterningEnabled = configured && configuration.isWordInterningEnabled();
+        this.sourceHashingEnabled = configured && configuration.isSourceHashingEnabled();
+        this.visitProfilingEnabled = configured && configuration.isVisitProfilingEnabled();
+        this.parallelRenderThreshold = configured ? configuration.getParallelRenderThreshold() : 0;
+    }
+
+    private static Map<String, String> copy(Map<String, String> parameters)
+    {
+        if (parameters == null || parameters.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+    }
+
+    /**
+     * @return the wiki this configuration applies to
+     */
+    public String getWikiId()
+    {
+        return this.wikiId;
+    }
+
+    /**
+     * @return the id of the macro generated for math expressions
+     */
+    public String getMathMacroId()
+    {
+        return this.mathMacroId;
+    }
+
+    /**
+     * @return the parameters of the macros generated for inline math expressions
+     */
+    public Map<String, String> getInlineMathMacroParameters()
+    {
+        return this.inlineMathMacroParameters;
+    }
+
+    /**
+     * @return the parameters of the macros generated for block math expressions
+     */
+    public Map<String, String> getBlockMathMacroParameters()
+    {
+        return this.blockMathMacroParameters;
+    }
+
+    /**
+     * @return the Flexmark options
+     */
+    public DataHolder getOptions()
+    {
+        return this.options;
+    }
+
+    /**
+     * @return the enabled Flexmark extensions
+     */
+    public List<Extension> getExtensions()
+    {
+        return this.extensions;
+    }
+
+    /**
+     * @return the Flexmark parser configured with {@link #getOptions()}
+     */
+    public Parser getParser()
+    {
+        return getParser(ExtensionProfile.FULL);
+    }
+
+    /**
+     * @param profile the Markdown features to support
+     * @return the Flexmark parser configured with {@link #getOptions()} restricted to the given profile
+     */
+    public Parser getParser(ExtensionProfile profile)
+    {
+        return this.parsers.get(profile);
+    }
+
+    /**
+     * @return see {@link MarkdownConfiguration#getMaxInputLength()}
+     */
+    public int getMaxInputLength()
+    {
+        return this.maxInputLength;
+    }
+
+    /**
+     * @return see {@link MarkdownConfiguration#getMaxMathTokens()}
+     */
+    public int getMaxMathTokens()
+    {
+        return this.maxMathTokens;
+    }
+
+    /**
+     * @return see {@link MarkdownConfiguration#getMaxNestingDepth()}
+     */
+    public int getMaxNestingDepth()
+    {
+        return this.maxNestingDepth;
+    }
+
+    /**
+     * @return see {@link MarkdownConfiguration#getMaxNodeCount()}
+     */
+    public long getMaxNodeCount()
+    {
+        return this.maxNodeCount;
+    }
+
+    /**
+     * @return see {@link MarkdownConfiguration#getParseTimeout()}
+     */
+    public long getParseTimeout()
+    {
+        return this.parseTimeout;
+    }
+
+    /**
+     * @return see {@link MarkdownConfiguration#isDegradedParsingEnabled()}
+     */
+    public boolean isDegradedParsingEnabled()
+    {
+        return this.degradedParsingEnabled;
+    }
+
+    /**
+     * @return see {@link MarkdownConfiguration#getReleaseVisitedBlocksThreshold()}
+     */
+    public int getReleaseVisitedBlocksThreshold()
+    {
+        return this.releaseVisitedBlocksThreshold;
+    }
+
+    /**
+     * @return see {@link MarkdownConfiguration#isWordInterningEnabled()}
+     */
+    public boolean isWordInterningEnabled()
+    {
+        return this.wordInterningEnabled;
+    }
+
+    /**
+     * @return see {@link MarkdownConfiguration#isSourceHashingEnabled()}
+     */
+    public boolean isSourceHashingEnabled()
+    {
+        return this.sourceHashingEnabled;
+    }
+
+    /**
+     * @return see {@link MarkdownConfiguration#isVisitProfilingEnabled()}
+     */
+    public boolean isVisitProfilingEnabled()
+    {
+        return this.visitProfilingEnabled;
+    }
+
+    /**
+     * @return see {@link MarkdownConfiguration#getParallelRenderThreshold()}
+     */
+    public int getParallelRenderThreshold()
+    {
+        return this.parallelRenderThreshold;
+    }
+}
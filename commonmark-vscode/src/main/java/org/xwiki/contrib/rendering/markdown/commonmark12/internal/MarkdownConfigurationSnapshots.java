@@ -0,0 +1,69 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal;
+
+import org.xwiki.component.annotation.Role;
+
+/**
+ * Provides the Markdown configuration of the current wiki, computed once and kept until it's invalidated.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Role
+public interface MarkdownConfigurationSnapshots
+{
+    /**
+     * @return the configuration of the current wiki, or the one set with {@link #use(MarkdownConfigurationSnapshot)}
+     */
+    MarkdownConfigurationSnapshot getCurrent();
+
+    /**
+     * Makes the given configuration the current one for the calling thread, until the returned scope is closed. Used
+     * to run a parsing on a thread that doesn't know the current wiki, with the configuration of the thread that
+     * requested it.
+     *
+     * @param snapshot the configuration to use
+     * @return the scope to close to restore the previous configuration
+     */
+    Scope use(MarkdownConfigurationSnapshot snapshot);
+
+    /**
+     * @param wikiId the wiki whose configuration changed
+     */
+    void invalidate(String wikiId);
+
+    /**
+     * Forgets the configuration of all the wikis.
+     */
+    void invalidateAll();
+
+    /**
+     * Restores the previous configuration when closed.
+     *
+     * @version $Id$
+     * @since 0.2
+     */
+    interface Scope extends AutoCloseable
+    {
+        @Override
+        void close();
+    }
+}
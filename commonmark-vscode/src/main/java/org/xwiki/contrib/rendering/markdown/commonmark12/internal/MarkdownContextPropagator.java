@@ -0,0 +1,74 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal;
+
+import org.xwiki.component.annotation.Role;
+
+/**
+ * Carries the context of a thread to the Markdown parsing and rendering tasks it hands to a pool of threads: a copy of
+ * its execution context, its context class loader and its Markdown configuration.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Role
+public interface MarkdownContextPropagator
+{
+    /**
+     * Captures the context of the calling thread for a single task. The execution context is cloned, so that tasks
+     * running at the same time never share it with each other or with the calling thread.
+     *
+     * @return the captured context
+     */
+    CapturedContext capture();
+
+    /**
+     * The context of a thread, to be entered by the thread running a task.
+     *
+     * @version $Id$
+     * @since 0.2
+     */
+    interface CapturedContext
+    {
+        /**
+         * @return the Markdown configuration of the thread that captured this context
+         */
+        MarkdownConfigurationSnapshot getConfigurationSnapshot();
+
+        /**
+         * Makes this context the one of the calling thread, until the returned scope is closed.
+         *
+         * @return the scope to close to restore the previous context of the calling thread
+         */
+        Scope enter();
+    }
+
+    /**
+     * Restores the previous context when closed.
+     *
+     * @version $Id$
+     * @since 0.2
+     */
+    interface Scope extends AutoCloseable
+    {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.ExportMetrics;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.MarkdownMetrics;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.text.AppendableWikiPrinter;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.renderer.BlockRenderer;
+
+import static org.xwiki.contrib.rendering.markdown.commonmark12.internal.CommonMark12SyntaxProvider.COMMONMARK_VSCODE_0_1;
+
+/**
+ * Exports the documents with a fixed number of workers, each of them loading, rendering and writing one document at
+ * a time with its own reusable buffers. The memory used by an export is thus bounded by the number of workers times
+ * the size of the largest documents, whatever the number of documents.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Component
+@Named("commonmark-vscode/0.1")
+@Singleton
+public class DefaultMarkdownExporter implements MarkdownExporter
+{
+    private static final String THREAD_NAME = "Markdown export-";
+
+    /**
+     * The rendering buffer of a worker is dropped after a larger document, so that a single huge document doesn't
+     * keep the memory of the worker high until the end of the export.
+     */
+    private static final int MAX_KEPT_BUFFER_LENGTH = 1024 * 1024;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    @Inject
+    @Named("commonmark-vscode/0.1")
+    private BlockRenderer markdownRenderer;
+
+    @Inject
+    private MarkdownConfiguration configuration;
+
+    @Inject
+    private MarkdownMetrics metrics;
+
+    @Inject
+    private Logger logger;
+
+    @Override
+    public void export(Iterator<ExportDocument> documents, ExportTarget target, ExportMetrics exportMetrics)
+        throws IOException, InterruptedException
+    {
+        int threads = Math.max(1, this.configuration.getExportThreads());
+        boolean published = this.metrics.isEnabled();
+        if (published) {
+            this.metrics.register(COMMONMARK_VSCODE_0_1, exportMetrics);
+        }
+        exportMetrics.begin();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, createThreadFactory());
+        try {
+            List<Future<Void>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(new ExportWorker(documents, target, exportMetrics)));
+            }
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to export the documents", e.getCause());
+        } finally {
+            // Stops the other workers when one of them failed or the export has been interrupted.
+            executor.shutdownNow();
+            exportMetrics.end();
+            if (published) {
+                this.metrics.unregister(COMMONMARK_VSCODE_0_1, exportMetrics);
+            }
+        }
+    }
+
+    private ThreadFactory createThreadFactory()
+    {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class ExportWorker implements Callable<Void>
+    {
+        private final Iterator<ExportDocument> documents;
+
+        private final ExportTarget target;
+
+        private final ExportMetrics exportMetrics;
+
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        private final ByteBuffer bytes = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+
+        private StringBuilder buffer = new StringBuilder();
+
+        ExportWorker(Iterator<ExportDocument> documents, ExportTarget target, ExportMetrics exportMetrics)
+        {
+            this.documents = documents;
+            this.target = target;
+            this.exportMetrics = exportMetrics;
+        }
+
+        @Override
+        public Void call() throws IOException
+        {
+            ExportDocument document = nextDocument();
+            while (document != null && !Thread.currentThread().isInterrupted()) {
+                export(document);
+                document = nextDocument();
+            }
+            return null;
+        }
+
+        private ExportDocument nextDocument()
+        {
+            synchronized (this.documents) {
+                return this.documents.hasNext() ? this.documents.next() : null;
+            }
+        }
+
+        private void export(ExportDocument document) throws IOException
+        {
+            this.exportMetrics.started();
+            long start = System.nanoTime();
+            long written = 0;
+            boolean failed = true;
+            try {
+                if (render(document)) {
+                    written = write(document.getPath());
+                    failed = false;
+                }
+            } finally {
+                if (this.buffer.capacity() > MAX_KEPT_BUFFER_LENGTH) {
+                    this.buffer = new StringBuilder();
+                } else {
+                    this.buffer.setLength(0);
+                }
+                this.exportMetrics.finished(System.nanoTime() - start, written, failed);
+            }
+        }
+
+        private boolean render(ExportDocument document)
+        {
+            try {
+                XDOM xdom = document.load();
+                markdownRenderer.render(xdom, new AppendableWikiPrinter(this.buffer));
+                return true;
+            } catch (Exception e) {
+                // Skip the document, the others can still be exported.
+                logger.warn("Failed to export document [{}] to Markdown. Root error: [{}]", document.getPath(),
+                    ExceptionUtils.getRootCauseMessage(e));
+                return false;
+            }
+        }
+
+        /**
+         * Encodes the rendered document by chunks of the write buffer size, without copying the whole document.
+         */
+        private long write(String path) throws IOException
+        {
+            CharBuffer chars = CharBuffer.wrap(this.buffer);
+            this.encoder.reset();
+            long written = 0;
+            try (WritableByteChannel channel = this.target.openEntry(path)) {
+                CoderResult result;
+                do {
+                    result = this.encoder.encode(chars, this.bytes, true);
+                    written += drain(channel);
+                } while (result.isOverflow());
+                do {
+                    result = this.encoder.flush(this.bytes);
+                    written += drain(channel);
+                } while (result.isOverflow());
+            }
+            return written;
+        }
+
+        private int drain(WritableByteChannel channel) throws IOException
+        {
+            this.bytes.flip();
+            int length = this.bytes.remaining();
+            while (this.bytes.hasRemaining()) {
+                channel.write(this.bytes);
+            }
+            this.bytes.clear();
+            return length;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.export;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes each exported document to its own file below a root directory, so that the documents are written in
+ * parallel.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class DirectoryExportTarget implements ExportTarget
+{
+    private final Path root;
+
+    /**
+     * @param root the directory receiving the exported files, created if needed
+     */
+    public DirectoryExportTarget(Path root)
+    {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public WritableByteChannel openEntry(String path) throws IOException
+    {
+        Path file = this.root.resolve(path).normalize();
+        if (!file.startsWith(this.root) || file.equals(this.root)) {
+            throw new IOException(String.format("Invalid export path [%s]", path));
+        }
+        Files.createDirectories(file.getParent());
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public void close()
+    {
+        // The files are closed as they are written.
+    }
+}
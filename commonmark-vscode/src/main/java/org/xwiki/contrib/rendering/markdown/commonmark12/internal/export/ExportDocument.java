@@ -0,0 +1,65 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.export;
+
+import java.util.concurrent.Callable;
+
+import org.xwiki.rendering.block.XDOM;
+
+/**
+ * A document to export, loaded only when a worker is ready to render it so that the number of XDOMs in memory stays
+ * bounded by the number of workers.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class ExportDocument
+{
+    private final String path;
+
+    private final Callable<XDOM> loader;
+
+    /**
+     * @param path the path of the exported file, relative to the export root and with {@code /} separators
+     * @param loader provides the XDOM of the document, e.g. by parsing its content
+     */
+    public ExportDocument(String path, Callable<XDOM> loader)
+    {
+        this.path = path;
+        this.loader = loader;
+    }
+
+    /**
+     * @return the path of the exported file, relative to the export root and with {@code /} separators
+     */
+    public String getPath()
+    {
+        return this.path;
+    }
+
+    /**
+     * @return the XDOM of the document
+     * @throws Exception if the document can't be loaded
+     */
+    public XDOM load() throws Exception
+    {
+        return this.loader.call();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.export;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.ExportMetrics;
+
+/**
+ * Renders many documents to Markdown concurrently, e.g. to publish a whole wiki in a git repository.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Role
+public interface MarkdownExporter
+{
+    /**
+     * Exports the documents, returning once all of them have been written. A document that can't be loaded or
+     * rendered is skipped (and counted as failed), while a write error stops the export.
+     *
+     * @param documents the documents to export, only iterated by one thread at a time
+     * @param target receives the rendered documents, it's not closed by the export
+     * @param metrics updated during the export (and published through JMX when the metrics are enabled), so that the
+     *            progress can be followed from another thread
+     * @throws IOException if a document can't be written
+     * @throws InterruptedException if the calling thread has been interrupted, the export being stopped
+     */
+    void export(Iterator<ExportDocument> documents, ExportTarget target, ExportMetrics metrics)
+        throws IOException, InterruptedException;
+}
@@ -0,0 +1,129 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.export;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the exported documents as the entries of a ZIP file. The entries can't be interleaved, so a document being
+ * written (and compressed) blocks the others: only the rendering of the documents runs in parallel.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class ZipExportTarget implements ExportTarget
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ZipOutputStream zip;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param file the ZIP file to create, replaced if it exists
+     * @throws IOException if the file can't be created
+     */
+    public ZipExportTarget(Path file) throws IOException
+    {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+        this.zip = new ZipOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+    }
+
+    @Override
+    public WritableByteChannel openEntry(String path) throws IOException
+    {
+        if (path.isEmpty() || path.startsWith("/") || ("/" + path + "/").contains("/../")) {
+            throw new IOException(String.format("Invalid export path [%s]", path));
+        }
+
+        this.lock.lock();
+        try {
+            this.zip.putNextEntry(new ZipEntry(path));
+        } catch (IOException e) {
+            this.lock.unlock();
+            throw e;
+        }
+        return new EntryChannel();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.zip.close();
+    }
+
+    /**
+     * Writes the content of the current entry, which ends when the channel is closed.
+     */
+    private final class EntryChannel implements WritableByteChannel
+    {
+        private boolean open = true;
+
+        @Override
+        public int write(ByteBuffer source) throws IOException
+        {
+            if (!this.open) {
+                throw new ClosedChannelException();
+            }
+
+            int length = source.remaining();
+            if (source.hasArray()) {
+                zip.write(source.array(), source.arrayOffset() + source.position(), length);
+                source.position(source.limit());
+            } else {
+                byte[] bytes = new byte[length];
+                source.get(bytes);
+                zip.write(bytes);
+            }
+            return length;
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return this.open;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if (this.open) {
+                this.open = false;
+                try {
+                    zip.closeEntry();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the asynchronous parsings running on a given executor.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class AsyncParseMetrics implements AsyncParseMetricsMXBean
+{
+    /**
+     * Duration buckets, in microseconds.
+     */
+    private static final long[] DURATION_BOUNDS =
+        { 100, 1_000, 10_000, 50_000, 100_000, 500_000, 1_000_000, 5_000_000, 10_000_000, 60_000_000 };
+
+    private final ThreadPoolExecutor executor;
+
+    private final int queueCapacity;
+
+    private final LongAdder submittedCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder completedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private final LongAdder cancelledCount = new LongAdder();
+
+    private final CumulativeHistogram queueWait = new CumulativeHistogram(DURATION_BOUNDS);
+
+    private final CumulativeHistogram latency = new CumulativeHistogram(DURATION_BOUNDS);
+
+    /**
+     * @param executor the executor running the parsings
+     * @param queueCapacity the size of the executor queue
+     */
+    public AsyncParseMetrics(ThreadPoolExecutor executor, int queueCapacity)
+    {
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * A parsing has been accepted by the executor.
+     */
+    public void submitted()
+    {
+        this.submittedCount.increment();
+    }
+
+    /**
+     * A parsing has been refused because the queue is full.
+     */
+    public void rejected()
+    {
+        this.rejectedCount.increment();
+    }
+
+    /**
+     * @param waitDuration the time spent by a parsing in the queue before starting, in nanoseconds
+     */
+    public void started(long waitDuration)
+    {
+        this.queueWait.add(TimeUnit.NANOSECONDS.toMicros(waitDuration));
+    }
+
+    /**
+     * @param duration the time between the submission and the end of a parsing, in nanoseconds
+     * @param failed {@code true} if the parsing failed
+     */
+    public void finished(long duration, boolean failed)
+    {
+        this.latency.add(TimeUnit.NANOSECONDS.toMicros(duration));
+        if (failed) {
+            this.failedCount.increment();
+        } else {
+            this.completedCount.increment();
+        }
+    }
+
+    /**
+     * A parsing has been cancelled by its caller.
+     */
+    public void cancelled()
+    {
+        this.cancelledCount.increment();
+    }
+
+    @Override
+    public int getQueueDepth()
+    {
+        return this.executor.getQueue().size();
+    }
+
+    @Override
+    public int getQueueCapacity()
+    {
+        return this.queueCapacity;
+    }
+
+    @Override
+    public int getActiveCount()
+    {
+        return this.executor.getActiveCount();
+    }
+
+    @Override
+    public long getSubmittedCount()
+    {
+        return this.submittedCount.sum();
+    }
+
+    @Override
+    public long getRejectedCount()
+    {
+        return this.rejectedCount.sum();
+    }
+
+    @Override
+    public long getCompletedCount()
+    {
+        return this.completedCount.sum();
+    }
+
+    @Override
+    public long getFailedCount()
+    {
+        return this.failedCount.sum();
+    }
+
+    @Override
+    public long getCancelledCount()
+    {
+        return this.cancelledCount.sum();
+    }
+
+    @Override
+    public long[] getDurationBucketBounds()
+    {
+        return DURATION_BOUNDS.clone();
+    }
+
+    @Override
+    public long[] getQueueWaitHistogram()
+    {
+        return this.queueWait.getCumulativeCounts();
+    }
+
+    @Override
+    public long[] getLatencyHistogram()
+    {
+        return this.latency.getCumulativeCounts();
+    }
+}
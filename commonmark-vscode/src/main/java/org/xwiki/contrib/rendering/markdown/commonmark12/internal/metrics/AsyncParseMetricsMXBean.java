@@ -0,0 +1,67 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+/**
+ * JMX view of the asynchronous parsings of a given syntax. Durations are in microseconds and histogram counts are
+ * cumulative, see {@link CumulativeHistogram}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public interface AsyncParseMetricsMXBean
+{
+    /**
+     * @return the number of parsings waiting for a thread
+     */
+    int getQueueDepth();
+
+    /**
+     * @return the maximum number of parsings that can wait for a thread
+     */
+    int getQueueCapacity();
+
+    /**
+     * @return the number of parsings currently running
+     */
+    int getActiveCount();
+
+    long getSubmittedCount();
+
+    long getRejectedCount();
+
+    long getCompletedCount();
+
+    long getFailedCount();
+
+    long getCancelledCount();
+
+    long[] getDurationBucketBounds();
+
+    /**
+     * @return the time spent by the parsings waiting for a thread
+     */
+    long[] getQueueWaitHistogram();
+
+    /**
+     * @return the time between the submission and the end of the parsings
+     */
+    long[] getLatencyHistogram();
+}
@@ -0,0 +1,92 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe histogram with fixed bucket upper bounds. Counts are cumulative: the count of a bucket includes all the
+ * samples lower than or equal to its bound, the last bucket being implicitly unbounded.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class CumulativeHistogram
+{
+    private final long[] bounds;
+
+    private final AtomicLongArray counts;
+
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * @param bounds the inclusive upper bounds of the buckets, in increasing order
+     */
+    public CumulativeHistogram(long... bounds)
+    {
+        this.bounds = bounds.clone();
+        this.counts = new AtomicLongArray(bounds.length + 1);
+    }
+
+    /**
+     * @param value the sample to add
+     */
+    public void add(long value)
+    {
+        int index = Arrays.binarySearch(this.bounds, value);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        this.counts.incrementAndGet(index);
+        this.sum.add(value);
+    }
+
+    /**
+     * @return the bucket upper bounds
+     */
+    public long[] getBounds()
+    {
+        return this.bounds.clone();
+    }
+
+    /**
+     * @return for each bound, plus a last unbounded bucket, the number of samples lower than or equal to it
+     */
+    public long[] getCumulativeCounts()
+    {
+        long[] result = new long[this.counts.length()];
+        long total = 0;
+        for (int i = 0; i < result.length; i++) {
+            total += this.counts.get(i);
+            result[i] = total;
+        }
+        return result;
+    }
+
+    /**
+     * @return the sum of all the samples
+     */
+    public long getSum()
+    {
+        return this.sum.sum();
+    }
+}
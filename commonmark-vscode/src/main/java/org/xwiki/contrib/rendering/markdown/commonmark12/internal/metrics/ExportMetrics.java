@@ -0,0 +1,159 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress and throughput of a bulk export to Markdown. It can be read from any thread while the export runs.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class ExportMetrics implements ExportMetricsMXBean
+{
+    /**
+     * Duration buckets, in microseconds.
+     */
+    private static final long[] DURATION_BOUNDS =
+        { 100, 1_000, 10_000, 50_000, 100_000, 500_000, 1_000_000, 5_000_000, 10_000_000, 60_000_000 };
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    private final LongAdder exportedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private final LongAdder writtenBytes = new LongAdder();
+
+    private final CumulativeHistogram latency = new CumulativeHistogram(DURATION_BOUNDS);
+
+    private volatile long startTime;
+
+    private volatile long endTime;
+
+    /**
+     * The export starts.
+     */
+    public void begin()
+    {
+        this.startTime = System.nanoTime();
+        this.endTime = 0;
+    }
+
+    /**
+     * The export is over, the elapsed time and the throughputs don't change anymore.
+     */
+    public void end()
+    {
+        this.endTime = System.nanoTime();
+    }
+
+    /**
+     * A document starts being exported.
+     */
+    public void started()
+    {
+        this.activeCount.incrementAndGet();
+    }
+
+    /**
+     * @param duration the time spent exporting a document, in nanoseconds
+     * @param bytes the number of bytes written for the document
+     * @param failed {@code true} if the document couldn't be exported
+     */
+    public void finished(long duration, long bytes, boolean failed)
+    {
+        this.activeCount.decrementAndGet();
+        this.latency.add(TimeUnit.NANOSECONDS.toMicros(duration));
+        this.writtenBytes.add(bytes);
+        if (failed) {
+            this.failedCount.increment();
+        } else {
+            this.exportedCount.increment();
+        }
+    }
+
+    @Override
+    public int getActiveCount()
+    {
+        return this.activeCount.get();
+    }
+
+    @Override
+    public long getExportedCount()
+    {
+        return this.exportedCount.sum();
+    }
+
+    @Override
+    public long getFailedCount()
+    {
+        return this.failedCount.sum();
+    }
+
+    @Override
+    public long getWrittenBytes()
+    {
+        return this.writtenBytes.sum();
+    }
+
+    @Override
+    public long getElapsedTime()
+    {
+        if (this.startTime == 0) {
+            return 0;
+        }
+        long end = this.endTime == 0 ? System.nanoTime() : this.endTime;
+        return TimeUnit.NANOSECONDS.toMillis(end - this.startTime);
+    }
+
+    @Override
+    public double getDocumentThroughput()
+    {
+        return perSecond(getExportedCount());
+    }
+
+    @Override
+    public double getByteThroughput()
+    {
+        return perSecond(getWrittenBytes());
+    }
+
+    @Override
+    public long[] getDurationBucketBounds()
+    {
+        return DURATION_BOUNDS.clone();
+    }
+
+    @Override
+    public long[] getDocumentLatencyHistogram()
+    {
+        return this.latency.getCumulativeCounts();
+    }
+
+    private double perSecond(long count)
+    {
+        long elapsed = getElapsedTime();
+        return elapsed == 0 ? 0 : count * 1000.0 / elapsed;
+    }
+}
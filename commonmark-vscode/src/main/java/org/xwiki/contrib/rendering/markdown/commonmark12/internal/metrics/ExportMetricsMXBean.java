@@ -0,0 +1,66 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+/**
+ * JMX view of a running bulk export to Markdown. Durations are in microseconds and histogram counts are cumulative,
+ * see {@link CumulativeHistogram}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public interface ExportMetricsMXBean
+{
+    /**
+     * @return the number of documents being rendered or written
+     */
+    int getActiveCount();
+
+    long getExportedCount();
+
+    long getFailedCount();
+
+    /**
+     * @return the number of bytes of Markdown written so far
+     */
+    long getWrittenBytes();
+
+    /**
+     * @return the time since the start of the export, in milliseconds
+     */
+    long getElapsedTime();
+
+    /**
+     * @return the average number of documents exported per second since the start of the export
+     */
+    double getDocumentThroughput();
+
+    /**
+     * @return the average number of bytes written per second since the start of the export
+     */
+    double getByteThroughput();
+
+    long[] getDurationBucketBounds();
+
+    /**
+     * @return the time spent loading, rendering and writing each document
+     */
+    long[] getDocumentLatencyHistogram();
+}
@@ -0,0 +1,235 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+import org.xwiki.rendering.syntax.Syntax;
+
+/**
+ * Default {@link MarkdownMetrics} implementation, exposing one {@link ParseMetricsMXBean} per syntax in the platform
+ * MBean server, under {@code org.xwiki.contrib.rendering.markdown:type=ParseMetrics,syntax=<syntax id>}, and the
+ * {@link AsyncParseMetricsMXBean} of the asynchronous parsers under {@code type=AsyncParseMetrics}. The statistics of the
+ * reference cache are under {@code org.xwiki.contrib.rendering.markdown:type=ReferenceCacheMetrics}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Component
+@Singleton
+public class JMXMarkdownMetrics implements MarkdownMetrics, Initializable, Disposable
+{
+    private static final String DOMAIN = "org.xwiki.contrib.rendering.markdown";
+
+    private static final String TYPE = "ParseMetrics";
+
+    private static final String ASYNC_TYPE = "AsyncParseMetrics";
+
+    private static final String EXPORT_TYPE = "ExportMetrics";
+
+    private static final String REFERENCE_CACHE_TYPE = "ReferenceCacheMetrics";
+
+    @Inject
+    private MarkdownConfiguration configuration;
+
+    @Inject
+    private Logger logger;
+
+    private final Map<String, SyntaxParseMetrics> metrics = new ConcurrentHashMap<>();
+
+    private final Map<String, AsyncParseMetrics> asyncMetrics = new ConcurrentHashMap<>();
+
+    private final Map<String, ExportMetrics> exportMetrics = new ConcurrentHashMap<>();
+
+    private volatile ReferenceCacheMetrics referenceCacheMetrics;
+
+    private boolean enabled;
+
+    @Override
+    public void initialize()
+    {
+        // Checked by every parse.
+        this.enabled = this.configuration.isMetricsEnabled();
+    }
+
+    @Override
+    public boolean isEnabled()
+    {
+        return this.enabled;
+    }
+
+    @Override
+    public void record(Syntax syntax, ParseStatistics statistics)
+    {
+        this.metrics.computeIfAbsent(syntax.toIdString(), this::register).add(statistics);
+    }
+
+    @Override
+    public void record(Syntax syntax, VisitProfile profile)
+    {
+        this.metrics.computeIfAbsent(syntax.toIdString(), this::register).add(profile);
+    }
+
+    @Override
+    public void register(Syntax syntax, AsyncParseMetrics syntaxAsyncMetrics)
+    {
+        String syntaxId = syntax.toIdString();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(syntaxAsyncMetrics,
+                getObjectName(ASYNC_TYPE, syntaxId));
+            this.asyncMetrics.put(syntaxId, syntaxAsyncMetrics);
+        } catch (JMException e) {
+            this.logger.warn(
+                "Failed to register the asynchronous parse metrics of syntax [{}] in JMX. Root error: [{}]", syntaxId,
+                e.getMessage());
+        }
+    }
+
+    @Override
+    public void unregister(Syntax syntax)
+    {
+        String syntaxId = syntax.toIdString();
+        if (this.asyncMetrics.remove(syntaxId) != null) {
+            unregister(ASYNC_TYPE, syntaxId);
+        }
+    }
+
+    @Override
+    public void register(Syntax syntax, ExportMetrics syntaxExportMetrics)
+    {
+        String syntaxId = syntax.toIdString();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(syntaxExportMetrics,
+                getObjectName(EXPORT_TYPE, syntaxId));
+            this.exportMetrics.put(syntaxId, syntaxExportMetrics);
+        } catch (JMException e) {
+            // E.g. another export of the same syntax is running.
+            this.logger.warn("Failed to register the export metrics of syntax [{}] in JMX. Root error: [{}]",
+                syntaxId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void unregister(Syntax syntax, ExportMetrics syntaxExportMetrics)
+    {
+        String syntaxId = syntax.toIdString();
+        // Leave the MBean of a concurrent export alone.
+        if (this.exportMetrics.remove(syntaxId, syntaxExportMetrics)) {
+            unregister(EXPORT_TYPE, syntaxId);
+        }
+    }
+
+    @Override
+    public void register(ReferenceCacheMetrics cacheMetrics)
+    {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(cacheMetrics,
+                getObjectName(REFERENCE_CACHE_TYPE));
+            this.referenceCacheMetrics = cacheMetrics;
+        } catch (JMException e) {
+            this.logger.warn("Failed to register the reference cache metrics in JMX. Root error: [{}]",
+                e.getMessage());
+        }
+    }
+
+    @Override
+    public void unregister(ReferenceCacheMetrics cacheMetrics)
+    {
+        // The registration may have failed, e.g. because another cache instance was registered first.
+        if (cacheMetrics != null && cacheMetrics == this.referenceCacheMetrics) {
+            this.referenceCacheMetrics = null;
+            unregisterReferenceCache();
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        for (String syntaxId : this.metrics.keySet()) {
+            unregister(TYPE, syntaxId);
+        }
+        this.metrics.clear();
+        for (String syntaxId : this.asyncMetrics.keySet()) {
+            unregister(ASYNC_TYPE, syntaxId);
+        }
+        this.asyncMetrics.clear();
+        for (String syntaxId : this.exportMetrics.keySet()) {
+            unregister(EXPORT_TYPE, syntaxId);
+        }
+        this.exportMetrics.clear();
+        if (this.referenceCacheMetrics != null) {
+            this.referenceCacheMetrics = null;
+            unregisterReferenceCache();
+        }
+    }
+
+    private void unregisterReferenceCache()
+    {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(getObjectName(REFERENCE_CACHE_TYPE));
+        } catch (JMException e) {
+            this.logger.debug("Failed to unregister the reference cache metrics", e);
+        }
+    }
+
+    private void unregister(String type, String syntaxId)
+    {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(getObjectName(type, syntaxId));
+        } catch (JMException e) {
+            this.logger.debug("Failed to unregister the [{}] metrics of syntax [{}]", type, syntaxId, e);
+        }
+    }
+
+    private SyntaxParseMetrics register(String syntaxId)
+    {
+        SyntaxParseMetrics syntaxMetrics = new SyntaxParseMetrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(syntaxMetrics, getObjectName(TYPE, syntaxId));
+        } catch (JMException e) {
+            // Still collect the metrics, they're just not visible through JMX.
+            this.logger.warn("Failed to register the parse metrics of syntax [{}] in JMX. Root error: [{}]",
+                syntaxId, e.getMessage());
+        }
+        return syntaxMetrics;
+    }
+
+    private ObjectName getObjectName(String type) throws JMException
+    {
+        return new ObjectName(String.format("%s:type=%s", DOMAIN, type));
+    }
+
+    private ObjectName getObjectName(String type, String syntaxId) throws JMException
+    {
+        return new ObjectName(String.format("%s:type=%s,syntax=%s", DOMAIN, type, ObjectName.quote(syntaxId)));
+    }
+}
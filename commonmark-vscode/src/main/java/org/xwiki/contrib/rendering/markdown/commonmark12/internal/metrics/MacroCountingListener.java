@@ -17,47 +17,37 @@
  * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
-package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
 
 import java.util.Map;
 
+import org.xwiki.rendering.listener.Listener;
 import org.xwiki.rendering.listener.WrappingListener;
 
 /**
- * Special listener for handling blockquotes and converting them from the Flexmark Model to the XWiki Model.
+ * Counts the macro events going through it.
  *
  * @version $Id$
- * @since 8.4
+ * @since 0.2
  */
-public class QuoteListener extends WrappingListener
+public class MacroCountingListener extends WrappingListener
 {
-    /**
-     * Whether a quotation line has been started or not.
-     */
-    private boolean quotationLineStarted;
+    private final ParseStatistics statistics;
 
     /**
-     * Close open quotation lines events.
+     * @param listener the listener to forward all events to
+     * @param statistics where to count the macro events
      */
-    public void closeOpenedQuotationLines()
-    {
-        if (this.quotationLineStarted) {
-            endQuotationLine();
-        }
-        this.quotationLineStarted = false;
-    }
-
-    @Override
-    public void beginParagraph(Map<String, String> parameters)
+    public MacroCountingListener(Listener listener, ParseStatistics statistics)
     {
-        closeOpenedQuotationLines();
-        beginQuotationLine();
-        this.quotationLineStarted = true;
+        setWrappedListener(listener);
+        this.statistics = statistics;
     }
 
     @Override
-    public void endParagraph(Map<String, String> parameters)
+    public void onMacro(String id, Map<String, String> parameters, String content, boolean isInline)
     {
-        // Ignore
+        this.statistics.incrementMacroCount();
+        super.onMacro(id, parameters, content, isInline);
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.syntax.Syntax;
+
+/**
+ * Receives the statistics of the Markdown parses. Implementations must be thread safe and should be cheap since they
+ * are called for every parse when enabled.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Role
+public interface MarkdownMetrics
+{
+    /**
+     * @return {@code true} if statistics should be gathered and passed to {@link #record(Syntax, ParseStatistics)},
+     *         parsers don't gather anything otherwise
+     */
+    boolean isEnabled();
+
+    /**
+     * @param syntax the syntax of the parsed content
+     * @param statistics the statistics of a parse that just finished
+     */
+    void record(Syntax syntax, ParseStatistics statistics);
+
+    /**
+     * @param syntax the syntax of the parsed content
+     * @param profile the node handler profile of a parse that just finished, only gathered when visit profiling is
+     *            enabled in the configuration
+     */
+    default void record(Syntax syntax, VisitProfile profile)
+    {
+        // Ignored by default.
+    }
+
+    /**
+     * @param syntax the syntax parsed asynchronously
+     * @param asyncMetrics the live statistics of the asynchronous parsings of this syntax, to publish
+     */
+    default void register(Syntax syntax, AsyncParseMetrics asyncMetrics)
+    {
+        // Ignored by default.
+    }
+
+    /**
+     * @param syntax the syntax not parsed asynchronously anymore
+     */
+    default void unregister(Syntax syntax)
+    {
+        // Ignored by default.
+    }
+
+    /**
+     * @param referenceCacheMetrics the live statistics of the cache of parsed wiki references, to publish
+     */
+    default void register(ReferenceCacheMetrics referenceCacheMetrics)
+    {
+        // Ignored by default.
+    }
+
+    /**
+     * @param referenceCacheMetrics the statistics of a cache of parsed wiki references that is not used anymore
+     */
+    default void unregister(ReferenceCacheMetrics referenceCacheMetrics)
+    {
+        // Ignored by default.
+    }
+
+    /**
+     * @param syntax the syntax of the exported content
+     * @param exportMetrics the live statistics of a running bulk export, to publish
+     */
+    default void register(Syntax syntax, ExportMetrics exportMetrics)
+    {
+        // Ignored by default.
+    }
+
+    /**
+     * Does nothing when the given statistics are not the published ones, e.g. because another export of the same
+     * syntax was already running when they were registered.
+     *
+     * @param syntax the syntax of the content not being exported anymore
+     * @param exportMetrics the statistics of the export that ended
+     */
+    default void unregister(Syntax syntax, ExportMetrics exportMetrics)
+    {
+        // Ignored by default.
+    }
+}
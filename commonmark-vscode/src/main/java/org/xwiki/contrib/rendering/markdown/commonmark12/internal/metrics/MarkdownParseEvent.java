@@ -0,0 +1,92 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event emitted for each Markdown parse, whatever its outcome. Allocating and committing it is free
+ * when no recording has this event enabled. The stack trace tells which code triggered the parse.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Name("org.xwiki.contrib.rendering.markdown.Parse")
+@Label("Markdown Parse")
+@Description("Parsing of Markdown content into XWiki rendering events")
+@Category({ "XWiki", "Rendering" })
+public class MarkdownParseEvent extends Event
+{
+    @Label("Syntax")
+    public String syntax;
+
+    @Label("Wiki")
+    public String wiki;
+
+    @Label("Outcome")
+    @Description("How the parse ended, see ParseOutcome")
+    public String outcome;
+
+    @Label("Input Length")
+    @Description("Number of characters of the Markdown source")
+    public long inputLength;
+
+    @Label("Node Count")
+    public long nodeCount;
+
+    @Label("Math Token Count")
+    public long mathTokenCount;
+
+    @Label("Read Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long readDuration;
+
+    @Label("Math Preprocessing Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long mathDuration;
+
+    @Label("Flexmark Parse Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long flexmarkDuration;
+
+    @Label("Visit Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long visitDuration;
+
+    /**
+     * @param statistics the statistics to copy into the event fields
+     */
+    public void setStatistics(ParseStatistics statistics)
+    {
+        this.inputLength = statistics.getInputLength();
+        this.nodeCount = statistics.getNodeCount();
+        this.mathTokenCount = statistics.getMathTokenCount();
+        this.readDuration = statistics.getPhaseDuration(ParsePhase.READ);
+        this.mathDuration = statistics.getPhaseDuration(ParsePhase.MATH);
+        this.flexmarkDuration = statistics.getPhaseDuration(ParsePhase.FLEXMARK);
+        this.visitDuration = statistics.getPhaseDuration(ParsePhase.VISIT);
+        this.outcome = statistics.getOutcome().name();
+    }
+}
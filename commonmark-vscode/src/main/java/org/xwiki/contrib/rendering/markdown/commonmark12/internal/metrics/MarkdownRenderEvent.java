@@ -0,0 +1,60 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event emitted for each rendering of a document to Markdown.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Name("org.xwiki.contrib.rendering.markdown.Render")
+@Label("Markdown Render")
+@Description("Rendering of XWiki rendering events to Markdown")
+@Category({ "XWiki", "Rendering" })
+public class MarkdownRenderEvent extends Event
+{
+    @Label("Output Length")
+    @Description("Number of characters of the generated Markdown")
+    public long outputLength;
+
+    @Label("Table Count")
+    public long tableCount;
+
+    @Label("Escape Flush Count")
+    @Description("Number of times buffered text had to be escaped")
+    public long escapeFlushCount;
+
+    /**
+     * @param statistics the statistics to copy into the event fields
+     */
+    public void setStatistics(RenderStatistics statistics)
+    {
+        this.outputLength = statistics.getOutputLength();
+        this.tableCount = statistics.getTableCount();
+        this.escapeFlushCount = statistics.getEscapeFlushCount();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the parse statistics of a given syntax. Durations are in microseconds and histogram counts are
+ * cumulative, see {@link CumulativeHistogram}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public interface ParseMetricsMXBean
+{
+    long getParseCount();
+
+    /**
+     * @return the number of parses per {@link ParseOutcome}, all of them being counted by {@link #getParseCount()}
+     */
+    Map<String, Long> getOutcomeCounts();
+
+    long[] getDurationBucketBounds();
+
+    long[] getReadDurationHistogram();
+
+    long[] getMathDurationHistogram();
+
+    long[] getFlexmarkDurationHistogram();
+
+    long[] getVisitDurationHistogram();
+
+    long[] getTotalDurationHistogram();
+
+    long getTotalDuration();
+
+    long[] getSizeBucketBounds();
+
+    long[] getInputLengthHistogram();
+
+    long[] getNodeCountHistogram();
+
+    long getInputLength();
+
+    long getNodeCount();
+
+    long getMathTokenCount();
+
+    long getInlineHTMLCount();
+
+    long getMacroCount();
+
+    /**
+     * @return the number of visited nodes per handler, when visit profiling is enabled
+     */
+    Map<String, Long> getHandlerVisitCounts();
+
+    /**
+     * @return the time spent in each handler including nested handlers, when visit profiling is enabled
+     */
+    Map<String, Long> getHandlerInclusiveDurations();
+
+    /**
+     * @return the time spent in each handler excluding nested handlers, when visit profiling is enabled
+     */
+    Map<String, Long> getHandlerExclusiveDurations();
+}
@@ -0,0 +1,50 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+/**
+ * The phases of a Markdown parse that are timed separately.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public enum ParsePhase
+{
+    /**
+     * Reading the whole source into memory.
+     */
+    READ,
+
+    /**
+     * Replacing math expressions by placeholders.
+     */
+    MATH,
+
+    /**
+     * Building the Flexmark AST.
+     */
+    FLEXMARK,
+
+    /**
+     * Checking the Flexmark AST against the parse limits, hashing the source of its top-level blocks, then walking it
+     * and sending the XWiki rendering events.
+     */
+    VISIT
+}
@@ -0,0 +1,160 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+/**
+ * Timings and sizes gathered during a single parse. Not thread safe, a new instance is used for each parse.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class ParseStatistics
+{
+    private final long[] phaseDurations = new long[ParsePhase.values().length];
+
+    private long lastMark = System.nanoTime();
+
+    private long inputLength;
+
+    private long nodeCount;
+
+    private long mathTokenCount;
+
+    private long inlineHTMLCount;
+
+    private long macroCount;
+
+    private ParseOutcome outcome = ParseOutcome.SUCCEEDED;
+
+    /**
+     * Record the time elapsed since the end of the previous phase (or since the creation of this object) as the
+     * duration of the passed phase.
+     *
+     * @param phase the phase that just ended
+     */
+    public void endPhase(ParsePhase phase)
+    {
+        long now = System.nanoTime();
+        this.phaseDurations[phase.ordinal()] += now - this.lastMark;
+        this.lastMark = now;
+    }
+
+    /**
+     * @param phase the phase for which to return the duration
+     * @return the duration of the phase, in nanoseconds
+     */
+    public long getPhaseDuration(ParsePhase phase)
+    {
+        return this.phaseDurations[phase.ordinal()];
+    }
+
+    /**
+     * @return the total duration of all the phases, in nanoseconds
+     */
+    public long getTotalDuration()
+    {
+        long total = 0;
+        for (long duration : this.phaseDurations) {
+            total += duration;
+        }
+        return total;
+    }
+
+    /**
+     * @return the number of characters of the Markdown source
+     */
+    public long getInputLength()
+    {
+        return this.inputLength;
+    }
+
+    public void setInputLength(long inputLength)
+    {
+        this.inputLength = inputLength;
+    }
+
+    /**
+     * @return the number of nodes of the Flexmark AST
+     */
+    public long getNodeCount()
+    {
+        return this.nodeCount;
+    }
+
+    public void setNodeCount(long nodeCount)
+    {
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * @return the number of math expressions found in the source
+     */
+    public long getMathTokenCount()
+    {
+        return this.mathTokenCount;
+    }
+
+    public void setMathTokenCount(long mathTokenCount)
+    {
+        this.mathTokenCount = mathTokenCount;
+    }
+
+    /**
+     * @return the number of inline HTML nodes of the Flexmark AST
+     */
+    public long getInlineHTMLCount()
+    {
+        return this.inlineHTMLCount;
+    }
+
+    public void setInlineHTMLCount(long inlineHTMLCount)
+    {
+        this.inlineHTMLCount = inlineHTMLCount;
+    }
+
+    /**
+     * @return the number of macro events sent to the listener
+     */
+    public long getMacroCount()
+    {
+        return this.macroCount;
+    }
+
+    /**
+     * Increment the number of macro events sent to the listener.
+     */
+    public void incrementMacroCount()
+    {
+        this.macroCount++;
+    }
+
+    /**
+     * @return how the parse ended
+     */
+    public ParseOutcome getOutcome()
+    {
+        return this.outcome;
+    }
+
+    public void setOutcome(ParseOutcome outcome)
+    {
+        this.outcome = outcome;
+    }
+}
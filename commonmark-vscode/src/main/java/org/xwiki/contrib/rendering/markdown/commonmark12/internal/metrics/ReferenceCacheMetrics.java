@@ -0,0 +1,87 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the cache of parsed wiki link and wiki image references.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class ReferenceCacheMetrics implements ReferenceCacheMetricsMXBean
+{
+    private final int maxSize;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param maxSize the maximum number of references kept in the cache
+     */
+    public ReferenceCacheMetrics(int maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * A reference has been found in the cache.
+     */
+    public void hit()
+    {
+        this.hitCount.increment();
+    }
+
+    /**
+     * A reference had to be parsed.
+     */
+    public void miss()
+    {
+        this.missCount.increment();
+    }
+
+    @Override
+    public int getMaxSize()
+    {
+        return this.maxSize;
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return this.hitCount.sum();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return this.missCount.sum();
+    }
+
+    @Override
+    public double getHitRatio()
+    {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+/**
+ * Counters gathered while rendering a document to Markdown. Not thread safe, each renderer has its own instance.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class RenderStatistics
+{
+    private long outputLength;
+
+    private long tableCount;
+
+    private long escapeFlushCount;
+
+    /**
+     * Reset all counters, before rendering a new document.
+     */
+    public void reset()
+    {
+        this.outputLength = 0;
+        this.tableCount = 0;
+        this.escapeFlushCount = 0;
+    }
+
+    /**
+     * @return the number of characters sent to the output printer
+     */
+    public long getOutputLength()
+    {
+        return this.outputLength;
+    }
+
+    /**
+     * @param length the number of characters just sent to the output printer
+     */
+    public void addOutputLength(long length)
+    {
+        this.outputLength += length;
+    }
+
+    /**
+     * @return the number of rendered tables
+     */
+    public long getTableCount()
+    {
+        return this.tableCount;
+    }
+
+    /**
+     * Increment the number of rendered tables.
+     */
+    public void incrementTableCount()
+    {
+        this.tableCount++;
+    }
+
+    /**
+     * @return the number of times the escape printer had buffered text to escape
+     */
+    public long getEscapeFlushCount()
+    {
+        return this.escapeFlushCount;
+    }
+
+    /**
+     * Increment the number of times the escape printer had buffered text to escape.
+     */
+    public void incrementEscapeFlushCount()
+    {
+        this.escapeFlushCount++;
+    }
+}
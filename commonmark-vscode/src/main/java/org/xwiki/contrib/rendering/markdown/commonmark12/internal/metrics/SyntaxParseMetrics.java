@@ -0,0 +1,251 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative parse statistics of a given syntax.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class SyntaxParseMetrics implements ParseMetricsMXBean
+{
+    /**
+     * Duration buckets, in microseconds.
+     */
+    private static final long[] DURATION_BOUNDS =
+        { 10, 50, 100, 500, 1_000, 5_000, 10_000, 50_000, 100_000, 500_000, 1_000_000, 5_000_000 };
+
+    private static final long[] SIZE_BOUNDS = { 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000 };
+
+    private final LongAdder parseCount = new LongAdder();
+
+    private final Map<ParseOutcome, LongAdder> outcomeCounts = new EnumMap<>(ParseOutcome.class);
+
+    private final Map<ParsePhase, CumulativeHistogram> phaseDurations = new EnumMap<>(ParsePhase.class);
+
+    private final CumulativeHistogram totalDuration = new CumulativeHistogram(DURATION_BOUNDS);
+
+    private final CumulativeHistogram inputLength = new CumulativeHistogram(SIZE_BOUNDS);
+
+    private final CumulativeHistogram nodeCount = new CumulativeHistogram(SIZE_BOUNDS);
+
+    private final LongAdder mathTokenCount = new LongAdder();
+
+    private final LongAdder inlineHTMLCount = new LongAdder();
+
+    private final LongAdder macroCount = new LongAdder();
+
+    /**
+     * Visit count, inclusive and exclusive durations (in nanoseconds) of each node handler.
+     */
+    private final Map<String, LongAdder[]> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * Default constructor.
+     */
+    public SyntaxParseMetrics()
+    {
+        for (ParsePhase phase : ParsePhase.values()) {
+            this.phaseDurations.put(phase, new CumulativeHistogram(DURATION_BOUNDS));
+        }
+        for (ParseOutcome outcome : ParseOutcome.values()) {
+            this.outcomeCounts.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * @param statistics the statistics of a parse to add
+     */
+    public void add(ParseStatistics statistics)
+    {
+        this.parseCount.increment();
+        this.outcomeCounts.get(statistics.getOutcome()).increment();
+        for (ParsePhase phase : ParsePhase.values()) {
+            this.phaseDurations.get(phase).add(toMicros(statistics.getPhaseDuration(phase)));
+        }
+        this.totalDuration.add(toMicros(statistics.getTotalDuration()));
+        this.inputLength.add(statistics.getInputLength());
+        this.nodeCount.add(statistics.getNodeCount());
+        this.mathTokenCount.add(statistics.getMathTokenCount());
+        this.inlineHTMLCount.add(statistics.getInlineHTMLCount());
+        this.macroCount.add(statistics.getMacroCount());
+    }
+
+    /**
+     * @param profile the node handler profile of a parse to add
+     */
+    public void add(VisitProfile profile)
+    {
+        for (Map.Entry<String, VisitProfile.HandlerStatistics> entry : profile.getHandlers().entrySet()) {
+            LongAdder[] adders = this.handlers.computeIfAbsent(entry.getKey(),
+                key -> new LongAdder[] { new LongAdder(), new LongAdder(), new LongAdder() });
+            adders[0].add(entry.getValue().getVisitCount());
+            adders[1].add(entry.getValue().getInclusiveDuration());
+            adders[2].add(entry.getValue().getExclusiveDuration());
+        }
+    }
+
+    @Override
+    public long getParseCount()
+    {
+        return this.parseCount.sum();
+    }
+
+    @Override
+    public Map<String, Long> getOutcomeCounts()
+    {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<ParseOutcome, LongAdder> entry : this.outcomeCounts.entrySet()) {
+            result.put(entry.getKey().name(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    @Override
+    public long[] getDurationBucketBounds()
+    {
+        return DURATION_BOUNDS.clone();
+    }
+
+    @Override
+    public long[] getReadDurationHistogram()
+    {
+        return this.phaseDurations.get(ParsePhase.READ).getCumulativeCounts();
+    }
+
+    @Override
+    public long[] getMathDurationHistogram()
+    {
+        return this.phaseDurations.get(ParsePhase.MATH).getCumulativeCounts();
+    }
+
+    @Override
+    public long[] getFlexmarkDurationHistogram()
+    {
+        return this.phaseDurations.get(ParsePhase.FLEXMARK).getCumulativeCounts();
+    }
+
+    @Override
+    public long[] getVisitDurationHistogram()
+    {
+        return this.phaseDurations.get(ParsePhase.VISIT).getCumulativeCounts();
+    }
+
+    @Override
+    public long[] getTotalDurationHistogram()
+    {
+        return this.totalDuration.getCumulativeCounts();
+    }
+
+    @Override
+    public long getTotalDuration()
+    {
+        return this.totalDuration.getSum();
+    }
+
+    @Override
+    public long[] getSizeBucketBounds()
+    {
+        return SIZE_BOUNDS.clone();
+    }
+
+    @Override
+    public long[] getInputLengthHistogram()
+    {
+        return this.inputLength.getCumulativeCounts();
+    }
+
+    @Override
+    public long[] getNodeCountHistogram()
+    {
+        return this.nodeCount.getCumulativeCounts();
+    }
+
+    @Override
+    public long getInputLength()
+    {
+        return this.inputLength.getSum();
+    }
+
+    @Override
+    public long getNodeCount()
+    {
+        return this.nodeCount.getSum();
+    }
+
+    @Override
+    public long getMathTokenCount()
+    {
+        return this.mathTokenCount.sum();
+    }
+
+    @Override
+    public long getInlineHTMLCount()
+    {
+        return this.inlineHTMLCount.sum();
+    }
+
+    @Override
+    public long getMacroCount()
+    {
+        return this.macroCount.sum();
+    }
+
+    @Override
+    public Map<String, Long> getHandlerVisitCounts()
+    {
+        return getHandlerValues(0, false);
+    }
+
+    @Override
+    public Map<String, Long> getHandlerInclusiveDurations()
+    {
+        return getHandlerValues(1, true);
+    }
+
+    @Override
+    public Map<String, Long> getHandlerExclusiveDurations()
+    {
+        return getHandlerValues(2, true);
+    }
+
+    private Map<String, Long> getHandlerValues(int index, boolean duration)
+    {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, LongAdder[]> entry : this.handlers.entrySet()) {
+            long value = entry.getValue()[index].sum();
+            result.put(entry.getKey(), duration ? toMicros(value) : value);
+        }
+        return result;
+    }
+
+    private static long toMicros(long nanos)
+    {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
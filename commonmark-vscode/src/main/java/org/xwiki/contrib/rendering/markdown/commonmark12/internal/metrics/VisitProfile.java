@@ -0,0 +1,139 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Visit counts and durations of the Flexmark node handlers during a single parse. The inclusive time of a handler
+ * includes the time spent in the handlers it calls (e.g. a paragraph handler visiting text nodes) while the exclusive
+ * time doesn't. Not thread safe, a new instance is used for each parse.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class VisitProfile
+{
+    /**
+     * Statistics of a given handler.
+     */
+    public static final class HandlerStatistics
+    {
+        private long visitCount;
+
+        private long inclusiveDuration;
+
+        private long exclusiveDuration;
+
+        /**
+         * @return the number of nodes visited by the handler
+         */
+        public long getVisitCount()
+        {
+            return this.visitCount;
+        }
+
+        /**
+         * @return the time spent in the handler including nested handlers, in nanoseconds
+         */
+        public long getInclusiveDuration()
+        {
+            return this.inclusiveDuration;
+        }
+
+        /**
+         * @return the time spent in the handler excluding nested handlers, in nanoseconds
+         */
+        public long getExclusiveDuration()
+        {
+            return this.exclusiveDuration;
+        }
+    }
+
+    private final Map<String, HandlerStatistics> handlers = new LinkedHashMap<>();
+
+    /**
+     * Start times and nested handler durations of the handlers being executed, as pairs.
+     */
+    private long[] stack = new long[32];
+
+    private int depth;
+
+    /**
+     * Called when a handler starts visiting a node.
+     */
+    public void enter()
+    {
+        if (this.depth * 2 + 2 > this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, this.stack.length * 2);
+        }
+        this.stack[this.depth * 2] = System.nanoTime();
+        this.stack[this.depth * 2 + 1] = 0;
+        this.depth++;
+    }
+
+    /**
+     * Called when a handler is done visiting a node.
+     *
+     * @param handler the name of the handler
+     */
+    public void exit(String handler)
+    {
+        this.depth--;
+        long elapsed = System.nanoTime() - this.stack[this.depth * 2];
+        long nested = this.stack[this.depth * 2 + 1];
+        if (this.depth > 0) {
+            this.stack[this.depth * 2 - 1] += elapsed;
+        }
+
+        HandlerStatistics statistics = this.handlers.computeIfAbsent(handler, key -> new HandlerStatistics());
+        statistics.visitCount++;
+        statistics.inclusiveDuration += elapsed;
+        statistics.exclusiveDuration += elapsed - nested;
+    }
+
+    /**
+     * @return the statistics of each handler, indexed by handler name
+     */
+    public Map<String, HandlerStatistics> getHandlers()
+    {
+        return Collections.unmodifiableMap(this.handlers);
+    }
+
+    /**
+     * @return a human readable table of the handler statistics, sorted by decreasing exclusive time
+     */
+    public String toSummary()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-30s %10s %15s %15s%n", "Handler", "Visits", "Inclusive (us)",
+            "Exclusive (us)"));
+        this.handlers.entrySet().stream()
+            .sorted((a, b) -> Long.compare(b.getValue().exclusiveDuration, a.getValue().exclusiveDuration))
+            .forEach(entry -> builder.append(String.format("%-30s %10d %15d %15d%n", entry.getKey(),
+                entry.getValue().visitCount, TimeUnit.NANOSECONDS.toMicros(entry.getValue().inclusiveDuration),
+                TimeUnit.NANOSECONDS.toMicros(entry.getValue().exclusiveDuration))));
+        return builder.toString();
+    }
+}
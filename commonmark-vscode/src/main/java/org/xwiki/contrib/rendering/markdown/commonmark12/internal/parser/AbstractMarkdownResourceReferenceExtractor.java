@@ -0,0 +1,78 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.io.Reader;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.apache.commons.io.IOUtils;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.ExtensionProfile;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfigurationSnapshots;
+import org.xwiki.rendering.parser.ParseException;
+
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Node;
+
+/**
+ * Base class for the {@link ResourceReferenceExtractor} of the various Markdown flavors. The content goes through the
+ * same math preprocessing as with the stream parser and is parsed with the {@link ExtensionProfile#LINKS} profile, which
+ * skips the extensions that can't produce links or images (tables, definitions, abbreviations). Only the link and image
+ * nodes of the resulting AST are looked at.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public abstract class AbstractMarkdownResourceReferenceExtractor implements ResourceReferenceExtractor
+{
+    @Inject
+    private MarkdownConfigurationSnapshots configurationSnapshots;
+
+    @Inject
+    private ResourceReferenceCache referenceCache;
+
+    @Override
+    public List<ExtractedResourceReference> extract(Reader source) throws ParseException
+    {
+        Parser parser = getConfigurationSnapshots().getCurrent().getParser(ExtensionProfile.LINKS);
+        String rawContent;
+        try {
+            rawContent = IOUtils.toString(source);
+        } catch (Exception e) {
+            throw new ParseException("Failed to read Markdown content", e);
+        }
+
+        MathContentPlaceholderProcessor.Result preprocessed =
+            MathContentPlaceholderProcessor.preprocess(rawContent);
+
+        try {
+            Node document = parser.parse(preprocessed.getContent());
+            return new ResourceReferenceCollector(this.referenceCache, preprocessed).collect(document);
+        } catch (Exception e) {
+            throw new ParseException("Failed to extract references from Markdown content", e);
+        }
+    }
+
+    protected MarkdownConfigurationSnapshots getConfigurationSnapshots()
+    {
+        return this.configurationSnapshots;
+    }
+}
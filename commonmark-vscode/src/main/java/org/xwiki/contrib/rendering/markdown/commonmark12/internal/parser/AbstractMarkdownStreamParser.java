@@ -19,20 +19,32 @@
  */
 package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
 
+import java.io.IOException;
 import java.io.Reader;
+import java.util.Collections;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
 
 import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.ExtensionProfile;
 import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfigurationSnapshot;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfigurationSnapshots;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.MacroCountingListener;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.MarkdownMetrics;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.MarkdownParseEvent;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.ParseOutcome;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.ParsePhase;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.ParseStatistics;
 import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.MetaData;
 import org.xwiki.rendering.parser.ParseException;
-import org.xwiki.rendering.parser.StreamParser;
 
+import com.vladsch.flexmark.ast.HtmlInline;
 import com.vladsch.flexmark.parser.Parser;
 import com.vladsch.flexmark.util.ast.Node;
-import com.vladsch.flexmark.util.data.MutableDataHolder;
 
 /**
  * Base class for Markdown Streaming Parsers for the various Markdown flavors. Implemented using the
@@ -41,33 +53,161 @@ import com.vladsch.flexmark.util.data.MutableDataHolder;
  * @version $Id$
  * @since 8.4
  */
-public abstract class AbstractMarkdownStreamParser implements StreamParser
+public abstract class AbstractMarkdownStreamParser implements ProfiledStreamParser
 {
+    private static final int READ_BUFFER_SIZE = 8192;
+
     @Inject
     private Provider<FlexmarkNodeVisitor> visitorProvider;
 
     @Inject
     private MarkdownConfiguration configuration;
 
+    /**
+     * Only used when word interning is enabled.
+     */
+    @Inject
+    private Provider<WordInterner> wordInternerProvider;
+
+    @Inject
+    private MarkdownConfigurationSnapshots configurationSnapshots;
+
+    @Inject
+    private MarkdownMetrics metrics;
+
+    @Inject
+    private Logger logger;
+
     @Override
     public void parse(Reader source, Listener listener) throws ParseException
     {
-        MutableDataHolder options = getConfiguration().getOptions();
-        Parser parser = Parser.builder(options).build();
-        String rawContent;
+        parse(source, listener, new ParseCancellationToken());
+    }
+
+    @Override
+    public void parse(Reader source, Listener listener, ParseCancellationToken cancellationToken)
+        throws ParseException
+    {
+        parse(source, listener, ExtensionProfile.FULL, cancellationToken);
+    }
+
+    @Override
+    public void parse(Reader source, Listener listener, ExtensionProfile profile,
+        ParseCancellationToken cancellationToken) throws ParseException
+    {
+        parse(source, document -> listener, profile, cancellationToken);
+    }
+
+    @Override
+    public void parse(Reader source, ListenerSelector listenerSelector, ExtensionProfile profile,
+        ParseCancellationToken cancellationToken) throws ParseException
+    {
+        // Only gather statistics when someone is interested in them.
+        MarkdownParseEvent event = new MarkdownParseEvent();
+        event.begin();
+        boolean metricsEnabled = this.metrics.isEnabled();
+        ParseStatistics statistics = metricsEnabled || event.isEnabled() ? new ParseStatistics() : null;
+        MarkdownConfigurationSnapshot configurationSnapshot = this.configurationSnapshots.getCurrent();
+        ParseBudget budget = new ParseBudget(configurationSnapshot, cancellationToken);
+
+        // Record the failed parses too, they are often the slowest ones.
+        ParseOutcome outcome = ParseOutcome.FAILED;
         try {
-            rawContent = IOUtils.toString(source);
-        } catch (Exception e) {
-            throw new ParseException("Failed to read Markdown content", e);
+            parse(source, listenerSelector, configurationSnapshot.getParser(profile), configurationSnapshot, budget,
+                statistics);
+            outcome = budget.isExceeded() || budget.getTruncation() != null ? ParseOutcome.DEGRADED
+                : ParseOutcome.SUCCEEDED;
+        } catch (ParseAbortedException e) {
+            outcome = ParseOutcome.ABORTED;
+            throw e;
+        } finally {
+            if (statistics != null) {
+                statistics.setOutcome(outcome);
+                if (metricsEnabled) {
+                    this.metrics.record(getSyntax(), statistics);
+                }
+                if (event.shouldCommit()) {
+                    event.syntax = getSyntax().toIdString();
+                    event.wiki = configurationSnapshot.getWikiId();
+                    event.setStatistics(statistics);
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    private void parse(Reader source, ListenerSelector listenerSelector, Parser parser,
+        MarkdownConfigurationSnapshot configurationSnapshot, ParseBudget budget, ParseStatistics statistics)
+        throws ParseException
+    {
+        String rawContent = read(source, budget.getMaxInputLength());
+        if (statistics != null) {
+            statistics.endPhase(ParsePhase.READ);
+            statistics.setInputLength(rawContent.length());
+        }
+        budget.checkInputLength(rawContent.length());
+        budget.check();
+        if (budget.isExceeded()) {
+            // The whole content is emitted, including the part that wasn't read.
+            emitVerbatim(rawContent + read(source, 0), listenerSelector.select(null), budget);
+            return;
         }
 
+        // Reject the content too deep before Flexmark builds its AST.
+        int parsedLength = budget.checkSource(rawContent);
         MathContentPlaceholderProcessor.Result preprocessed =
-            MathContentPlaceholderProcessor.preprocess(rawContent);
-        MathContentPlaceholderProcessor.pushTokens(preprocessed.getTokens());
+            MathContentPlaceholderProcessor.preprocess(rawContent.substring(0, parsedLength));
+        if (statistics != null) {
+            statistics.endPhase(ParsePhase.MATH);
+        }
+        budget.checkMathTokens(preprocessed.getTokens().size());
+        budget.check();
+        if (budget.isExceeded()) {
+            emitVerbatim(rawContent, listenerSelector.select(null), budget);
+            return;
+        }
+        budget.setSource(rawContent, preprocessed);
+        int releaseThreshold = configurationSnapshot.getReleaseVisitedBlocksThreshold();
+        boolean releaseVisitedBlocks = releaseThreshold > 0 && preprocessed.getContent().length() >= releaseThreshold;
+        // When releasing the visited blocks, the math expressions are also released as they are converted.
+        MathContentPlaceholderProcessor.pushTokens(preprocessed.getTokens(), !releaseVisitedBlocks);
 
         try {
             Node document = parser.parse(preprocessed.getContent());
-            this.visitorProvider.get().visit(document, listener, getSyntax());
+            if (statistics != null) {
+                statistics.endPhase(ParsePhase.FLEXMARK);
+            }
+            // Don't walk the AST of a parsing that already took too long.
+            budget.check();
+            budget.checkDocument(document);
+            budget.check();
+            Listener targetListener = listenerSelector.select(document);
+            if (configurationSnapshot.isWordInterningEnabled()) {
+                targetListener = new WordInterningListener(targetListener, this.wordInternerProvider.get());
+            }
+            if (configurationSnapshot.isSourceHashingEnabled()) {
+                // Hash before the visit since the visited blocks can be released.
+                targetListener = new SourceHashingListener(targetListener,
+                    SourceHashes.compute(rawContent, preprocessed, document));
+            }
+            if (statistics != null) {
+                if (releaseVisitedBlocks) {
+                    // The document won't be complete anymore after the visit.
+                    computeSizes(statistics, preprocessed, document);
+                }
+                targetListener = new MacroCountingListener(targetListener, statistics);
+            }
+            this.visitorProvider.get().visit(document, targetListener, getSyntax(), budget, releaseVisitedBlocks);
+            if (statistics != null) {
+                statistics.endPhase(ParsePhase.VISIT);
+                if (!releaseVisitedBlocks) {
+                    computeSizes(statistics, preprocessed, document);
+                }
+            }
+        } catch (ParseAbortedException e) {
+            throw e;
+        } catch (ParseBudget.AbortSignal e) {
+            throw e.getAbortCause();
         } catch (Exception e) {
             throw new ParseException("Failed to parse Markdown content", e);
         } finally {
@@ -75,6 +215,64 @@ public abstract class AbstractMarkdownStreamParser implements StreamParser
         }
     }
 
+    /**
+     * @param source the content to read
+     * @param maxLength the maximum length of the content, 0 for no limit
+     * @return the content, or its first {@code maxLength + 1} characters so that a content too long is rejected
+     *         without reading all of it
+     */
+    private String read(Reader source, int maxLength) throws ParseException
+    {
+        try {
+            if (maxLength <= 0) {
+                return IOUtils.toString(source);
+            }
+
+            StringBuilder content = new StringBuilder();
+            char[] buffer = new char[READ_BUFFER_SIZE];
+            long remaining = maxLength + 1L;
+            while (remaining > 0) {
+                int count = source.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (count < 0) {
+                    break;
+                }
+                content.append(buffer, 0, count);
+                remaining -= count;
+            }
+            return content.toString();
+        } catch (IOException e) {
+            throw new ParseException("Failed to read Markdown content", e);
+        }
+    }
+
+    /**
+     * Degraded mode: the whole content exceeds a limit, so it's not converted at all.
+     */
+    private void emitVerbatim(String rawContent, Listener listener, ParseBudget budget)
+    {
+        this.logger.warn("Markdown content emitted as verbatim text: [{}]", budget.getExceeded().getMessage());
+        MetaData metaData = new MetaData(Collections.singletonMap(MetaData.SYNTAX, getSyntax()));
+        listener.beginDocument(metaData);
+        listener.onVerbatim(rawContent, false, Collections.emptyMap());
+        listener.endDocument(metaData);
+    }
+
+    private void computeSizes(ParseStatistics statistics, MathContentPlaceholderProcessor.Result preprocessed,
+        Node document)
+    {
+        statistics.setMathTokenCount(preprocessed.getTokens().size());
+        long nodeCount = 1;
+        long inlineHTMLCount = 0;
+        for (Node node : document.getDescendants()) {
+            nodeCount++;
+            if (node instanceof HtmlInline) {
+                inlineHTMLCount++;
+            }
+        }
+        statistics.setNodeCount(nodeCount);
+        statistics.setInlineHTMLCount(inlineHTMLCount);
+    }
+
     protected MarkdownConfiguration getConfiguration()
     {
         return this.configuration;
@@ -19,14 +19,14 @@
  */
 package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
 
-import java.io.StringReader;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.Map;
 
+import org.apache.commons.io.input.CharSequenceReader;
 import org.apache.commons.lang3.StringUtils;
-import org.xwiki.rendering.listener.InlineFilterListener;
 import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.MetaData;
 import org.xwiki.rendering.listener.WrappingListener;
 import org.xwiki.rendering.parser.ParseException;
 import org.xwiki.rendering.parser.StreamParser;
@@ -37,6 +37,7 @@ import org.xwiki.rendering.renderer.printer.WikiPrinter;
 import com.vladsch.flexmark.ast.util.ReferenceRepository;
 import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.ast.NodeVisitor;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
 
 public abstract class AbstractNodeVisitor
 {
@@ -55,6 +56,11 @@ public abstract class AbstractNodeVisitor
 
     private StreamParser plainTextStreamParser;
 
+    /**
+     * Reused for each inline text parsed by this visitor.
+     */
+    private final InlineListener inlineListener = new InlineListener();
+
     public AbstractNodeVisitor(NodeVisitor visitor, Deque<Listener> listeners)
     {
         this(visitor, listeners, null);
@@ -133,19 +139,37 @@ public abstract class AbstractNodeVisitor
     /**
      * @param text the text to parse and for which to return XWiki events
      */
-    protected void parseInline(String text)
+    protected void parseInline(CharSequence text)
     {
         try {
-            MathInlineListener mathListener = new MathInlineListener(getListener());
-            WrappingListener inlineListener = new InlineFilterListener();
-            inlineListener.setWrappedListener(mathListener);
-            this.plainTextStreamParser.parse(new StringReader(text), inlineListener);
-            mathListener.flush();
+            this.inlineListener.setWrappedListener(getListener());
+            // Read the characters directly from the Markdown source, without copying them.
+            this.plainTextStreamParser.parse(new CharSequenceReader(text), this.inlineListener);
+            this.inlineListener.flush();
         } catch (ParseException e) {
             throw new RuntimeException(String.format("Error parsing content [%s]", text), e);
         }
     }
 
+    /**
+     * Same as {@link String#trim()}, without copying the characters.
+     *
+     * @param chars the characters to trim
+     * @return the characters without the leading and trailing whitespaces and control characters
+     */
+    protected static BasedSequence trim(BasedSequence chars)
+    {
+        int start = 0;
+        int end = chars.length();
+        while (start < end && chars.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && chars.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return chars.subSequence(start, end);
+    }
+
     protected void generateHTMLMacro(String html, boolean inline)
     {
         // We output a HTML macro (and not Raw events) in order to benefit from the security features of that Macro.
@@ -155,13 +179,36 @@ public abstract class AbstractNodeVisitor
     }
 
 
-    private static final class MathInlineListener extends WrappingListener
+    /**
+     * Keeps only the inline events of the plain text parser, like {@code InlineFilterListener}, and merges the words
+     * separated by {@code ~} and {@code ^} (which are common in math expressions) in a single word event.
+     */
+    private static final class InlineListener extends WrappingListener
     {
         private final StringBuilder buffer = new StringBuilder();
 
-        MathInlineListener(Listener listener)
+        @Override
+        public void beginDocument(MetaData metadata)
+        {
+            // Ignore
+        }
+
+        @Override
+        public void endDocument(MetaData metadata)
+        {
+            // Ignore
+        }
+
+        @Override
+        public void beginParagraph(Map<String, String> parameters)
+        {
+            // Ignore: the plain text parser generates a single paragraph around the whole text.
+        }
+
+        @Override
+        public void endParagraph(Map<String, String> parameters)
         {
-            setWrappedListener(listener);
+            // Ignore
         }
 
         void flush()
@@ -0,0 +1,62 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.io.Reader;
+import java.util.concurrent.CompletableFuture;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.syntax.Syntax;
+
+/**
+ * Parses Markdown content on a dedicated bounded executor, so that callers such as request threads don't block on
+ * large contents.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Role
+public interface AsyncMarkdownParser
+{
+    /**
+     * @return the parsed syntax
+     */
+    Syntax getSyntax();
+
+    /**
+     * @param source the content to parse, it must remain readable until the returned future completes
+     * @return the result of the parsing. It completes exceptionally with a
+     *         {@link java.util.concurrent.RejectedExecutionException} when too many parsings are already waiting, and
+     *         with a {@link org.xwiki.rendering.parser.ParseException} when the content can't be parsed. Cancelling it
+     *         stops the parsing.
+     */
+    default CompletableFuture<XDOM> parseAsync(Reader source)
+    {
+        return parseAsync(source, new ParseCancellationToken());
+    }
+
+    /**
+     * @param source the content to parse, it must remain readable until the returned future completes
+     * @param cancellationToken cancel it, or the returned future, to stop the parsing
+     * @return the result of the parsing, see {@link #parseAsync(Reader)}
+     */
+    CompletableFuture<XDOM> parseAsync(Reader source, ParseCancellationToken cancellationToken);
+}
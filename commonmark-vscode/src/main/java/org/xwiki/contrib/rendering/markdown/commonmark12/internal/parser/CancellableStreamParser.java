@@ -0,0 +1,46 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.io.Reader;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.StreamParser;
+
+/**
+ * A {@link StreamParser} that can be stopped while it's running.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Role
+public interface CancellableStreamParser extends StreamParser
+{
+    /**
+     * @param source the content to parse
+     * @param listener receives the events generated from the content
+     * @param cancellationToken cancel it to stop the parsing
+     * @throws ParseException if the content can't be parsed, a {@link ParseAbortedException} if the parsing has been
+     *             cancelled or the content exceeds a configured limit
+     */
+    void parse(Reader source, Listener listener, ParseCancellationToken cancellationToken) throws ParseException;
+}
@@ -76,7 +76,7 @@ public class CodeNodeVisitor extends AbstractNodeVisitor
         }
 
         // Flexmark puts trailing newline in the HTML block so we need to remove it.
-        String content = node.getContentChars().toString().trim();
+        String content = trim(node.getContentChars()).toString();
         getListener().onMacro(CODE_MACRO_ID, parameters, content, false);
     }
 
@@ -22,18 +22,22 @@ package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
 import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.function.BiConsumer;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
 import org.xwiki.component.manager.ComponentManager;
-import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfigurationSnapshot;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfigurationSnapshots;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.MarkdownMetrics;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.VisitProfile;
 import org.xwiki.rendering.listener.Listener;
 import org.xwiki.rendering.listener.MetaData;
-import org.xwiki.rendering.parser.ResourceReferenceParser;
 import org.xwiki.rendering.parser.StreamParser;
 import org.xwiki.rendering.renderer.PrintRendererFactory;
 import org.xwiki.rendering.syntax.Syntax;
@@ -46,11 +50,14 @@ import com.vladsch.flexmark.util.ast.Document;
 import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.ast.NodeVisitor;
 import com.vladsch.flexmark.util.ast.VisitHandler;
+import com.vladsch.flexmark.util.ast.Visitor;
 
 @Component
 @InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
 public class DefaultFlexmarkNodeVisitor implements FlexmarkNodeVisitor
 {
+    private static final String VERBATIM_MESSAGE = "Part of the Markdown content emitted as verbatim text: [{}]";
+
     /**
      * A plain text parser used to convert Flexmark's Text node elements to various Block elements since Text node's
      * values contain several words and special characters which we thus need to break down into individual tokens.
@@ -60,18 +67,10 @@ public class DefaultFlexmarkNodeVisitor implements FlexmarkNodeVisitor
     private StreamParser plainTextStreamParser;
 
     /**
-     * We parse image references with the default reference parser (i.e. the same one used by XWiki Syntax 2.1).
-     */
-    @Inject
-    @Named("image")
-    private ResourceReferenceParser imageResourceReferenceParser;
-
-    /**
-     * We parse link references with the default reference parser (i.e. the same one used by XWiki Syntax 2.1).
+     * Parses wiki link and image references, reusing the result for references already seen.
      */
     @Inject
-    @Named("link")
-    private ResourceReferenceParser linkResourceReferenceParser;
+    private ResourceReferenceCache referenceCache;
 
     /**
      * Used to extract text from nodes.
@@ -87,7 +86,13 @@ public class DefaultFlexmarkNodeVisitor implements FlexmarkNodeVisitor
     private ComponentManager componentManager;
 
     @Inject
-    private MarkdownConfiguration configuration;
+    private MarkdownConfigurationSnapshots configurationSnapshots;
+
+    @Inject
+    private MarkdownMetrics metrics;
+
+    @Inject
+    private Logger logger;
 
     /**
      * Handle Document nodes.
@@ -114,78 +119,148 @@ public class DefaultFlexmarkNodeVisitor implements FlexmarkNodeVisitor
 
     private LinkNodeVisitor linkNodeVisitor;
 
+    private ParseBudget budget;
+
+    private boolean releaseVisitedBlocks;
+
+    /**
+     * Only set when visit profiling is enabled.
+     */
+    private VisitProfile profile;
+
     public void visit(Node node, Listener listener, Syntax syntax)
     {
-        SectionListener sectionListener = new SectionListener();
-        sectionListener.setWrappedListener(listener);
-        this.listeners.push(sectionListener);
+        visit(node, listener, syntax, new ParseBudget());
+    }
+
+    @Override
+    public void visit(Node node, Listener listener, Syntax syntax, ParseBudget budget)
+    {
+        visit(node, listener, syntax, budget, false);
+    }
+
+    @Override
+    public void visit(Node node, Listener listener, Syntax syntax, ParseBudget budget, boolean releaseVisitedBlocks)
+    {
+        this.budget = budget;
+        this.releaseVisitedBlocks = releaseVisitedBlocks;
+
+        // A single listener handles sections, quotation lines and paragraphs in list items, so that the events don't
+        // go through a wrapping listener per nested element.
+        StructureListener structureListener = new StructureListener();
+        structureListener.setWrappedListener(listener);
+        this.listeners.push(structureListener);
 
         MetaData metaData = new MetaData(Collections.singletonMap(MetaData.SYNTAX, syntax));
         getListener().beginDocument(metaData);
 
         // Handle nodes not handled by a specific visitor
-        this.visitor = new NodeVisitor(VISIT_HANDLERS(this));
+        this.visitor = new NodeVisitor()
+        {
+            @Override
+            protected void processNode(Node child, boolean withChildren, BiConsumer<Node, Visitor<Node>> processor)
+            {
+                DefaultFlexmarkNodeVisitor.this.budget.checkpoint();
+                super.processNode(child, withChildren, processor);
+            }
+        };
+        MarkdownConfigurationSnapshot snapshot = this.configurationSnapshots.getCurrent();
+        this.profile = snapshot.isVisitProfilingEnabled() ? new VisitProfile() : null;
+        addHandlers(VISIT_HANDLERS(this), this);
 
         // Handle Text nodes
         TextNodeVisitor textNodeVisitor = new TextNodeVisitor(this.visitor, this.listeners, this.plainTextStreamParser,
-            this.configuration);
-        this.visitor.addHandlers(TextNodeVisitor.VISIT_HANDLERS(textNodeVisitor));
+            snapshot);
+        addHandlers(TextNodeVisitor.VISIT_HANDLERS(textNodeVisitor), textNodeVisitor);
 
         // Handle Emphasis nodes
         EmphasisNodeVisitor emphasisNodeVisitor = new EmphasisNodeVisitor(this.visitor, this.listeners);
-        this.visitor.addHandlers(EmphasisNodeVisitor.VISIT_HANDLERS(emphasisNodeVisitor));
+        addHandlers(EmphasisNodeVisitor.VISIT_HANDLERS(emphasisNodeVisitor), emphasisNodeVisitor);
 
         // Handle Paragraph nodes
         ParagraphNodeVisitor paragraphNodeVisitor = new ParagraphNodeVisitor(this.visitor, this.listeners,
-            this.configuration, this.plainTextStreamParser);
-        this.visitor.addHandlers(ParagraphNodeVisitor.VISIT_HANDLERS(paragraphNodeVisitor));
+            snapshot, this.plainTextStreamParser);
+        addHandlers(ParagraphNodeVisitor.VISIT_HANDLERS(paragraphNodeVisitor), paragraphNodeVisitor);
 
         // Handle Image nodes
-        this.imageNodeVisitor = new ImageNodeVisitor(this.visitor, this.listeners, this.imageResourceReferenceParser,
+        this.imageNodeVisitor = new ImageNodeVisitor(this.visitor, this.listeners, this.referenceCache,
             this.componentManager, this.plainRendererFactory);
-        this.visitor.addHandlers(ImageNodeVisitor.VISIT_HANDLERS(this.imageNodeVisitor));
+        addHandlers(ImageNodeVisitor.VISIT_HANDLERS(this.imageNodeVisitor), this.imageNodeVisitor);
 
         // Handle Link nodes
-        this.linkNodeVisitor = new LinkNodeVisitor(this.visitor, this.listeners, this.linkResourceReferenceParser,
+        this.linkNodeVisitor = new LinkNodeVisitor(this.visitor, this.listeners, this.referenceCache,
             this.plainTextStreamParser);
-        this.visitor.addHandlers(LinkNodeVisitor.VISIT_HANDLERS(this.linkNodeVisitor));
+        addHandlers(LinkNodeVisitor.VISIT_HANDLERS(this.linkNodeVisitor), this.linkNodeVisitor);
 
         // Handle list nodes
-        ListNodeVisitor listNodeVisitor = new ListNodeVisitor(this.visitor, this.listeners);
-        this.visitor.addHandlers(ListNodeVisitor.VISIT_HANDLERS(listNodeVisitor));
+        ListNodeVisitor listNodeVisitor = new ListNodeVisitor(this.visitor, this.listeners, structureListener);
+        addHandlers(ListNodeVisitor.VISIT_HANDLERS(listNodeVisitor), listNodeVisitor);
 
         // Handle quote nodes
-        QuoteNodeVisitor quoteNodeVisitor = new QuoteNodeVisitor(this.visitor, this.listeners);
-        this.visitor.addHandlers(QuoteNodeVisitor.VISIT_HANDLERS(quoteNodeVisitor));
+        QuoteNodeVisitor quoteNodeVisitor = new QuoteNodeVisitor(this.visitor, this.listeners, structureListener);
+        addHandlers(QuoteNodeVisitor.VISIT_HANDLERS(quoteNodeVisitor), quoteNodeVisitor);
 
         // Handle Heading nodes
         HeadingNodeVisitor headingNodeVisitor = new HeadingNodeVisitor(this.visitor, this.listeners,
             this.plainRendererFactory);
-        this.visitor.addHandlers(HeadingNodeVisitor.VISIT_HANDLERS(headingNodeVisitor));
+        addHandlers(HeadingNodeVisitor.VISIT_HANDLERS(headingNodeVisitor), headingNodeVisitor);
 
         // Handle Table nodes
         TableNodeVisitor tableNodeVisitor = new TableNodeVisitor(this.visitor, this.listeners,
             this.plainRendererFactory);
-        this.visitor.addHandlers(TableNodeVisitor.VISIT_HANDLERS(tableNodeVisitor));
+        addHandlers(TableNodeVisitor.VISIT_HANDLERS(tableNodeVisitor), tableNodeVisitor);
 
         // Handle HTML nodes
         HTMLNodeVisitor htmlNodeVisitor = new HTMLNodeVisitor(this.visitor, this.listeners);
-        this.visitor.addHandlers(HTMLNodeVisitor.VISIT_HANDLERS(htmlNodeVisitor));
+        addHandlers(HTMLNodeVisitor.VISIT_HANDLERS(htmlNodeVisitor), htmlNodeVisitor);
 
         // Handle Code nodes
         CodeNodeVisitor codeNodeVisitor = new CodeNodeVisitor(this.visitor, this.listeners);
-        this.visitor.addHandlers(CodeNodeVisitor.VISIT_HANDLERS(codeNodeVisitor));
+        addHandlers(CodeNodeVisitor.VISIT_HANDLERS(codeNodeVisitor), codeNodeVisitor);
 
         // Handle Abbreviation nodes
         AbbreviationNodeVisitor abbreviationNodeVisitor = new AbbreviationNodeVisitor(this.visitor, this.listeners);
-        this.visitor.addHandlers(AbbreviationNodeVisitor.VISIT_HANDLERS(abbreviationNodeVisitor));
+        addHandlers(AbbreviationNodeVisitor.VISIT_HANDLERS(abbreviationNodeVisitor), abbreviationNodeVisitor);
 
         // Handle Macro nodes
         MacroNodeVisitor macroNodeVisitor = new MacroNodeVisitor(this.visitor, this.listeners);
-        this.visitor.addHandlers(MacroNodeVisitor.VISIT_HANDLERS(macroNodeVisitor));
+        addHandlers(MacroNodeVisitor.VISIT_HANDLERS(macroNodeVisitor), macroNodeVisitor);
 
         this.visitor.visit(node);
         getListener().endDocument(metaData);
+
+        if (this.profile != null) {
+            this.logger.debug("Visit profile for syntax [{}]:\n{}", syntax, this.profile.toSummary());
+            this.metrics.record(syntax, this.profile);
+        }
+    }
+
+    private void addHandlers(VisitHandler<?>[] handlers, Object handlerVisitor)
+    {
+        if (this.profile == null) {
+            this.visitor.addHandlers(handlers);
+        } else {
+            // Wrap the handlers to measure the time spent in each of them.
+            String name = handlerVisitor.getClass().getSimpleName();
+            VisitHandler<?>[] profiledHandlers = new VisitHandler<?>[handlers.length];
+            for (int i = 0; i < handlers.length; i++) {
+                profiledHandlers[i] = createProfiledHandler(handlers[i], name);
+            }
+            this.visitor.addHandlers(profiledHandlers);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private VisitHandler<Node> createProfiledHandler(VisitHandler<?> handler, String name)
+    {
+        return new VisitHandler<>((Class<Node>) handler.getNodeType(), node -> {
+            this.profile.enter();
+            try {
+                handler.visit(node);
+            } finally {
+                this.profile.exit(name);
+            }
+        });
     }
 
     public void visit(SoftLineBreak node)
@@ -203,7 +278,34 @@ public class DefaultFlexmarkNodeVisitor implements FlexmarkNodeVisitor
     {
         this.imageNodeVisitor.setReferenceRepository(Parser.REFERENCES.get(node));
         this.linkNodeVisitor.setReferenceRepository(Parser.REFERENCES.get(node));
-        this.visitor.visitChildren(node);
+
+        // Visit the top-level blocks one by one so that, in degraded mode, the content can be emitted as verbatim text
+        // from the block exceeding the limits.
+        Node cutoff = this.budget.getCutoff();
+        Node child = node.getFirstChild();
+        while (child != null) {
+            // Like NodeVisitor#visitChildren(), get the next node first in case the visited one is removed.
+            Node next = child.getNext();
+            this.budget.checkNow();
+            if (this.budget.isExceeded() && (cutoff == null || child == cutoff)) {
+                this.logger.warn(VERBATIM_MESSAGE, this.budget.getExceeded().getMessage());
+                getListener().onVerbatim(this.budget.getSourceFrom(child), false, Collections.emptyMap());
+                return;
+            }
+            this.visitor.visit(child);
+            if (this.releaseVisitedBlocks) {
+                // Only the blocks left to visit (and the reference repository) stay reachable.
+                child.unlink();
+            }
+            child = next;
+        }
+
+        // The end of the source that wasn't parsed because it exceeds the limits.
+        String truncatedSource = this.budget.getTruncatedSource();
+        if (truncatedSource != null) {
+            this.logger.warn(VERBATIM_MESSAGE, this.budget.getTruncation().getMessage());
+            getListener().onVerbatim(truncatedSource, false, Collections.emptyMap());
+        }
     }
 
     public void visit(ThematicBreak node)
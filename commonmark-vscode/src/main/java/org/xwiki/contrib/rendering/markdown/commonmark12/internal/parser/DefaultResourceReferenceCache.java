@@ -0,0 +1,204 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.MarkdownMetrics;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.ReferenceCacheMetrics;
+import org.xwiki.rendering.listener.reference.DocumentResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.parser.ResourceReferenceParser;
+import org.xwiki.rendering.wikimodel.WikiParameter;
+import org.xwiki.rendering.wikimodel.impl.WikiScannerUtil;
+
+/**
+ * Bounded LRU implementation of {@link ResourceReferenceCache}. The cached references are never handed out: callers
+ * always get a clone since listeners are allowed to modify the references they receive. The hit and miss counts are
+ * published through {@link MarkdownMetrics} when the metrics are enabled.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Component
+@Singleton
+public class DefaultResourceReferenceCache implements ResourceReferenceCache, Initializable, Disposable
+{
+    /**
+     * We parse image references with the default reference parser (i.e. the same one used by XWiki Syntax 2.1).
+     */
+    @Inject
+    @Named("image")
+    private ResourceReferenceParser imageResourceReferenceParser;
+
+    /**
+     * We parse link references with the default reference parser (i.e. the same one used by XWiki Syntax 2.1).
+     */
+    @Inject
+    @Named("link")
+    private ResourceReferenceParser linkResourceReferenceParser;
+
+    @Inject
+    private MarkdownConfiguration configuration;
+
+    @Inject
+    private MarkdownMetrics metrics;
+
+    private Map<String, ResourceReference> linkReferences;
+
+    private Map<String, ResourceReference> imageReferences;
+
+    private ReferenceCacheMetrics cacheMetrics;
+
+    @Override
+    public void initialize()
+    {
+        int size = this.configuration.getReferenceCacheSize();
+        this.linkReferences = createCache(size);
+        this.imageReferences = createCache(size);
+
+        this.cacheMetrics = new ReferenceCacheMetrics(Math.max(0, size));
+        if (this.metrics.isEnabled()) {
+            this.metrics.register(this.cacheMetrics);
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.metrics.unregister(this.cacheMetrics);
+    }
+
+    @Override
+    public ResourceReference getLinkReference(String rawReference)
+    {
+        return get(this.linkReferences, rawReference, this::parseLinkReference);
+    }
+
+    @Override
+    public ResourceReference getImageReference(String rawReference)
+    {
+        return get(this.imageReferences, rawReference, this.imageResourceReferenceParser::parse);
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return this.cacheMetrics.getHitCount();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return this.cacheMetrics.getMissCount();
+    }
+
+    private ResourceReference get(Map<String, ResourceReference> cache, String rawReference,
+        Function<String, ResourceReference> parser)
+    {
+        if (cache == null) {
+            this.cacheMetrics.miss();
+            return parser.apply(rawReference);
+        }
+
+        ResourceReference reference;
+        synchronized (cache) {
+            reference = cache.get(rawReference);
+        }
+        if (reference == null) {
+            this.cacheMetrics.miss();
+            // Parse outside of the lock, two threads parsing the same reference at the same time is harmless.
+            reference = parser.apply(rawReference);
+            synchronized (cache) {
+                cache.put(rawReference, reference);
+            }
+        } else {
+            this.cacheMetrics.hit();
+        }
+
+        return reference.clone();
+    }
+
+    private ResourceReference parseLinkReference(String rawReference)
+    {
+        // Parse any parameters specified using the format "reference|queryString=... anchor=...".
+        String reference = rawReference;
+        String queryString = null;
+        String anchor = null;
+        int pos = rawReference.indexOf('|');
+        if (pos > -1) {
+            reference = rawReference.substring(0, pos);
+            String parameters = rawReference.substring(pos + 1);
+            List<WikiParameter> parameterList = new ArrayList<>();
+            WikiScannerUtil.splitToPairs(parameters, parameterList, null, null, '\\');
+            for (WikiParameter wikiParameter : parameterList) {
+                if (wikiParameter.getKey().equals("queryString")) {
+                    queryString = wikiParameter.getValue();
+                } else if (wikiParameter.getKey().equals("anchor")) {
+                    anchor = wikiParameter.getValue();
+                }
+            }
+        }
+
+        ResourceReference resourceReference = this.linkResourceReferenceParser.parse(reference);
+
+        if (resourceReference instanceof DocumentResourceReference) {
+            DocumentResourceReference documentResourceReference = (DocumentResourceReference) resourceReference;
+            if (queryString != null) {
+                documentResourceReference.setQueryString(queryString);
+            }
+            if (anchor != null) {
+                documentResourceReference.setAnchor(anchor);
+            }
+        }
+
+        return resourceReference;
+    }
+
+    private static Map<String, ResourceReference> createCache(int maxSize)
+    {
+        if (maxSize <= 0) {
+            return null;
+        }
+
+        return new LinkedHashMap<String, ResourceReference>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ResourceReference> eldest)
+            {
+                return size() > maxSize;
+            }
+        };
+    }
+}
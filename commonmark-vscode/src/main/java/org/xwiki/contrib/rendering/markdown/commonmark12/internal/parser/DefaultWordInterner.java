@@ -0,0 +1,131 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+
+/**
+ * Bounded and lock-free implementation of {@link WordInterner}. Each word has a single slot in the table, chosen from
+ * its hash: a word found in its slot is shared, otherwise it takes the slot once the word occupying it has lost all
+ * its hits to the other words mapped to the same slot. This way the frequent words stay in the table while the rare
+ * ones keep replacing each other.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Component
+@Singleton
+public class DefaultWordInterner implements WordInterner, Initializable
+{
+    /**
+     * Longer words are rarely repeated.
+     */
+    static final int MAX_WORD_LENGTH = 32;
+
+    /**
+     * The number of misses a word found once survives.
+     */
+    private static final int INITIAL_HITS = 1;
+
+    private static final int MAX_HITS = 1 << 16;
+
+    @Inject
+    private MarkdownConfiguration configuration;
+
+    private AtomicReferenceArray<Entry> table;
+
+    private int mask;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private static final class Entry
+    {
+        private final String word;
+
+        /**
+         * Updated without synchronization: a lost update only makes the replacement of the entry a bit less accurate.
+         */
+        private int hits = INITIAL_HITS;
+
+        Entry(String word)
+        {
+            this.word = word;
+        }
+    }
+
+    @Override
+    public void initialize()
+    {
+        // Round up to a power of 2.
+        int size = this.configuration.getWordInternTableSize();
+        size = size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        this.table = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    @Override
+    public String intern(String word)
+    {
+        if (word.length() > MAX_WORD_LENGTH) {
+            this.misses.increment();
+            return word;
+        }
+
+        int hash = word.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & this.mask;
+        Entry entry = this.table.get(slot);
+        if (entry != null && entry.word.equals(word)) {
+            if (entry.hits < MAX_HITS) {
+                entry.hits++;
+            }
+            this.hits.increment();
+            return entry.word;
+        }
+
+        this.misses.increment();
+        if (entry == null || --entry.hits <= 0) {
+            // Losing the race against another thread is fine, the word will simply be added again later.
+            this.table.compareAndSet(slot, entry, new Entry(word));
+        }
+        return word;
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return this.hits.sum();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return this.misses.sum();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import org.xwiki.rendering.listener.reference.ResourceReference;
+
+/**
+ * A link or image reference found in Markdown content, along with its location in the original source.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public final class ExtractedResourceReference
+{
+    private final ResourceReference reference;
+
+    private final boolean image;
+
+    private final boolean freeStandingURI;
+
+    private final int startOffset;
+
+    private final int endOffset;
+
+    /**
+     * @param reference the resolved reference, identical to the one the parser sends to the listener
+     * @param image {@code true} for an image, {@code false} for a link
+     * @param freeStandingURI {@code true} for autolinks (URLs or email addresses written as is in the content)
+     * @param startOffset the offset in the source where the link or image starts (inclusive)
+     * @param endOffset the offset in the source where the link or image ends (exclusive)
+     */
+    public ExtractedResourceReference(ResourceReference reference, boolean image, boolean freeStandingURI,
+        int startOffset, int endOffset)
+    {
+        this.reference = reference;
+        this.image = image;
+        this.freeStandingURI = freeStandingURI;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+    }
+
+    public ResourceReference getReference()
+    {
+        return this.reference;
+    }
+
+    public boolean isImage()
+    {
+        return this.image;
+    }
+
+    public boolean isFreeStandingURI()
+    {
+        return this.freeStandingURI;
+    }
+
+    public int getStartOffset()
+    {
+        return this.startOffset;
+    }
+
+    public int getEndOffset()
+    {
+        return this.endOffset;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s %s [%d, %d]", this.image ? "image" : "link", this.reference, this.startOffset,
+            this.endOffset);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.vladsch.flexmark.ast.HtmlEntity;
+import com.vladsch.flexmark.ast.Text;
+import com.vladsch.flexmark.ext.autolink.internal.AutolinkNodePostProcessor;
+import com.vladsch.flexmark.parser.block.NodePostProcessor;
+import com.vladsch.flexmark.parser.block.NodePostProcessorFactory;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.DoNotDecorate;
+import com.vladsch.flexmark.util.ast.DoNotLinkDecorate;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.NodeTracker;
+import com.vladsch.flexmark.util.ast.TypographicText;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+
+/**
+ * Runs Flexmark's autolink post processor only on the text nodes containing a link trigger. The autolink library only
+ * detects URLs (containing {@code ://}), {@code www.} links and emails (containing {@code @}), so the other text
+ * nodes, i.e. most of them, are left untouched without allocating anything.
+ * <p>
+ * Text which is modified before the link detection (escapes, entities, adjacent typographic nodes) is always handed
+ * to the autolink post processor, so that the generated links are exactly the same.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class FastAutolinkPostProcessor extends NodePostProcessor
+{
+    private static final char INTELLIJ_DUMMY_IDENTIFIER = '\u001f';
+
+    private final Document document;
+
+    /**
+     * Only created for the documents containing a link trigger.
+     */
+    private AutolinkNodePostProcessor autolinkPostProcessor;
+
+    /**
+     * Factory class for FastAutolinkPostProcessor.
+     */
+    public static class Factory extends NodePostProcessorFactory
+    {
+        /**
+         * Factory constructor.
+         */
+        public Factory()
+        {
+            super(false);
+            // Same exclusions as Flexmark's autolink post processor factory: no links inside links or code.
+            addNodeWithExclusions(Text.class, DoNotDecorate.class, DoNotLinkDecorate.class);
+        }
+
+        @NotNull
+        @Override
+        public NodePostProcessor apply(@NotNull Document document)
+        {
+            return new FastAutolinkPostProcessor(document);
+        }
+    }
+
+    /**
+     * @param document the document being post processed
+     */
+    public FastAutolinkPostProcessor(Document document)
+    {
+        this.document = document;
+    }
+
+    @Override
+    public void process(@NotNull NodeTracker state, @NotNull Node node)
+    {
+        if (mayContainLink(node)) {
+            if (this.autolinkPostProcessor == null) {
+                this.autolinkPostProcessor = new AutolinkNodePostProcessor(this.document);
+            }
+            this.autolinkPostProcessor.process(state, node);
+        }
+    }
+
+    /**
+     * @param node a text node
+     * @return {@code false} if the autolink post processor is guaranteed not to find any link in the node
+     */
+    static boolean mayContainLink(Node node)
+    {
+        // The autolink post processor merges the text node with some of the following nodes.
+        Node next = node.getNext();
+        if (next instanceof Text || next instanceof TypographicText || next instanceof HtmlEntity) {
+            return true;
+        }
+        return hasTrigger(node.getChars());
+    }
+
+    static boolean hasTrigger(BasedSequence chars)
+    {
+        int length = chars.length();
+        for (int i = 0; i < length; i++) {
+            char character = chars.charAt(i);
+            switch (character) {
+                case '@':
+                    // Email
+                case '\\':
+                case '&':
+                case INTELLIJ_DUMMY_IDENTIFIER:
+                    // Removed before the link detection, which could join a trigger
+                    return true;
+                case ':':
+                    if (i + 2 < length && chars.charAt(i + 1) == '/' && chars.charAt(i + 2) == '/') {
+                        return true;
+                    }
+                    break;
+                case 'w':
+                    if (i + 3 < length && chars.charAt(i + 1) == 'w' && chars.charAt(i + 2) == 'w'
+                        && chars.charAt(i + 3) == '.')
+                    {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+}
@@ -29,4 +29,30 @@ import com.vladsch.flexmark.util.ast.Node;
 public interface FlexmarkNodeVisitor
 {
     void visit(Node node, Listener listener, Syntax syntax);
+
+    /**
+     * @param node the node to convert
+     * @param listener receives the generated events
+     * @param syntax the syntax of the content
+     * @param budget the limits to respect while visiting the nodes
+     * @since 0.2
+     */
+    default void visit(Node node, Listener listener, Syntax syntax, ParseBudget budget)
+    {
+        visit(node, listener, syntax);
+    }
+
+    /**
+     * @param node the node to convert
+     * @param listener receives the generated events
+     * @param syntax the syntax of the content
+     * @param budget the limits to respect while visiting the nodes
+     * @param releaseVisitedBlocks {@code true} to unlink each top-level block from the document once its events have
+     *            been generated, so that it can be garbage collected before the end of the visit
+     * @since 0.2
+     */
+    default void visit(Node node, Listener listener, Syntax syntax, ParseBudget budget, boolean releaseVisitedBlocks)
+    {
+        visit(node, listener, syntax, budget);
+    }
 }
@@ -80,7 +80,7 @@ public class HTMLNodeVisitor extends AbstractNodeVisitor
     public void visit(HtmlBlock node)
     {
         // Flexmark puts trailing newline in the HTML block so we need to remove it.
-        String html = node.getChars().toString().trim();
+        String html = trim(node.getChars()).toString();
         generateHTMLMacro(html, false);
     }
 
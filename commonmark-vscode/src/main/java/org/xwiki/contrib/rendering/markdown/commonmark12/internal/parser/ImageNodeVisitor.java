@@ -30,7 +30,6 @@ import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.rendering.listener.Listener;
 import org.xwiki.rendering.listener.reference.ResourceReference;
 import org.xwiki.rendering.listener.reference.ResourceType;
-import org.xwiki.rendering.parser.ResourceReferenceParser;
 import org.xwiki.rendering.renderer.PrintRendererFactory;
 import org.xwiki.rendering.renderer.reference.link.URILabelGenerator;
 
@@ -58,16 +57,16 @@ public class ImageNodeVisitor extends AbstractNodeVisitor
         };
     }
 
-    private ResourceReferenceParser imageResourceReferenceParser;
+    private ResourceReferenceCache referenceCache;
 
     private ComponentManager componentManager;
 
     public ImageNodeVisitor(NodeVisitor visitor, Deque<Listener> listeners,
-        ResourceReferenceParser imageResourceReferenceParser, ComponentManager componentManager,
+        ResourceReferenceCache referenceCache, ComponentManager componentManager,
         PrintRendererFactory plainRendererFactory)
     {
         super(visitor, listeners, plainRendererFactory);
-        this.imageResourceReferenceParser = imageResourceReferenceParser;
+        this.referenceCache = referenceCache;
         this.componentManager = componentManager;
     }
 
@@ -118,7 +117,7 @@ public class ImageNodeVisitor extends AbstractNodeVisitor
 
     public void visit(WikiImage node)
     {
-        ResourceReference reference = this.imageResourceReferenceParser.parse(node.getLink().toString());
+        ResourceReference reference = this.referenceCache.getImageReference(node.getLink().toString());
         Map<String, String> parameters = new HashMap<>();
 
         // Handle alt text. Note that in order to have the same behavior as the XWiki Syntax 2.0+ we don't add the alt
@@ -19,22 +19,16 @@
  */
 package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import org.xwiki.rendering.listener.Listener;
-import org.xwiki.rendering.listener.reference.DocumentResourceReference;
 import org.xwiki.rendering.listener.reference.ResourceReference;
 import org.xwiki.rendering.listener.reference.ResourceType;
-import org.xwiki.rendering.parser.ResourceReferenceParser;
 import org.xwiki.rendering.parser.StreamParser;
-import org.xwiki.rendering.wikimodel.WikiParameter;
-import org.xwiki.rendering.wikimodel.impl.WikiScannerUtil;
 
 import com.vladsch.flexmark.ast.AutoLink;
 import com.vladsch.flexmark.ast.Link;
@@ -64,13 +58,13 @@ public class LinkNodeVisitor extends AbstractNodeVisitor
         };
     }
 
-    private ResourceReferenceParser linkResourceReferenceParser;
+    private ResourceReferenceCache referenceCache;
 
-    public LinkNodeVisitor(NodeVisitor visitor, Deque<Listener> listeners,
-        ResourceReferenceParser linkResourceReferenceParser, StreamParser plainTextStreamParser)
+    public LinkNodeVisitor(NodeVisitor visitor, Deque<Listener> listeners, ResourceReferenceCache referenceCache,
+        StreamParser plainTextStreamParser)
     {
         super(visitor, listeners, null, plainTextStreamParser);
-        this.linkResourceReferenceParser = linkResourceReferenceParser;
+        this.referenceCache = referenceCache;
     }
 
     public void visit(AutoLink node)
@@ -139,41 +133,9 @@ public class LinkNodeVisitor extends AbstractNodeVisitor
 
     public void visit(WikiLink node)
     {
-        // Parse any parameters specified using the format "label|reference|a=b c=d".
         // Important: We don't unescape() the link content since we need to support escape characters in wiki link
         // references (e.g. a reference with dots, etc).
-        String nodeRawReference = node.getLink().toString();
-        String nodeReference = nodeRawReference;
-        String queryString = null;
-        String anchor = null;
-        int pos = nodeRawReference.indexOf('|');
-        if (pos > -1) {
-            nodeReference = nodeRawReference.substring(0, pos);
-            if (pos < nodeRawReference.length()) {
-                String parameters = nodeRawReference.substring(pos + 1);
-                List<WikiParameter> parameterList = new ArrayList<>();
-                WikiScannerUtil.splitToPairs(parameters, parameterList, null, null, '\\');
-                for (WikiParameter wikiParameter : parameterList) {
-                    if (wikiParameter.getKey().equals("queryString")) {
-                        queryString = wikiParameter.getValue();
-                    } else if (wikiParameter.getKey().equals("anchor")) {
-                        anchor = wikiParameter.getValue();
-                    }
-                }
-            }
-        }
-
-        ResourceReference reference = this.linkResourceReferenceParser.parse(nodeReference);
-
-        if (reference instanceof DocumentResourceReference) {
-            DocumentResourceReference documentResourceReference = (DocumentResourceReference) reference;
-            if (queryString != null) {
-                documentResourceReference.setQueryString(queryString);
-            }
-            if (anchor != null) {
-                documentResourceReference.setAnchor(anchor);
-            }
-        }
+        ResourceReference reference = this.referenceCache.getLinkReference(node.getLink().toString());
 
         getListener().beginLink(reference, false, Collections.emptyMap());
         if (node.getText() != null) {
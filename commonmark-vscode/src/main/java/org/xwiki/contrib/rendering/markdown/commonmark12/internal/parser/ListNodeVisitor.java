@@ -21,11 +21,9 @@ package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
 
 import java.util.Collections;
 import java.util.Deque;
-import java.util.Map;
 
 import org.xwiki.rendering.listener.ListType;
 import org.xwiki.rendering.listener.Listener;
-import org.xwiki.rendering.listener.WrappingListener;
 
 import com.vladsch.flexmark.ast.BulletList;
 import com.vladsch.flexmark.ast.BulletListItem;
@@ -60,27 +58,14 @@ public class ListNodeVisitor extends AbstractNodeVisitor
     }
 
     /**
-     * Swallow paragraphs (for example we don't want to generate paragraphs for list items since the XWiki model
-     * doesn't wrap list item content inside paragraphs).
+     * Swallows the paragraphs of list items and definitions.
      */
-    private class ParagraphWrappingListener extends WrappingListener
-    {
-        @Override
-        public void beginParagraph(Map<String, String> parameters)
-        {
-            // Ignore
-        }
-
-        @Override
-        public void endParagraph(Map<String, String> parameters)
-        {
-            // Ignore
-        }
-    }
+    private StructureListener structureListener;
 
-    public ListNodeVisitor(NodeVisitor visitor, Deque<Listener> listeners)
+    public ListNodeVisitor(NodeVisitor visitor, Deque<Listener> listeners, StructureListener structureListener)
     {
         super(visitor, listeners);
+        this.structureListener = structureListener;
     }
 
     public void visit(BulletList node)
@@ -117,11 +102,7 @@ public class ListNodeVisitor extends AbstractNodeVisitor
     public void visit(DefinitionTerm node)
     {
         getListener().beginDefinitionTerm();
-        WrappingListener paragraphListener = new ParagraphWrappingListener();
-        paragraphListener.setWrappedListener(getListener());
-        pushListener(paragraphListener);
-        getVisitor().visitChildren(node);
-        popListener();
+        visitChildrenAndSwallowParagraphs(node);
         getListener().endDefinitionTerm();
     }
 
@@ -141,10 +122,10 @@ public class ListNodeVisitor extends AbstractNodeVisitor
 
     private void visitChildrenAndSwallowParagraphs(Node node)
     {
-        WrappingListener paragraphListener = new ParagraphWrappingListener();
-        paragraphListener.setWrappedListener(getListener());
-        pushListener(paragraphListener);
+        // We don't want to generate paragraphs for list items since the XWiki model doesn't wrap list item content
+        // inside paragraphs.
+        this.structureListener.beginSwallowParagraphs();
         getVisitor().visitChildren(node);
-        popListener();
+        this.structureListener.endSwallowParagraphs();
     }
 }
@@ -0,0 +1,42 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import org.xwiki.rendering.listener.Listener;
+
+import com.vladsch.flexmark.util.ast.Node;
+
+/**
+ * Chooses the listener receiving the events of a Markdown content once its Flexmark AST is built, before any event is
+ * generated. Used to pick the way the content is rendered depending on what it contains, without parsing it twice.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@FunctionalInterface
+public interface ListenerSelector
+{
+    /**
+     * @param document the Flexmark AST of the content, {@code null} when the content exceeds a configured limit and
+     *            is emitted as verbatim text without being parsed
+     * @return the listener receiving the events generated from the content
+     */
+    Listener select(Node document);
+}
@@ -22,7 +22,6 @@ package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
 import java.util.Deque;
 import java.util.Map;
 
-import org.apache.commons.lang3.StringUtils;
 import org.xwiki.rendering.listener.Listener;
 
 import com.vladsch.flexmark.ext.xwiki.macros.Macro;
@@ -31,6 +30,7 @@ import com.vladsch.flexmark.ext.xwiki.macros.MacroClose;
 import com.vladsch.flexmark.ext.xwiki.macros.MacroVisitor;
 import com.vladsch.flexmark.util.ast.NodeVisitor;
 import com.vladsch.flexmark.util.ast.VisitHandler;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
 
 public class MacroNodeVisitor extends AbstractNodeVisitor implements MacroVisitor
 {
@@ -53,8 +53,8 @@ public class MacroNodeVisitor extends AbstractNodeVisitor implements MacroVisito
     {
         if (!node.isBlockMacro()) {
             Map<String, String> parameters = node.getAttributes();
-            String content = node.getMacroContentChars().toString();
-            getListener().onMacro(node.getName().toString(), parameters, normalizeMacroContent(content), true);
+            getListener().onMacro(node.getName().toString(), parameters,
+                normalizeMacroContent(node.getMacroContentChars()), true);
         }
     }
 
@@ -67,18 +67,17 @@ public class MacroNodeVisitor extends AbstractNodeVisitor implements MacroVisito
     public void visit(MacroBlock node)
     {
         Map<String, String> parameters = node.getAttributes();
-        String content = node.getMacroContentChars().toString();
-        getListener().onMacro(node.getMacroNode().getName().toString(), parameters, normalizeMacroContent(content),
-            false);
+        getListener().onMacro(node.getMacroNode().getName().toString(), parameters,
+            normalizeMacroContent(node.getMacroContentChars()), false);
     }
 
-    private String normalizeMacroContent(String content)
+    private String normalizeMacroContent(BasedSequence content)
     {
         String normalizedContent;
-        if (StringUtils.isEmpty(content)) {
+        if (content.isEmpty()) {
             normalizedContent = null;
         } else {
-            normalizedContent = content.trim();
+            normalizedContent = trim(content).toString();
         }
         return normalizedContent;
     }
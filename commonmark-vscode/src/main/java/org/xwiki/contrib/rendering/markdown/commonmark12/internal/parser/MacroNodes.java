@@ -0,0 +1,78 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import com.vladsch.flexmark.ast.Code;
+import com.vladsch.flexmark.ast.FencedCodeBlock;
+import com.vladsch.flexmark.ast.HtmlBlock;
+import com.vladsch.flexmark.ast.HtmlCommentBlock;
+import com.vladsch.flexmark.ast.HtmlEntity;
+import com.vladsch.flexmark.ast.HtmlInline;
+import com.vladsch.flexmark.ast.HtmlInlineComment;
+import com.vladsch.flexmark.ast.IndentedCodeBlock;
+import com.vladsch.flexmark.ast.Text;
+import com.vladsch.flexmark.ext.abbreviation.Abbreviation;
+import com.vladsch.flexmark.ext.tables.TableCaption;
+import com.vladsch.flexmark.ext.xwiki.macros.Macro;
+import com.vladsch.flexmark.ext.xwiki.macros.MacroBlock;
+import com.vladsch.flexmark.util.ast.Node;
+
+/**
+ * Finds the Flexmark nodes that the visitors turn into macro events: the XWiki macros, the code (code macro), the HTML
+ * and the abbreviations and table captions rendered as HTML (html macro), and the math expressions.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public final class MacroNodes
+{
+    private MacroNodes()
+    {
+        // Utility class.
+    }
+
+    /**
+     * @param document the Flexmark AST given to a {@link ListenerSelector}, before it's visited
+     * @return {@code true} if visiting the content generates at least one macro event; it can also be {@code true}
+     *         for text containing a {@code $} that isn't a math delimiter
+     */
+    public static boolean contains(Node document)
+    {
+        for (Node node : document.getDescendants()) {
+            if (isMacro(node)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isMacro(Node node)
+    {
+        if (node instanceof Text) {
+            // Inline math is found in the text, and block math in the text of the paragraphs.
+            return node.getChars().indexOf('$') != -1 || MathContentPlaceholderProcessor.mayContainPlaceholder(
+                node.getChars());
+        }
+        return node instanceof Macro || node instanceof MacroBlock || node instanceof Code
+            || node instanceof FencedCodeBlock || node instanceof IndentedCodeBlock || node instanceof HtmlInline
+            || node instanceof HtmlBlock || node instanceof HtmlCommentBlock || node instanceof HtmlEntity
+            || node instanceof HtmlInlineComment || node instanceof Abbreviation || node instanceof TableCaption;
+    }
+}
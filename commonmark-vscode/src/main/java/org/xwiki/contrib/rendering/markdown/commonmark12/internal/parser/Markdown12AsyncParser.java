@@ -0,0 +1,211 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.io.Reader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.CommonMark12SyntaxProvider;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownContextPropagator;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.AsyncParseMetrics;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.MarkdownMetrics;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.internal.parser.XDOMGeneratorListener;
+import org.xwiki.rendering.syntax.Syntax;
+
+/**
+ * Asynchronous CommonMark Markdown Parser. The parsings run on a fixed number of threads (optionally virtual ones) and
+ * are rejected once the queue of waiting parsings is full, which callers can use to apply back-pressure. They run with
+ * a copy of the execution context, the context class loader and the Markdown configuration of the thread that
+ * submitted them, since the parsing threads don't know the current wiki.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Component
+@Named("commonmark-vscode/0.1")
+@Singleton
+public class Markdown12AsyncParser implements AsyncMarkdownParser, Initializable, Disposable
+{
+    private static final String THREAD_NAME = "Markdown parser-";
+
+    @Inject
+    @Named("commonmark-vscode/0.1")
+    private CancellableStreamParser streamParser;
+
+    @Inject
+    private MarkdownConfiguration configuration;
+
+    @Inject
+    private MarkdownContextPropagator contextPropagator;
+
+    @Inject
+    private MarkdownMetrics metrics;
+
+    @Inject
+    private Logger logger;
+
+    private ThreadPoolExecutor executor;
+
+    private AsyncParseMetrics asyncMetrics;
+
+    @Override
+    public void initialize()
+    {
+        int threads = Math.max(1, this.configuration.getAsyncParseThreads());
+        int queueSize = Math.max(0, this.configuration.getAsyncParseQueueSize());
+        BlockingQueue<Runnable> queue =
+            queueSize > 0 ? new ArrayBlockingQueue<>(queueSize) : new SynchronousQueue<>();
+        this.executor =
+            new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, queue, createThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.asyncMetrics = new AsyncParseMetrics(this.executor, queueSize);
+        if (this.metrics.isEnabled()) {
+            this.metrics.register(getSyntax(), this.asyncMetrics);
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.metrics.unregister(getSyntax());
+        // The parsings still waiting will never run.
+        for (Runnable task : this.executor.shutdownNow()) {
+            ((ParseTask) task).future.cancel(false);
+        }
+    }
+
+    @Override
+    public Syntax getSyntax()
+    {
+        return CommonMark12SyntaxProvider.COMMONMARK_VSCODE_0_1;
+    }
+
+    @Override
+    public CompletableFuture<XDOM> parseAsync(Reader source, ParseCancellationToken cancellationToken)
+    {
+        CompletableFuture<XDOM> future = new CompletableFuture<>();
+        // CompletableFuture#cancel() doesn't interrupt anything, so forward it to the visitor loop through the token.
+        future.whenComplete((xdom, error) -> {
+            if (future.isCancelled()) {
+                cancellationToken.cancel();
+                this.asyncMetrics.cancelled();
+            }
+        });
+
+        try {
+            this.executor.execute(
+                new ParseTask(source, this.contextPropagator.capture(), cancellationToken, future));
+            this.asyncMetrics.submitted();
+        } catch (RejectedExecutionException e) {
+            this.asyncMetrics.rejected();
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    private ThreadFactory createThreadFactory()
+    {
+        if (this.configuration.isAsyncParseVirtualThreadsEnabled()) {
+            // Looked up by reflection since virtual threads only exist starting with Java 21.
+            try {
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME, 1L);
+                return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                this.logger.warn("Virtual threads are not supported by this JVM, using platform threads instead");
+            }
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class ParseTask implements Runnable
+    {
+        private final Reader source;
+
+        private final MarkdownContextPropagator.CapturedContext context;
+
+        private final ParseCancellationToken cancellationToken;
+
+        private final CompletableFuture<XDOM> future;
+
+        private final long submitTime = System.nanoTime();
+
+        ParseTask(Reader source, MarkdownContextPropagator.CapturedContext context,
+            ParseCancellationToken cancellationToken, CompletableFuture<XDOM> future)
+        {
+            this.source = source;
+            this.context = context;
+            this.cancellationToken = cancellationToken;
+            this.future = future;
+        }
+
+        @Override
+        public void run()
+        {
+            if (this.future.isDone()) {
+                // Cancelled while waiting.
+                return;
+            }
+
+            asyncMetrics.started(System.nanoTime() - this.submitTime);
+            boolean failed = false;
+            try (MarkdownContextPropagator.Scope scope = this.context.enter()) {
+                XDOMGeneratorListener listener = new XDOMGeneratorListener();
+                streamParser.parse(this.source, listener, this.cancellationToken);
+                this.future.complete(listener.getXDOM());
+            } catch (Exception e) {
+                failed = true;
+                this.future.completeExceptionally(e);
+            } finally {
+                // A parsing cancelled while running fails, but it has already been counted as cancelled.
+                if (!this.future.isCancelled()) {
+                    asyncMetrics.finished(System.nanoTime() - this.submitTime, failed);
+                }
+            }
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+
 final class MathContentPlaceholderProcessor
 {
     private static final char SENTINEL = '\u0007';
@@ -19,26 +22,38 @@ final class MathContentPlaceholderProcessor
     static Result preprocess(String source)
     {
         if (source == null || source.isEmpty()) {
-            return new Result(source, Collections.emptyMap());
+            return new Result(source, Collections.emptyMap(), new int[0], 0);
+        }
+
+        int index = source.indexOf('$');
+        if (index == -1) {
+            return new Result(source, Collections.emptyMap(), new int[0], 0);
         }
 
+        MathDelimiterScanner scanner = new MathDelimiterScanner(source);
         StringBuilder output = new StringBuilder(source.length());
         Map<String, MathToken> tokens = new LinkedHashMap<>();
-        int index = 0;
+        // Groups of 4 ints (placeholder start, placeholder end, source start, source end) for each replaced span
+        int[] replacements = new int[0];
+        int replacementCount = 0;
         int inlineCounter = 0;
         int blockCounter = 0;
+        output.append(source, 0, index);
 
         while (index < source.length()) {
             char current = source.charAt(index);
             if (current != '$') {
-                output.append(current);
-                index++;
+                // Copy everything up to the next delimiter at once.
+                int next = source.indexOf('$', index);
+                int end = next == -1 ? source.length() : next;
+                output.append(source, index, end);
+                index = end;
                 continue;
             }
 
-            int run = countRun(source, index);
-            if (run >= 2 && !isEscaped(source, index)) {
-                int closing = findBlockClosing(source, index + 2);
+            boolean pair = index + 1 < source.length() && source.charAt(index + 1) == '$';
+            if (pair && !scanner.isEscaped(index)) {
+                int closing = scanner.findBlockClosing(index + 2);
                 if (closing == -1) {
                     output.append(source.substring(index));
                     break;
@@ -54,13 +69,15 @@ final class MathContentPlaceholderProcessor
 
                 String placeholder = createPlaceholder(false, blockCounter++);
                 tokens.put(placeholder, new MathToken(between, false));
+                replacements = addReplacement(replacements, replacementCount++, output.length(),
+                    output.length() + placeholder.length(), index, closing + 2);
                 output.append(placeholder);
                 index = closing + 2;
                 continue;
             }
 
-            if (run == 1 && !isEscaped(source, index)) {
-                int closing = findInlineClosing(source, index + 1);
+            if (!pair && !scanner.isEscaped(index)) {
+                int closing = scanner.findInlineClosing(index + 1);
                 if (closing == -1) {
                     output.append(source.substring(index));
                     break;
@@ -76,6 +93,8 @@ final class MathContentPlaceholderProcessor
 
                 String placeholder = createPlaceholder(true, inlineCounter++);
                 tokens.put(placeholder, new MathToken(trimmed, true));
+                replacements = addReplacement(replacements, replacementCount++, output.length(),
+                    output.length() + placeholder.length(), index, closing + 1);
                 output.append(placeholder);
                 index = closing + 1;
                 continue;
@@ -85,15 +104,40 @@ final class MathContentPlaceholderProcessor
             index++;
         }
 
-        return new Result(output.toString(), tokens);
+        return new Result(output.toString(), tokens, replacements, replacementCount);
+    }
+
+    private static int[] addReplacement(int[] replacements, int position, int placeholderStart, int placeholderEnd,
+        int sourceStart, int sourceEnd)
+    {
+        int[] result = replacements;
+        int offset = position * 4;
+        if (offset + 4 > result.length) {
+            result = Arrays.copyOf(result, Math.max(16, result.length * 2));
+        }
+        result[offset] = placeholderStart;
+        result[offset + 1] = placeholderEnd;
+        result[offset + 2] = sourceStart;
+        result[offset + 3] = sourceEnd;
+        return result;
     }
 
     static void pushTokens(Map<String, MathToken> tokens)
+    {
+        pushTokens(tokens, true);
+    }
+
+    /**
+     * @param tokens the math expressions of the content to convert, by placeholder
+     * @param copy {@code false} to use the given map directly, the math expressions being removed from it as their
+     *            placeholders are converted
+     */
+    static void pushTokens(Map<String, MathToken> tokens, boolean copy)
     {
         if (tokens == null || tokens.isEmpty()) {
             TOKENS.remove();
         } else {
-            TOKENS.set(new LinkedHashMap<>(tokens));
+            TOKENS.set(copy ? new LinkedHashMap<>(tokens) : tokens);
         }
     }
 
@@ -108,6 +152,15 @@ final class MathContentPlaceholderProcessor
         return tokens != null && !tokens.isEmpty();
     }
 
+    /**
+     * @param text some characters of the preprocessed content
+     * @return {@code false} if the given characters don't contain any math expression placeholder
+     */
+    static boolean mayContainPlaceholder(BasedSequence text)
+    {
+        return hasTokens() && text.indexOf(SENTINEL) != -1;
+    }
+
     static PlaceholderMatch findNextPlaceholder(String text, int fromIndex)
     {
         Map<String, MathToken> tokens = TOKENS.get();
@@ -164,56 +217,6 @@ final class MathContentPlaceholderProcessor
             .toString();
     }
 
-    private static int countRun(String text, int start)
-    {
-        int index = start;
-        while (index < text.length() && text.charAt(index) == '$') {
-            index++;
-        }
-        return index - start;
-    }
-
-    private static int findBlockClosing(String text, int searchStart)
-    {
-        int index = searchStart;
-        while (index < text.length() - 1) {
-            int candidate = text.indexOf("$$", index);
-            if (candidate == -1) {
-                return -1;
-            }
-            if (!isEscaped(text, candidate)) {
-                return candidate;
-            }
-            index = candidate + 2;
-        }
-        return -1;
-    }
-
-    private static int findInlineClosing(String text, int searchStart)
-    {
-        int index = searchStart;
-        while (index < text.length()) {
-            int candidate = text.indexOf('$', index);
-            if (candidate == -1) {
-                return -1;
-            }
-            if (!isEscaped(text, candidate) && countRun(text, candidate) == 1) {
-                return candidate;
-            }
-            index = candidate + 1;
-        }
-        return -1;
-    }
-
-    private static boolean isEscaped(String text, int position)
-    {
-        int backslashes = 0;
-        for (int i = position - 1; i >= 0 && text.charAt(i) == '\\'; i--) {
-            backslashes++;
-        }
-        return (backslashes & 1) == 1;
-    }
-
     private static boolean containsLineBreak(String text)
     {
         return text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
@@ -241,11 +244,15 @@ final class MathContentPlaceholderProcessor
     {
         private final String content;
         private final Map<String, MathToken> tokens;
+        private final int[] replacements;
+        private final int replacementCount;
 
-        Result(String content, Map<String, MathToken> tokens)
+        Result(String content, Map<String, MathToken> tokens, int[] replacements, int replacementCount)
         {
             this.content = content;
             this.tokens = tokens;
+            this.replacements = replacements;
+            this.replacementCount = replacementCount;
         }
 
         String getContent()
@@ -257,6 +264,39 @@ final class MathContentPlaceholderProcessor
         {
             return this.tokens;
         }
+
+        /**
+         * Maps an offset in the preprocessed content back to the original source. Offsets falling inside a
+         * placeholder are mapped to the start of the math expression it replaced.
+         *
+         * @param offset an offset in {@link #getContent()}
+         * @return the corresponding offset in the original source
+         */
+        int toSourceOffset(int offset)
+        {
+            // Binary search for the last replacement starting at or before the offset.
+            int low = 0;
+            int high = this.replacementCount - 1;
+            int found = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (this.replacements[middle * 4] <= offset) {
+                    found = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            if (found == -1) {
+                return offset;
+            }
+
+            int base = found * 4;
+            if (offset < this.replacements[base + 1]) {
+                return this.replacements[base + 2];
+            }
+            return this.replacements[base + 3] + offset - this.replacements[base + 1];
+        }
     }
 
     static final class MathToken
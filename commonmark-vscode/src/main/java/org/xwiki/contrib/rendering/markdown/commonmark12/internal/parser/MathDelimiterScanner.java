@@ -0,0 +1,157 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Index of the {@code $} math delimiters of a text, built in a single forward pass so that finding a closing delimiter
+ * doesn't rescan the text (and doesn't walk back over backslashes or forward over {@code $} runs for each candidate).
+ * A {@code $} is escaped when it's preceded by an odd number of backslashes.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+final class MathDelimiterScanner
+{
+    private static final char DOLLAR = '$';
+
+    private static final char BACKSLASH = '\\';
+
+    private static final int[] NONE = new int[0];
+
+    private final int length;
+
+    private final BitSet escaped = new BitSet();
+
+    /**
+     * Positions of the unescaped {@code $} not followed by another {@code $}.
+     */
+    private int[] inlineClosings = NONE;
+
+    private int inlineClosingCount;
+
+    /**
+     * Positions of all the {@code $$} pairs, overlapping ones included (a run of three {@code $} holds two pairs).
+     */
+    private int[] pairs = NONE;
+
+    private int pairCount;
+
+    /**
+     * @param text the text to index
+     */
+    MathDelimiterScanner(CharSequence text)
+    {
+        this.length = text.length();
+        int backslashes = 0;
+        for (int i = 0; i < this.length; i++) {
+            char current = text.charAt(i);
+            if (current == DOLLAR) {
+                boolean isEscaped = (backslashes & 1) == 1;
+                if (isEscaped) {
+                    this.escaped.set(i);
+                }
+                if (i + 1 < this.length && text.charAt(i + 1) == DOLLAR) {
+                    this.pairs = add(this.pairs, this.pairCount++, i);
+                } else if (!isEscaped) {
+                    this.inlineClosings = add(this.inlineClosings, this.inlineClosingCount++, i);
+                }
+                backslashes = 0;
+            } else if (current == BACKSLASH) {
+                backslashes++;
+            } else {
+                backslashes = 0;
+            }
+        }
+    }
+
+    /**
+     * @param position the position of a {@code $} in the text
+     * @return {@code true} if the {@code $} is preceded by an odd number of backslashes
+     */
+    boolean isEscaped(int position)
+    {
+        return this.escaped.get(position);
+    }
+
+    /**
+     * @param from the position to start searching from
+     * @return the position of the first unescaped {@code $} not followed by another {@code $}, or -1 if there's none
+     */
+    int findInlineClosing(int from)
+    {
+        int index = ceiling(this.inlineClosings, this.inlineClosingCount, from);
+        return index < this.inlineClosingCount ? this.inlineClosings[index] : -1;
+    }
+
+    /**
+     * Finds the first unescaped {@code $$}. Like a search with {@code indexOf("$$")}, an escaped pair is skipped as a
+     * whole, i.e. {@code \$$$} doesn't contain a closing pair.
+     *
+     * @param from the position to start searching from
+     * @return the position of the first unescaped {@code $$}, or -1 if there's none
+     */
+    int findBlockClosing(int from)
+    {
+        int start = from;
+        while (start < this.length - 1) {
+            int index = ceiling(this.pairs, this.pairCount, start);
+            if (index == this.pairCount) {
+                return -1;
+            }
+            int candidate = this.pairs[index];
+            if (!isEscaped(candidate)) {
+                return candidate;
+            }
+            start = candidate + 2;
+        }
+        return -1;
+    }
+
+    private static int[] add(int[] values, int count, int value)
+    {
+        int[] result = values;
+        if (count == result.length) {
+            result = Arrays.copyOf(result, Math.max(16, result.length * 2));
+        }
+        result[count] = value;
+        return result;
+    }
+
+    /**
+     * @return the index of the first value greater than or equal to the key, or count if there's none
+     */
+    private static int ceiling(int[] values, int count, int key)
+    {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -26,7 +26,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfigurationSnapshot;
 import org.xwiki.rendering.listener.Listener;
 import org.xwiki.rendering.parser.StreamParser;
 
@@ -37,6 +37,7 @@ import com.vladsch.flexmark.ast.Text;
 import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.ast.NodeVisitor;
 import com.vladsch.flexmark.util.ast.VisitHandler;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
 
 /**
  * Handle paragraph events and upgrade $$ math blocks to macros.
@@ -46,7 +47,7 @@ import com.vladsch.flexmark.util.ast.VisitHandler;
  */
 public class ParagraphNodeVisitor extends AbstractNodeVisitor
 {
-    private final MarkdownConfiguration configuration;
+    private final MarkdownConfigurationSnapshot configuration;
 
     private final Set<Node> nodesToSkip = new HashSet<>();
 
@@ -58,7 +59,7 @@ public class ParagraphNodeVisitor extends AbstractNodeVisitor
     }
 
     public ParagraphNodeVisitor(NodeVisitor visitor, Deque<Listener> listeners,
-        MarkdownConfiguration configuration, org.xwiki.rendering.parser.StreamParser plainTextStreamParser)
+        MarkdownConfigurationSnapshot configuration, org.xwiki.rendering.parser.StreamParser plainTextStreamParser)
     {
         super(visitor, listeners, null, plainTextStreamParser);
         this.configuration = configuration;
@@ -81,11 +82,17 @@ public class ParagraphNodeVisitor extends AbstractNodeVisitor
 
     private boolean emitBlockMath(Paragraph node)
     {
-        if (emitBlockMathFromPlaceholders(node)) {
+        BasedSequence chars = node.getChars();
+        if (MathContentPlaceholderProcessor.mayContainPlaceholder(chars) && emitBlockMathFromPlaceholders(node)) {
             return true;
         }
 
-        String raw = node.getChars().toString();
+        // Only copy the paragraph characters when it may hold a $$ math block.
+        if (chars.indexOf("$$") == -1) {
+            return false;
+        }
+
+        String raw = chars.toString();
         String trimmed = raw.trim();
 
         if (trimmed.startsWith("$$") && trimmed.endsWith("$$") && trimmed.length() > 4
@@ -107,8 +114,7 @@ public class ParagraphNodeVisitor extends AbstractNodeVisitor
             Node current = node.getNext();
             while (current != null) {
                 if (current instanceof Paragraph) {
-                    String currentTrimmed = current.getChars().toString().trim();
-                    if ("$$".equals(currentTrimmed)) {
+                    if (isBlockMathDelimiter(current.getChars())) {
                         closing = (Paragraph) current;
                         break;
                     }
@@ -141,6 +147,12 @@ public class ParagraphNodeVisitor extends AbstractNodeVisitor
         return emitEmbeddedBlockMath(node);
     }
 
+    private boolean isBlockMathDelimiter(BasedSequence chars)
+    {
+        BasedSequence trimmed = trim(chars);
+        return trimmed.length() == 2 && trimmed.charAt(0) == '$' && trimmed.charAt(1) == '$';
+    }
+
     private boolean emitBlockMathFromPlaceholders(Paragraph node)
     {
         if (!MathContentPlaceholderProcessor.hasTokens()) {
@@ -0,0 +1,93 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Raised when parsing Markdown content is stopped before the end, because the content exceeds one of the configured
+ * limits, because it takes too long or because it has been cancelled.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class ParseAbortedException extends ParseException
+{
+    /**
+     * Why the parsing has been stopped.
+     */
+    public enum Reason
+    {
+        /**
+         * The content is longer than the maximum input length.
+         */
+        INPUT_LENGTH,
+
+        /**
+         * The content has more math expressions than allowed.
+         */
+        MATH_TOKENS,
+
+        /**
+         * The content is nested deeper than allowed (e.g. quotes in quotes in quotes).
+         */
+        NESTING_DEPTH,
+
+        /**
+         * The content has more Markdown elements than allowed.
+         */
+        NODE_COUNT,
+
+        /**
+         * The parsing took longer than allowed.
+         */
+        TIMEOUT,
+
+        /**
+         * The parsing has been cancelled by the caller.
+         */
+        CANCELLED
+    }
+
+    /**
+     * Class version.
+     */
+    private static final long serialVersionUID = 1L;
+
+    private final Reason reason;
+
+    /**
+     * @param reason why the parsing has been stopped
+     * @param message the error message
+     */
+    public ParseAbortedException(Reason reason, String message)
+    {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * @return why the parsing has been stopped
+     */
+    public Reason getReason()
+    {
+        return this.reason;
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfigurationSnapshot;
+
+import com.vladsch.flexmark.util.ast.Node;
+
+/**
+ * The resources a single parsing is allowed to use: the configured limits, the wall-clock deadline and the caller's
+ * {@link ParseCancellationToken}. A limit of 0 means no limit.
+ * <p>
+ * When degraded parsing is enabled, exceeding a limit doesn't fail the parsing: the content is converted up to the
+ * first top-level block exceeding the limit and the rest is emitted as verbatim text. Cancellation always fails. The
+ * timeout stays enforced in degraded mode: a top-level block can't be cut without leaving unbalanced events, so the
+ * block being visited when the deadline passes may complete, but the parsing fails if it's still running after twice
+ * the timeout.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public final class ParseBudget
+{
+    /**
+     * Reading the clock for each visited node would be wasteful.
+     */
+    private static final int CHECK_INTERVAL = 64;
+
+    private static final String TIMEOUT_MESSAGE = "The Markdown parsing took longer than allowed";
+
+    private static final String NESTING_MESSAGE = "The Markdown content is nested more than [%d] levels deep";
+
+    /**
+     * The indentation allowed before a block quote marker or a code fence.
+     */
+    private static final int MAX_MARKER_INDENTATION = 3;
+
+    private static final int MIN_FENCE_LENGTH = 3;
+
+    private final int maxInputLength;
+
+    private final int maxMathTokens;
+
+    private final int maxNestingDepth;
+
+    private final long maxNodeCount;
+
+    private final long deadline;
+
+    /**
+     * The deadline after which the parsing fails, even in degraded mode.
+     */
+    private final long hardDeadline;
+
+    private final boolean degraded;
+
+    private final ParseCancellationToken cancellationToken;
+
+    private int checkpoints;
+
+    private ParseAbortedException exceeded;
+
+    private String source;
+
+    private MathContentPlaceholderProcessor.Result preprocessed;
+
+    private Node cutoff;
+
+    /**
+     * The limit exceeded by the source, in degraded mode, when only the source before {@link #truncationOffset} is
+     * parsed.
+     */
+    private ParseAbortedException truncation;
+
+    private int truncationOffset;
+
+    /**
+     * Creates a budget without any limit.
+     */
+    public ParseBudget()
+    {
+        this.maxInputLength = 0;
+        this.maxMathTokens = 0;
+        this.maxNestingDepth = 0;
+        this.maxNodeCount = 0;
+        this.deadline = 0;
+        this.hardDeadline = 0;
+        this.degraded = false;
+        this.cancellationToken = new ParseCancellationToken();
+    }
+
+    /**
+     * @param configuration provides the limits
+     * @param cancellationToken allows the caller to stop the parsing
+     */
+    public ParseBudget(MarkdownConfigurationSnapshot configuration, ParseCancellationToken cancellationToken)
+    {
+        this.maxInputLength = configuration.getMaxInputLength();
+        this.maxMathTokens = configuration.getMaxMathTokens();
+        this.maxNestingDepth = configuration.getMaxNestingDepth();
+        this.maxNodeCount = configuration.getMaxNodeCount();
+        long timeout = TimeUnit.MILLISECONDS.toNanos(configuration.getParseTimeout());
+        long start = System.nanoTime();
+        this.degraded = configuration.isDegradedParsingEnabled();
+        this.deadline = timeout > 0 ? start + timeout : 0;
+        this.hardDeadline = timeout > 0 ? start + (this.degraded ? 2 * timeout : timeout) : 0;
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * @return {@code true} if the content exceeding a limit should be emitted as verbatim text instead of failing
+     */
+    public boolean isDegraded()
+    {
+        return this.degraded;
+    }
+
+    /**
+     * @return the exceeded limit when in degraded mode, {@code null} if all the limits have been respected so far
+     */
+    public ParseAbortedException getExceeded()
+    {
+        return this.exceeded;
+    }
+
+    /**
+     * @return the maximum number of characters of the content to parse, 0 if there is no limit
+     */
+    int getMaxInputLength()
+    {
+        return this.maxInputLength;
+    }
+
+    /**
+     * @param length the length of the content to parse
+     * @throws ParseAbortedException if the content is too long and degraded parsing is disabled
+     */
+    void checkInputLength(int length) throws ParseAbortedException
+    {
+        if (this.maxInputLength > 0 && length > this.maxInputLength) {
+            exceed(new ParseAbortedException(ParseAbortedException.Reason.INPUT_LENGTH, String.format(
+                "The Markdown content has [%d] characters, more than the maximum of [%d]", length,
+                this.maxInputLength)));
+        }
+    }
+
+    /**
+     * @param count the number of math expressions found in the content
+     * @throws ParseAbortedException if there are too many math expressions and degraded parsing is disabled
+     */
+    void checkMathTokens(int count) throws ParseAbortedException
+    {
+        if (this.maxMathTokens > 0 && count > this.maxMathTokens) {
+            exceed(new ParseAbortedException(ParseAbortedException.Reason.MATH_TOKENS, String.format(
+                "The Markdown content has [%d] math expressions, more than the maximum of [%d]", count,
+                this.maxMathTokens)));
+        }
+    }
+
+    /**
+     * Estimates the nesting depth of the content from its source, so that deeply nested content is rejected before
+     * Flexmark builds its AST. The estimate is cheap rather than exact: it only counts the block quote markers at the
+     * start of the lines, outside of the top-level fenced code blocks, and {@link #checkDocument(Node)} verifies the
+     * parsed document afterwards. In degraded mode, only the content before the paragraph of the first line exceeding
+     * the limit is parsed, see {@link #getTruncatedSource()}.
+     *
+     * @param content the content to parse
+     * @return the length of the content to parse
+     * @throws ParseAbortedException if the content is too deep and degraded parsing is disabled
+     */
+    int checkSource(String content) throws ParseAbortedException
+    {
+        if (this.maxNestingDepth <= 0) {
+            return content.length();
+        }
+
+        int paragraphStart = 0;
+        char fence = 0;
+        int lineStart = 0;
+        while (lineStart < content.length()) {
+            int lineEnd = content.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = content.length();
+            }
+            int offset = skipIndentation(content, lineStart, lineEnd, MAX_MARKER_INDENTATION);
+            if (fence != 0) {
+                if (isFence(content, offset, lineEnd, fence)) {
+                    fence = 0;
+                }
+            } else if (isBlank(content, offset, lineEnd)) {
+                paragraphStart = lineEnd + 1;
+            } else if (isFence(content, offset, lineEnd, '`') || isFence(content, offset, lineEnd, '~')) {
+                fence = content.charAt(offset);
+            } else if (getQuoteDepth(content, offset, lineEnd) > this.maxNestingDepth) {
+                ParseAbortedException exception = new ParseAbortedException(
+                    ParseAbortedException.Reason.NESTING_DEPTH, String.format(NESTING_MESSAGE, this.maxNestingDepth));
+                if (paragraphStart == 0) {
+                    exceed(exception);
+                } else if (!this.degraded) {
+                    throw exception;
+                } else {
+                    this.truncation = exception;
+                    this.truncationOffset = paragraphStart;
+                }
+                return paragraphStart;
+            }
+            lineStart = lineEnd + 1;
+        }
+
+        return content.length();
+    }
+
+    /**
+     * Walks the parsed document to verify its depth and size before any event is generated. In degraded mode,
+     * remembers the first top-level block exceeding a limit, see {@link #getCutoff()}.
+     *
+     * @param document the parsed document
+     * @throws ParseAbortedException if the document is too deep or too large and degraded parsing is disabled
+     */
+    void checkDocument(Node document) throws ParseAbortedException
+    {
+        if (this.maxNestingDepth <= 0 && this.maxNodeCount <= 0) {
+            return;
+        }
+
+        long count = 1;
+        for (Node block = document.getFirstChild(); block != null; block = block.getNext()) {
+            Node node = block;
+            int depth = 1;
+            while (true) {
+                count++;
+                if (this.maxNestingDepth > 0 && depth > this.maxNestingDepth) {
+                    exceedAt(block, new ParseAbortedException(ParseAbortedException.Reason.NESTING_DEPTH,
+                        String.format(NESTING_MESSAGE, this.maxNestingDepth)));
+                    return;
+                }
+                if (this.maxNodeCount > 0 && count > this.maxNodeCount) {
+                    exceedAt(block, new ParseAbortedException(ParseAbortedException.Reason.NODE_COUNT,
+                        String.format("The Markdown content has more than [%d] elements", this.maxNodeCount)));
+                    return;
+                }
+
+                // Depth first traversal of the block without recursion, since the depth isn't verified yet.
+                if (node.getFirstChild() != null) {
+                    node = node.getFirstChild();
+                    depth++;
+                    continue;
+                }
+                while (node != block && node.getNext() == null) {
+                    node = node.getParent();
+                    depth--;
+                }
+                if (node == block) {
+                    break;
+                }
+                node = node.getNext();
+            }
+        }
+    }
+
+    /**
+     * Verifies the cancellation token and the deadline.
+     *
+     * @throws ParseAbortedException if the parsing has been cancelled, or if it took too long and degraded parsing is
+     *             disabled or can't stop it in time
+     */
+    void check() throws ParseAbortedException
+    {
+        if (this.cancellationToken.isCancelled()) {
+            throw new ParseAbortedException(ParseAbortedException.Reason.CANCELLED,
+                "The Markdown parsing has been cancelled");
+        }
+        if (this.deadline != 0) {
+            long now = System.nanoTime();
+            if (now - this.hardDeadline > 0) {
+                throw new ParseAbortedException(ParseAbortedException.Reason.TIMEOUT, TIMEOUT_MESSAGE);
+            }
+            if (this.exceeded == null && now - this.deadline > 0) {
+                exceed(new ParseAbortedException(ParseAbortedException.Reason.TIMEOUT, TIMEOUT_MESSAGE));
+            }
+        }
+    }
+
+    /**
+     * Called for each visited node: regularly verifies the cancellation token and the deadline.
+     *
+     * @throws AbortSignal if the parsing must stop right away
+     */
+    void checkpoint()
+    {
+        if (++this.checkpoints % CHECK_INTERVAL == 0) {
+            checkNow();
+        }
+    }
+
+    /**
+     * Called before each top-level block, so that a limit exceeded in degraded mode cuts the content as soon as
+     * possible.
+     *
+     * @throws AbortSignal if the parsing must stop right away
+     */
+    void checkNow()
+    {
+        try {
+            check();
+        } catch (ParseAbortedException e) {
+            throw new AbortSignal(e);
+        }
+    }
+
+    /**
+     * @return {@code true} if a limit has been exceeded in degraded mode and the remaining content should be emitted
+     *         as verbatim text
+     */
+    boolean isExceeded()
+    {
+        return this.exceeded != null;
+    }
+
+    /**
+     * @return the top-level block from which the content must be emitted as verbatim text, {@code null} if none
+     */
+    Node getCutoff()
+    {
+        return this.cutoff;
+    }
+
+    /**
+     * @return the limit exceeded by the source in degraded mode, when the end of the source isn't parsed, see
+     *         {@link #checkSource(String)}
+     */
+    ParseAbortedException getTruncation()
+    {
+        return this.truncation;
+    }
+
+    /**
+     * @return the end of the source that isn't parsed, {@code null} if the whole source is parsed
+     */
+    String getTruncatedSource()
+    {
+        return this.truncation != null ? this.source.substring(this.truncationOffset) : null;
+    }
+
+    /**
+     * @param source the content being parsed
+     * @param preprocessed the content given to Flexmark, to map the node offsets back to the source
+     */
+    void setSource(String source, MathContentPlaceholderProcessor.Result preprocessed)
+    {
+        this.source = source;
+        this.preprocessed = preprocessed;
+    }
+
+    /**
+     * @param node a top-level block
+     * @return the source content starting with the given block
+     */
+    String getSourceFrom(Node node)
+    {
+        int offset = this.preprocessed == null ? node.getStartOffset()
+            : this.preprocessed.toSourceOffset(node.getStartOffset());
+        return this.source.substring(Math.min(offset, this.source.length()));
+    }
+
+    private static int skipIndentation(String content, int start, int end, int max)
+    {
+        int offset = start;
+        while (offset < end && offset - start < max && content.charAt(offset) == ' ') {
+            offset++;
+        }
+        return offset;
+    }
+
+    private static boolean isBlank(String content, int start, int end)
+    {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(content.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isFence(String content, int start, int end, char fence)
+    {
+        int offset = start;
+        while (offset < end && content.charAt(offset) == fence) {
+            offset++;
+        }
+        return offset - start >= MIN_FENCE_LENGTH;
+    }
+
+    private static int getQuoteDepth(String content, int start, int end)
+    {
+        int depth = 0;
+        int offset = start;
+        while (offset < end && content.charAt(offset) == '>') {
+            depth++;
+            // The space following the marker, then the indentation of the next marker.
+            offset = skipIndentation(content, offset + 1, end, MAX_MARKER_INDENTATION + 1);
+        }
+        // The innermost quote holds a block when the line has some content after the markers.
+        return offset < end && !isBlank(content, offset, end) ? depth + 1 : depth;
+    }
+
+    private void exceedAt(Node block, ParseAbortedException exception) throws ParseAbortedException
+    {
+        exceed(exception);
+        this.cutoff = block;
+    }
+
+    private void exceed(ParseAbortedException exception) throws ParseAbortedException
+    {
+        if (!this.degraded) {
+            throw exception;
+        }
+        this.exceeded = exception;
+    }
+
+    /**
+     * Carries a {@link ParseAbortedException} out of the Flexmark visitor, which doesn't allow checked exceptions.
+     *
+     * @version $Id$
+     * @since 0.2
+     */
+    static final class AbortSignal extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        AbortSignal(ParseAbortedException cause)
+        {
+            super(cause.getMessage(), cause, false, false);
+        }
+
+        ParseAbortedException getAbortCause()
+        {
+            return (ParseAbortedException) getCause();
+        }
+    }
+}
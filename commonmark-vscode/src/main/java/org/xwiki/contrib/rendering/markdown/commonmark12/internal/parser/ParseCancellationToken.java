@@ -0,0 +1,48 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+/**
+ * Allows to stop a running parsing from another thread. The parser checks the token regularly and fails with a
+ * {@link ParseAbortedException} once it's cancelled.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public final class ParseCancellationToken
+{
+    private volatile boolean cancelled;
+
+    /**
+     * Asks the parser to stop as soon as possible.
+     */
+    public void cancel()
+    {
+        this.cancelled = true;
+    }
+
+    /**
+     * @return {@code true} if {@link #cancel()} has been called
+     */
+    public boolean isCancelled()
+    {
+        return this.cancelled;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.io.Reader;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.ExtensionProfile;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * A {@link CancellableStreamParser} supporting only a subset of the Markdown features, chosen for each parsing, in
+ * order to parse simple content faster.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Role
+public interface ProfiledStreamParser extends CancellableStreamParser
+{
+    /**
+     * @param source the content to parse
+     * @param listener receives the events generated from the content
+     * @param profile the Markdown features to support
+     * @throws ParseException if the content can't be parsed
+     */
+    default void parse(Reader source, Listener listener, ExtensionProfile profile) throws ParseException
+    {
+        parse(source, listener, profile, new ParseCancellationToken());
+    }
+
+    /**
+     * @param source the content to parse
+     * @param listener receives the events generated from the content
+     * @param profile the Markdown features to support
+     * @param cancellationToken cancel it to stop the parsing
+     * @throws ParseException if the content can't be parsed, a {@link ParseAbortedException} if the parsing has been
+     *             cancelled or the content exceeds a configured limit
+     */
+    void parse(Reader source, Listener listener, ExtensionProfile profile, ParseCancellationToken cancellationToken)
+        throws ParseException;
+
+    /**
+     * @param source the content to parse
+     * @param listenerSelector chooses the listener receiving the events generated from the content, once it's parsed
+     * @param profile the Markdown features to support
+     * @param cancellationToken cancel it to stop the parsing
+     * @throws ParseException if the content can't be parsed, a {@link ParseAbortedException} if the parsing has been
+     *             cancelled or the content exceeds a configured limit
+     */
+    void parse(Reader source, ListenerSelector listenerSelector, ExtensionProfile profile,
+        ParseCancellationToken cancellationToken) throws ParseException;
+}
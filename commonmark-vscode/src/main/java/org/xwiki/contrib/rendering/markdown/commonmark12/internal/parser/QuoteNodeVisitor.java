@@ -43,9 +43,15 @@ public class QuoteNodeVisitor extends AbstractNodeVisitor
         };
     }
 
-    public QuoteNodeVisitor(NodeVisitor visitor, Deque<Listener> listeners)
+    /**
+     * Replaces the paragraphs of blockquotes with quotation lines.
+     */
+    private StructureListener structureListener;
+
+    public QuoteNodeVisitor(NodeVisitor visitor, Deque<Listener> listeners, StructureListener structureListener)
     {
         super(visitor, listeners);
+        this.structureListener = structureListener;
     }
 
     public void visit(BlockQuote node)
@@ -54,12 +60,9 @@ public class QuoteNodeVisitor extends AbstractNodeVisitor
 
         // XWiki only supports paragraph in quotations, see http://jira.xwiki.org/browse/XRENDERING-259.
         // We replace Paragraph events with QuotationLine events.
-        QuoteListener quoteListener = new QuoteListener();
-        quoteListener.setWrappedListener(getListener());
-        pushListener(quoteListener);
+        this.structureListener.beginQuotationLines();
         getVisitor().visitChildren(node);
-        popListener();
-        quoteListener.closeOpenedQuotationLines();
+        this.structureListener.endQuotationLines();
 
         getListener().endQuotation(Collections.emptyMap());
     }
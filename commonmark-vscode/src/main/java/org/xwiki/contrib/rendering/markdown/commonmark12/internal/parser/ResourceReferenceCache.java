@@ -0,0 +1,57 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+
+/**
+ * Caches the parsed form of wiki link ({@code [[...]]}) and wiki image ({@code ![[...]]}) references so that pages
+ * repeating the same references don't pay for the reference parsing every time.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Role
+public interface ResourceReferenceCache
+{
+    /**
+     * @param rawReference the raw wiki link content, in the format {@code reference|queryString=... anchor=...}
+     * @return a new copy of the parsed link reference, that the caller is free to modify
+     */
+    ResourceReference getLinkReference(String rawReference);
+
+    /**
+     * @param rawReference the raw wiki image reference
+     * @return a new copy of the parsed image reference, that the caller is free to modify
+     */
+    ResourceReference getImageReference(String rawReference);
+
+    /**
+     * @return the number of lookups served from the cache since startup, also published through JMX when the metrics
+     *         are enabled
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of lookups that required parsing the reference since startup
+     */
+    long getMissCount();
+}
@@ -0,0 +1,155 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+
+import com.vladsch.flexmark.ast.AutoLink;
+import com.vladsch.flexmark.ast.Image;
+import com.vladsch.flexmark.ast.ImageRef;
+import com.vladsch.flexmark.ast.Link;
+import com.vladsch.flexmark.ast.LinkRef;
+import com.vladsch.flexmark.ast.MailLink;
+import com.vladsch.flexmark.ast.util.ReferenceRepository;
+import com.vladsch.flexmark.ext.tables.TableCaption;
+import com.vladsch.flexmark.ext.wikilink.WikiImage;
+import com.vladsch.flexmark.ext.wikilink.WikiLink;
+import com.vladsch.flexmark.ext.xwiki.macros.Macro;
+import com.vladsch.flexmark.ext.xwiki.macros.MacroBlock;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.NodeVisitor;
+import com.vladsch.flexmark.util.ast.VisitHandler;
+
+/**
+ * Walks a Flexmark AST and collects the link and image references, resolving them the same way as
+ * {@link LinkNodeVisitor} and {@link ImageNodeVisitor} do. The children of nodes whose content the full parser doesn't
+ * turn into link or image events (macros, table captions, image alt texts, wiki link labels) are skipped.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+final class ResourceReferenceCollector
+{
+    private final ResourceReferenceCache referenceCache;
+
+    private final MathContentPlaceholderProcessor.Result preprocessed;
+
+    private final List<ExtractedResourceReference> references = new ArrayList<>();
+
+    private final NodeVisitor visitor;
+
+    private ReferenceRepository referenceRepository;
+
+    ResourceReferenceCollector(ResourceReferenceCache referenceCache,
+        MathContentPlaceholderProcessor.Result preprocessed)
+    {
+        this.referenceCache = referenceCache;
+        this.preprocessed = preprocessed;
+        this.visitor = new NodeVisitor(
+            new VisitHandler<>(AutoLink.class, this::visit),
+            new VisitHandler<>(MailLink.class, this::visit),
+            new VisitHandler<>(Link.class, this::visit),
+            new VisitHandler<>(LinkRef.class, this::visit),
+            new VisitHandler<>(WikiLink.class, this::visit),
+            new VisitHandler<>(Image.class, this::visit),
+            new VisitHandler<>(ImageRef.class, this::visit),
+            new VisitHandler<>(WikiImage.class, this::visit),
+            new VisitHandler<>(Macro.class, node -> { }),
+            new VisitHandler<>(MacroBlock.class, node -> { }),
+            new VisitHandler<>(TableCaption.class, node -> { })
+        );
+    }
+
+    List<ExtractedResourceReference> collect(Node document)
+    {
+        this.referenceRepository = Parser.REFERENCES.get(document.getDocument());
+        this.visitor.visit(document);
+        return this.references;
+    }
+
+    private void visit(AutoLink node)
+    {
+        add(createURLReference(node.getText().unescape()), node, false, true);
+    }
+
+    private void visit(MailLink node)
+    {
+        add(new ResourceReference(node.getText().unescape(), ResourceType.MAILTO), node, false, true);
+    }
+
+    private void visit(Link node)
+    {
+        add(createURLReference(node.getUrl().unescape()), node, false, false);
+        // The label can contain images.
+        this.visitor.visitChildren(node);
+    }
+
+    private void visit(LinkRef node)
+    {
+        if (node.isDefined()) {
+            add(createURLReference(node.getReferenceNode(this.referenceRepository).getUrl().toString()), node,
+                false, false);
+            this.visitor.visitChildren(node);
+        }
+    }
+
+    private void visit(WikiLink node)
+    {
+        add(this.referenceCache.getLinkReference(node.getLink().toString()), node, false, false);
+    }
+
+    private void visit(Image node)
+    {
+        add(createURLReference(node.getUrl().toString()), node, true, false);
+    }
+
+    private void visit(ImageRef node)
+    {
+        if (node.isDefined()) {
+            add(createURLReference(node.getReferenceNode(this.referenceRepository).getUrl().toString()), node,
+                true, false);
+        }
+    }
+
+    private void visit(WikiImage node)
+    {
+        add(this.referenceCache.getImageReference(node.getLink().toString()), node, true, false);
+    }
+
+    private void add(ResourceReference reference, Node node, boolean image, boolean freeStandingURI)
+    {
+        this.references.add(new ExtractedResourceReference(reference, image, freeStandingURI,
+            this.preprocessed.toSourceOffset(node.getStartOffset()),
+            this.preprocessed.toSourceOffset(node.getEndOffset())));
+    }
+
+    private static ResourceReference createURLReference(String url)
+    {
+        // Same as the parser: all non wiki links and images are considered to be referencing a URL.
+        ResourceReference reference = new ResourceReference(url, ResourceType.URL);
+        reference.setTyped(false);
+        return reference;
+    }
+}
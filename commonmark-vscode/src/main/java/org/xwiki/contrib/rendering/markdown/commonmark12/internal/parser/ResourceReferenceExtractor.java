@@ -0,0 +1,44 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Collects the link and image references of Markdown content without generating any rendering event. Much cheaper
+ * than a full parse when only the references are needed (e.g. for backlink or attachment usage indexing).
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Role
+public interface ResourceReferenceExtractor
+{
+    /**
+     * @param source the Markdown content
+     * @return the link and image references, in document order, resolved exactly as the matching parser would
+     * @throws ParseException if the content cannot be read or parsed
+     */
+    List<ExtractedResourceReference> extract(Reader source) throws ParseException;
+}
@@ -0,0 +1,189 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.xwiki.rendering.listener.MetaData;
+
+import com.vladsch.flexmark.util.ast.Node;
+
+/**
+ * The 64-bit FNV-1a hashes of the source of the top-level blocks of a Markdown content, along with a root hash
+ * computed from the block hashes in order. Comparing them tells which blocks changed between two versions of a content
+ * without comparing the XDOMs or parsing again. They are available from the document {@link MetaData} under
+ * {@link #METADATA_KEY} when source hashing is enabled.
+ * <p>
+ * A block hash only covers the source of the block: a block using a link reference defined elsewhere keeps its hash
+ * when the definition changes, but the root hash changes since the definition is a top-level block too. The blank lines
+ * between the blocks and the line breaks ending them aren't hashed.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public final class SourceHashes
+{
+    /**
+     * The key of the document metadata holding the source hashes.
+     */
+    public static final String METADATA_KEY = "commonmark-vscode.sourceHashes";
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long PRIME = 0x100000001b3L;
+
+    private final List<BlockHash> blocks;
+
+    private final long rootHash;
+
+    private SourceHashes(List<BlockHash> blocks, long rootHash)
+    {
+        this.blocks = Collections.unmodifiableList(blocks);
+        this.rootHash = rootHash;
+    }
+
+    /**
+     * Hashes the source of each top-level block, in a single pass over the source since the blocks don't overlap.
+     *
+     * @param source the content being parsed
+     * @param preprocessed the content given to Flexmark, to map the node offsets back to the source
+     * @param document the parsed content
+     * @return the hashes of the top-level blocks
+     */
+    static SourceHashes compute(String source, MathContentPlaceholderProcessor.Result preprocessed, Node document)
+    {
+        List<BlockHash> blocks = new ArrayList<>();
+        long rootHash = OFFSET_BASIS;
+        for (Node child = document.getFirstChild(); child != null; child = child.getNext()) {
+            int start = Math.min(preprocessed.toSourceOffset(child.getStartOffset()), source.length());
+            int end = Math.min(preprocessed.toSourceOffset(child.getEndOffset()), source.length());
+            // Flexmark includes the line break ending the block, which is missing at the end of the content.
+            while (end > start && isLineBreak(source.charAt(end - 1))) {
+                end--;
+            }
+            long hash = OFFSET_BASIS;
+            for (int i = start; i < end; i++) {
+                hash = update(hash, source.charAt(i));
+            }
+            blocks.add(new BlockHash(start, end, hash));
+            for (int shift = 0; shift < Long.SIZE; shift += Character.SIZE) {
+                rootHash = update(rootHash, (char) (hash >>> shift));
+            }
+        }
+        return new SourceHashes(blocks, rootHash);
+    }
+
+    /**
+     * @param metaData the metadata of a document, e.g. the one of the XDOM produced by the parser
+     * @return the source hashes of the document, {@code null} if source hashing was disabled when it was parsed
+     */
+    public static SourceHashes get(MetaData metaData)
+    {
+        Object hashes = metaData.getMetaData(METADATA_KEY);
+        return hashes instanceof SourceHashes ? (SourceHashes) hashes : null;
+    }
+
+    private static boolean isLineBreak(char character)
+    {
+        return character == '\n' || character == '\r';
+    }
+
+    private static long update(long hash, char character)
+    {
+        long result = (hash ^ (character & 0xff)) * PRIME;
+        return (result ^ (character >>> 8)) * PRIME;
+    }
+
+    /**
+     * @return the hashes of the top-level blocks, in document order
+     */
+    public List<BlockHash> getBlocks()
+    {
+        return this.blocks;
+    }
+
+    /**
+     * @return a hash of the block hashes, identical for two contents with the same top-level blocks
+     */
+    public long getRootHash()
+    {
+        return this.rootHash;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%016x %s", this.rootHash, this.blocks);
+    }
+
+    /**
+     * The hash of the source of a top-level block.
+     *
+     * @version $Id$
+     * @since 0.2
+     */
+    public static final class BlockHash
+    {
+        private final int startOffset;
+
+        private final int endOffset;
+
+        private final long hash;
+
+        BlockHash(int startOffset, int endOffset, long hash)
+        {
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+            this.hash = hash;
+        }
+
+        /**
+         * @return the offset in the source where the block starts (inclusive)
+         */
+        public int getStartOffset()
+        {
+            return this.startOffset;
+        }
+
+        /**
+         * @return the offset in the source where the block ends (exclusive)
+         */
+        public int getEndOffset()
+        {
+            return this.endOffset;
+        }
+
+        /**
+         * @return the hash of the block source
+         */
+        public long getHash()
+        {
+            return this.hash;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%016x [%d, %d]", this.hash, this.startOffset, this.endOffset);
+        }
+    }
+}
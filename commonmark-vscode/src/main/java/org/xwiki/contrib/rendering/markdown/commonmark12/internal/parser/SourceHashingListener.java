@@ -0,0 +1,64 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.listener.WrappingListener;
+
+/**
+ * Adds the {@link SourceHashes} of the parsed content to the document metadata.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class SourceHashingListener extends WrappingListener
+{
+    private final SourceHashes hashes;
+
+    /**
+     * @param listener the listener receiving the events with the source hashes
+     * @param hashes the source hashes of the parsed content
+     */
+    public SourceHashingListener(Listener listener, SourceHashes hashes)
+    {
+        setWrappedListener(listener);
+        this.hashes = hashes;
+    }
+
+    @Override
+    public void beginDocument(MetaData metadata)
+    {
+        super.beginDocument(addHashes(metadata));
+    }
+
+    @Override
+    public void endDocument(MetaData metadata)
+    {
+        super.endDocument(addHashes(metadata));
+    }
+
+    private MetaData addHashes(MetaData metadata)
+    {
+        MetaData result = new MetaData(metadata.getMetaData());
+        result.addMetaData(SourceHashes.METADATA_KEY, this.hashes);
+        return result;
+    }
+}
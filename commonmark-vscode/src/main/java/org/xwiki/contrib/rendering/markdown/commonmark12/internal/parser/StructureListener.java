@@ -0,0 +1,167 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.xwiki.rendering.listener.HeaderLevel;
+import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.listener.WrappingListener;
+
+/**
+ * Converts the block structure of the Flexmark Model to the XWiki Model in a single listener, whatever the nesting:
+ * <ul>
+ * <li>sections are generated around headings since the notion of section doesn't exist in Markdown but XWiki
+ * requires it</li>
+ * <li>paragraphs are swallowed inside list items and definitions, since the XWiki model doesn't wrap their content
+ * inside paragraphs</li>
+ * <li>paragraphs are replaced by quotation lines inside blockquotes, since XWiki only supports paragraphs in
+ * quotations, see http://jira.xwiki.org/browse/XRENDERING-259</li>
+ * </ul>
+ * The paragraph handling of the innermost list item or blockquote applies, the enclosing ones being kept on a stack.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class StructureListener extends WrappingListener
+{
+    private static final byte PARAGRAPHS = 0;
+
+    private static final byte SWALLOWED_PARAGRAPHS = 1;
+
+    private static final byte QUOTATION_LINES = 2;
+
+    private static final byte OPENED_QUOTATION_LINE = 3;
+
+    /**
+     * The paragraph handling of each opened list item or blockquote, the innermost one being the last.
+     */
+    private byte[] modes = new byte[16];
+
+    private int modeCount;
+
+    /**
+     * Depth of heading sections that will need to be closed.
+     */
+    private int sectionDepth;
+
+    /**
+     * Swallow the paragraphs until the matching {@link #endSwallowParagraphs()}.
+     */
+    public void beginSwallowParagraphs()
+    {
+        pushMode(SWALLOWED_PARAGRAPHS);
+    }
+
+    /**
+     * Restore the paragraph handling of the enclosing element.
+     */
+    public void endSwallowParagraphs()
+    {
+        this.modeCount--;
+    }
+
+    /**
+     * Replace the paragraphs with quotation lines until the matching {@link #endQuotationLines()}.
+     */
+    public void beginQuotationLines()
+    {
+        pushMode(QUOTATION_LINES);
+    }
+
+    /**
+     * Close the opened quotation line, if any, and restore the paragraph handling of the enclosing element.
+     */
+    public void endQuotationLines()
+    {
+        if (getMode() == OPENED_QUOTATION_LINE) {
+            endQuotationLine();
+        }
+        this.modeCount--;
+    }
+
+    @Override
+    public void beginParagraph(Map<String, String> parameters)
+    {
+        switch (getMode()) {
+            case SWALLOWED_PARAGRAPHS:
+                break;
+            case OPENED_QUOTATION_LINE:
+                endQuotationLine();
+                beginQuotationLine();
+                break;
+            case QUOTATION_LINES:
+                beginQuotationLine();
+                this.modes[this.modeCount - 1] = OPENED_QUOTATION_LINE;
+                break;
+            default:
+                super.beginParagraph(parameters);
+        }
+    }
+
+    @Override
+    public void endParagraph(Map<String, String> parameters)
+    {
+        // Quotation lines are closed when the next one starts or when the blockquote ends.
+        if (getMode() == PARAGRAPHS) {
+            super.endParagraph(parameters);
+        }
+    }
+
+    @Override
+    public void beginHeader(HeaderLevel level, String id, Map<String, String> parameters)
+    {
+        if (level.getAsInt() - 1 < this.sectionDepth) {
+            for (int i = 0; i < this.sectionDepth - level.getAsInt() + 1; i++) {
+                super.endSection(Collections.emptyMap());
+            }
+            this.sectionDepth = level.getAsInt() - 1;
+        }
+
+        super.beginSection(Collections.emptyMap());
+        super.beginHeader(level, id, parameters);
+        this.sectionDepth++;
+    }
+
+    @Override
+    public void endDocument(MetaData metaData)
+    {
+        for (int i = 0; i < this.sectionDepth; i++) {
+            super.endSection(Collections.emptyMap());
+        }
+        this.sectionDepth = 0;
+        super.endDocument(metaData);
+    }
+
+    private byte getMode()
+    {
+        return this.modeCount == 0 ? PARAGRAPHS : this.modes[this.modeCount - 1];
+    }
+
+    private void pushMode(byte mode)
+    {
+        if (this.modeCount == this.modes.length) {
+            this.modes = Arrays.copyOf(this.modes, this.modeCount * 2);
+        }
+        this.modes[this.modeCount++] = mode;
+    }
+}
@@ -21,13 +21,14 @@ package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
 
 import java.util.Deque;
 
-import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfigurationSnapshot;
 import org.xwiki.rendering.listener.Listener;
 import org.xwiki.rendering.parser.StreamParser;
 
 import com.vladsch.flexmark.ast.Text;
 import com.vladsch.flexmark.util.ast.NodeVisitor;
 import com.vladsch.flexmark.util.ast.VisitHandler;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
 
 /**
  * Handle text events, including converting inline math spans to macros.
@@ -37,7 +38,7 @@ import com.vladsch.flexmark.util.ast.VisitHandler;
  */
 public class TextNodeVisitor extends AbstractNodeVisitor
 {
-    private final MarkdownConfiguration configuration;
+    private final MarkdownConfigurationSnapshot configuration;
 
     static <V extends TextNodeVisitor> VisitHandler<?>[] VISIT_HANDLERS(final V visitor)
     {
@@ -47,7 +48,7 @@ public class TextNodeVisitor extends AbstractNodeVisitor
     }
 
     public TextNodeVisitor(NodeVisitor visitor, Deque<Listener> listeners,
-        StreamParser plainTextStreamParser, MarkdownConfiguration configuration)
+        StreamParser plainTextStreamParser, MarkdownConfigurationSnapshot configuration)
     {
         super(visitor, listeners, null, plainTextStreamParser);
         this.configuration = configuration;
@@ -55,7 +56,13 @@ public class TextNodeVisitor extends AbstractNodeVisitor
 
     public void visit(Text node)
     {
-        process(node.getChars().toString());
+        BasedSequence chars = node.getChars();
+        if (chars.indexOf('$') == -1 && !MathContentPlaceholderProcessor.mayContainPlaceholder(chars)) {
+            // Most texts have no math: parse them straight from the Markdown source.
+            emitPlain(chars);
+        } else {
+            process(chars.toString());
+        }
         getVisitor().visitChildren(node);
     }
 
@@ -91,6 +98,12 @@ public class TextNodeVisitor extends AbstractNodeVisitor
 
     private void processLegacy(String value)
     {
+        if (value.indexOf('$') == -1) {
+            emitPlain(value);
+            return;
+        }
+
+        MathDelimiterScanner scanner = new MathDelimiterScanner(value);
         int index = 0;
         while (index < value.length()) {
             int open = value.indexOf('$', index);
@@ -99,7 +112,7 @@ public class TextNodeVisitor extends AbstractNodeVisitor
                 break;
             }
 
-            if (isEscaped(value, open)) {
+            if (scanner.isEscaped(open)) {
                 if (open - 1 >= index) {
                     String segment = value.substring(index, open - 1);
                     if (!segment.isEmpty()) {
@@ -118,7 +131,7 @@ public class TextNodeVisitor extends AbstractNodeVisitor
                 continue;
             }
 
-            int close = findClosing(value, open + 1);
+            int close = scanner.findInlineClosing(open + 1);
             if (close == -1) {
                 emitPlain(value.substring(index));
                 break;
@@ -137,9 +150,9 @@ public class TextNodeVisitor extends AbstractNodeVisitor
         }
     }
 
-    private void emitPlain(String text)
+    private void emitPlain(CharSequence text)
     {
-        if (!text.isEmpty()) {
+        if (text.length() > 0) {
             parseInline(text);
         }
     }
@@ -154,23 +167,6 @@ public class TextNodeVisitor extends AbstractNodeVisitor
             this.configuration.getInlineMathMacroParameters(), wrapped, true);
     }
 
-    private int findClosing(String text, int start)
-    {
-        int length = text.length();
-        for (int i = start; i < length; i++) {
-            if (text.charAt(i) != '$') {
-                continue;
-            }
-            if (isEscaped(text, i)) {
-                continue;
-            }
-            if (countRun(text, i) == 1) {
-                return i;
-            }
-        }
-        return -1;
-    }
-
     private int countRun(String text, int start)
     {
         int index = start;
@@ -180,15 +176,6 @@ public class TextNodeVisitor extends AbstractNodeVisitor
         return index - start;
     }
 
-    private boolean isEscaped(String text, int position)
-    {
-        int backslashes = 0;
-        for (int i = position - 1; i >= 0 && text.charAt(i) == '\\'; i--) {
-            backslashes++;
-        }
-        return (backslashes & 1) == 1;
-    }
-
     private boolean containsLineBreak(String text)
     {
         return text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
@@ -0,0 +1,49 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import org.xwiki.component.annotation.Role;
+
+/**
+ * Shares the instances of the frequent words, so that the XDOMs kept in memory (e.g. cached) don't hold millions of
+ * copies of the same short strings.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Role
+public interface WordInterner
+{
+    /**
+     * @param word a word
+     * @return a shared instance equal to the given word, or the given word itself if it's not (yet) shared
+     */
+    String intern(String word);
+
+    /**
+     * @return the number of words replaced by a shared instance since startup
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of words returned as is since startup
+     */
+    long getMissCount();
+}
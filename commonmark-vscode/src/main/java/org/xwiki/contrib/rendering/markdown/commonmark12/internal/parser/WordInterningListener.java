@@ -0,0 +1,50 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.WrappingListener;
+
+/**
+ * Replaces the words with their shared instance, see {@link WordInterner}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class WordInterningListener extends WrappingListener
+{
+    private final WordInterner interner;
+
+    /**
+     * @param listener the listener receiving the events with the shared words
+     * @param interner provides the shared words
+     */
+    public WordInterningListener(Listener listener, WordInterner interner)
+    {
+        setWrappedListener(listener);
+        this.interner = interner;
+    }
+
+    @Override
+    public void onWord(String word)
+    {
+        super.onWord(this.interner.intern(word));
+    }
+}
@@ -23,7 +23,9 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.MarkdownRenderEvent;
 import org.xwiki.rendering.internal.renderer.xwiki20.AbstractXWikiSyntaxRenderer;
+import org.xwiki.rendering.listener.MetaData;
 import org.xwiki.rendering.listener.chaining.ChainingListener;
 import org.xwiki.rendering.listener.chaining.ListenerChain;
 import org.xwiki.rendering.renderer.reference.ResourceReferenceSerializer;
@@ -50,11 +52,53 @@ public abstract class AbstractMarkdownRenderer extends AbstractXWikiSyntaxRender
     @Named("markdown/1.2/image")
     protected ResourceReferenceSerializer imageReferenceSerializer;
 
+    private MarkdownChainingRenderer markdownChainingRenderer;
+
+    /**
+     * Nested documents (e.g. coming from macros) are reported as part of the outermost one.
+     */
+    private int documentDepth;
+
+    private MarkdownRenderEvent renderEvent;
+
     @Override
     protected ChainingListener createXWikiSyntaxChainingRenderer(ListenerChain chain)
     {
-        return new Markdown12ChainingRenderer(chain, this.linkReferenceSerializer, this.imageReferenceSerializer,
-            getConfiguration());
+        this.markdownChainingRenderer = new Markdown12ChainingRenderer(chain, this.linkReferenceSerializer,
+            this.imageReferenceSerializer, getConfiguration());
+        return this.markdownChainingRenderer;
+    }
+
+    @Override
+    public void beginDocument(MetaData metaData)
+    {
+        if (this.documentDepth++ == 0) {
+            this.markdownChainingRenderer.getStatistics().reset();
+            this.renderEvent = new MarkdownRenderEvent();
+            this.renderEvent.begin();
+        }
+        super.beginDocument(metaData);
+    }
+
+    @Override
+    public void endDocument(MetaData metaData)
+    {
+        super.endDocument(metaData);
+        if (this.documentDepth > 0 && --this.documentDepth == 0) {
+            if (this.renderEvent.shouldCommit()) {
+                this.renderEvent.setStatistics(this.markdownChainingRenderer.getStatistics());
+                this.renderEvent.commit();
+            }
+            this.renderEvent = null;
+        }
+    }
+
+    /**
+     * @return the renderer converting the events to Markdown, at the end of the listener chain
+     */
+    public MarkdownChainingRenderer getMarkdownChainingRenderer()
+    {
+        return this.markdownChainingRenderer;
     }
 
     @Override
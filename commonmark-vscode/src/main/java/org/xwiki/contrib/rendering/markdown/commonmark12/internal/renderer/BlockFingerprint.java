@@ -0,0 +1,112 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.MetaData;
+
+/**
+ * Computes a 64-bit FNV-1a hash of the events generated by a block (names and parameters), so that the blocks with the
+ * same content can be recognized without keeping them. Going through the events rather than the blocks covers all the
+ * block types, including the ones contributed by extensions.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+final class BlockFingerprint implements InvocationHandler
+{
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long PRIME = 0x100000001b3L;
+
+    private long hash = OFFSET_BASIS;
+
+    private BlockFingerprint()
+    {
+    }
+
+    /**
+     * @param block the block to hash
+     * @return the fingerprint of the block content
+     */
+    static long compute(Block block)
+    {
+        BlockFingerprint fingerprint = new BlockFingerprint();
+        block.traverse((Listener) Proxy.newProxyInstance(Listener.class.getClassLoader(),
+            new Class<?>[] { Listener.class }, fingerprint));
+        return fingerprint.hash;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Exception
+    {
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(this, args);
+        }
+
+        update(method.getName());
+        if (args != null) {
+            update(args.length);
+            for (Object arg : args) {
+                update(arg);
+            }
+        }
+        return null;
+    }
+
+    private void update(Object value)
+    {
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            update(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                update(entry.getKey());
+                update(entry.getValue());
+            }
+        } else if (value instanceof MetaData) {
+            update(((MetaData) value).getMetaData());
+        } else if (value == null) {
+            update(-1);
+        } else {
+            // Strings, characters, booleans, enums, references and syntaxes have a representation covering their
+            // whole value.
+            update(value.toString());
+        }
+    }
+
+    private void update(String value)
+    {
+        update(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            this.hash = (this.hash ^ value.charAt(i)) * PRIME;
+        }
+    }
+
+    private void update(int value)
+    {
+        this.hash = (this.hash ^ value) * PRIME;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+
+/**
+ * Renders each top-level block on its own, identified by a fingerprint of its content, and joins their Markdown.
+ * The content of the sections is split into blocks as well.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Component
+@Named("commonmark-vscode/0.1")
+@Singleton
+public class DefaultIncrementalMarkdownRenderer implements IncrementalMarkdownRenderer
+{
+    @Inject
+    @Named("commonmark-vscode/0.1")
+    private PrintRendererFactory markdownRendererFactory;
+
+    @Override
+    public void render(XDOM xdom, WikiPrinter printer, IncrementalRenderCache cache)
+    {
+        synchronized (cache) {
+            Map<Long, MarkdownFragment> fragments = new HashMap<>();
+            MarkdownFragmentJoiner joiner = new MarkdownFragmentJoiner(printer);
+            int reused = 0;
+            int rendered = 0;
+            for (Block block : MarkdownFragment.getTopLevelBlocks(xdom)) {
+                long fingerprint = BlockFingerprint.compute(block);
+                MarkdownFragment fragment = fragments.get(fingerprint);
+                if (fragment == null) {
+                    fragment = cache.get(fingerprint);
+                }
+                if (fragment == null) {
+                    fragment = MarkdownFragment.render(block, this.markdownRendererFactory);
+                    rendered++;
+                } else {
+                    reused++;
+                }
+                fragments.put(fingerprint, fragment);
+
+                if (!joiner.canJoin(fragment)) {
+                    // The block depends on what was printed before it (e.g. inline content at the top level). It's
+                    // rendered again after the previous blocks, which is only valid at this position.
+                    fragment = MarkdownFragment.render(Collections.singletonList(block),
+                        this.markdownRendererFactory, joiner.isFirstElementRendered(), joiner.isOnNewLine());
+                    rendered++;
+                }
+                joiner.join(fragment);
+            }
+            joiner.end();
+
+            cache.update(fragments, reused, rendered);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+
+/**
+ * Renders a document to Markdown, reusing the Markdown of the top-level blocks that didn't change since the previous
+ * rendering of the same document, e.g. when saving a document edited in WYSIWYG mode where only a few paragraphs are
+ * modified between two saves. The result is the same as with the block renderer of the syntax.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Role
+public interface IncrementalMarkdownRenderer
+{
+    /**
+     * @param xdom the document to render
+     * @param printer where to print the Markdown
+     * @param cache the Markdown of the top-level blocks of the previous rendering of the document, updated with the
+     *            blocks of this one
+     */
+    void render(XDOM xdom, WikiPrinter printer, IncrementalRenderCache cache);
+}
@@ -0,0 +1,77 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The Markdown of the top-level blocks of a document, by fingerprint of their content, as rendered the last time by an
+ * {@link IncrementalMarkdownRenderer}. Only the blocks of the last rendering are kept, so a cache uses about as much
+ * memory as the Markdown of its document. A cache is meant to be kept for one edited document, e.g. in its editing
+ * session; renderings using the same cache are serialized.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class IncrementalRenderCache
+{
+    private Map<Long, MarkdownFragment> fragments = Collections.emptyMap();
+
+    private int reusedBlockCount;
+
+    private int renderedBlockCount;
+
+    /**
+     * Forgets the Markdown of all the blocks, e.g. when the rendering configuration changed.
+     */
+    public synchronized void clear()
+    {
+        this.fragments = Collections.emptyMap();
+    }
+
+    /**
+     * @return the number of top-level blocks whose Markdown was reused by the last rendering
+     */
+    public synchronized int getReusedBlockCount()
+    {
+        return this.reusedBlockCount;
+    }
+
+    /**
+     * @return the number of top-level blocks rendered by the last rendering
+     */
+    public synchronized int getRenderedBlockCount()
+    {
+        return this.renderedBlockCount;
+    }
+
+    MarkdownFragment get(long fingerprint)
+    {
+        return this.fragments.get(fingerprint);
+    }
+
+    void update(Map<Long, MarkdownFragment> newFragments, int reused, int rendered)
+    {
+        this.fragments = newFragments;
+        this.reusedBlockCount = reused;
+        this.renderedBlockCount = rendered;
+    }
+}
@@ -19,16 +19,42 @@
  */
 package org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfigurationSnapshot;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfigurationSnapshots;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownContextPropagator;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.internal.renderer.AbstractBlockRenderer;
 import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
 
 /**
  * Block Renderer for CommonMark Markdown 1.2 syntax. To be used to convert XDOM into Markdown 1.2.
+ * <p>
+ * The top-level blocks of the documents having at least {@link MarkdownConfiguration#getParallelRenderThreshold()}
+ * of them are rendered in parallel, in separate buffers joined by a {@link MarkdownFragmentJoiner}. The groups of
+ * blocks are rendered by the calling thread and by a pool of {@link MarkdownConfiguration#getParallelRenderThreads()}
+ * threads, which run them with a copy of the execution context, the context class loader and the Markdown
+ * configuration of the calling thread.
  *
  * @version $Id$
  * @since 8.4
@@ -36,15 +62,173 @@ import org.xwiki.rendering.renderer.PrintRendererFactory;
 @Component
 @Named("commonmark-vscode/0.1")
 @Singleton
-public class Markdown12BlockRenderer extends AbstractBlockRenderer
+public class Markdown12BlockRenderer extends AbstractBlockRenderer implements Initializable, Disposable
 {
+    private static final String THREAD_NAME = "Markdown render-";
+
+    /**
+     * Consecutive blocks are rendered together, in more groups than threads to balance the load.
+     */
+    private static final int FRAGMENTS_PER_THREAD = 4;
+
     @Inject
     @Named("commonmark-vscode/0.1")
     private PrintRendererFactory markdownRendererFactory;
 
+    @Inject
+    private MarkdownConfiguration configuration;
+
+    @Inject
+    private MarkdownConfigurationSnapshots configurationSnapshots;
+
+    @Inject
+    private MarkdownContextPropagator contextPropagator;
+
+    private ThreadPoolExecutor executor;
+
+    @Override
+    public void initialize()
+    {
+        int threads = Math.max(1, this.configuration.getParallelRenderThreads());
+        // No thread is started until a document is rendered in parallel.
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            createThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.executor.shutdownNow();
+    }
+
     @Override
     protected PrintRendererFactory getPrintRendererFactory()
     {
         return this.markdownRendererFactory;
     }
+
+    @Override
+    public void render(Block block, WikiPrinter printer)
+    {
+        MarkdownConfigurationSnapshot configurationSnapshot = this.configurationSnapshots.getCurrent();
+        int threshold = configurationSnapshot.getParallelRenderThreshold();
+        if (threshold > 0 && block instanceof XDOM) {
+            List<Block> blocks = MarkdownFragment.getTopLevelBlocks((XDOM) block);
+            if (blocks.size() >= threshold) {
+                renderInParallel(blocks, printer);
+                return;
+            }
+        }
+
+        super.render(block, printer);
+    }
+
+    private void renderInParallel(List<Block> blocks, WikiPrinter printer)
+    {
+        int fragmentCount =
+            Math.min(blocks.size(), (this.executor.getMaximumPoolSize() + 1) * FRAGMENTS_PER_THREAD);
+        List<List<Block>> groups = new ArrayList<>(fragmentCount);
+        List<MarkdownFragment> fragments = new ArrayList<>(fragmentCount);
+        for (int i = 0; i < fragmentCount; i++) {
+            groups.add(blocks.subList(blocks.size() * i / fragmentCount, blocks.size() * (i + 1) / fragmentCount));
+            // The renderers are created by this thread, in its context.
+            fragments.add(new MarkdownFragment(this.markdownRendererFactory, false, true));
+        }
+
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<Future<?>> rendered = new ArrayList<>(fragmentCount);
+        try {
+            for (int i = 1; i < fragmentCount; i++) {
+                MarkdownFragment fragment = fragments.get(i);
+                List<Block> group = groups.get(i);
+                // Each task gets its own copy of the execution context, since they run at the same time.
+                MarkdownContextPropagator.CapturedContext context = this.contextPropagator.capture();
+                rendered.add(this.executor.submit(() -> renderInContext(fragment, group, context, aborted)));
+            }
+            // This thread renders the first group while waiting for the others.
+            fragments.get(0).render(groups.get(0));
+            waitFor(rendered);
+        } finally {
+            // When a group failed, the groups not started yet are skipped and the ones being rendered are waited for,
+            // since their renderers were created by this thread.
+            aborted.set(true);
+            waitForEnd(rendered);
+        }
+
+        MarkdownFragmentJoiner joiner = new MarkdownFragmentJoiner(printer);
+        for (int i = 0; i < fragmentCount; i++) {
+            MarkdownFragment fragment = fragments.get(i);
+            if (!joiner.canJoin(fragment)) {
+                // The first block depends on what was printed before it (e.g. inline content at the top level).
+                fragment = MarkdownFragment.render(groups.get(i), this.markdownRendererFactory,
+                    joiner.isFirstElementRendered(), joiner.isOnNewLine());
+            }
+            joiner.join(fragment);
+        }
+        joiner.end();
+    }
+
+    private void renderInContext(MarkdownFragment fragment, List<Block> group,
+        MarkdownContextPropagator.CapturedContext context, AtomicBoolean aborted)
+    {
+        if (aborted.get()) {
+            return;
+        }
+
+        try (MarkdownContextPropagator.Scope scope = context.enter()) {
+            fragment.render(group);
+        }
+    }
+
+    private void waitFor(List<Future<?>> rendered)
+    {
+        try {
+            for (Future<?> future : rendered) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException("Failed to render the blocks in parallel", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while rendering the blocks in parallel", e);
+        }
+    }
+
+    private void waitForEnd(List<Future<?>> rendered)
+    {
+        boolean interrupted = Thread.interrupted();
+        for (Future<?> future : rendered) {
+            boolean done = false;
+            while (!done) {
+                try {
+                    future.get();
+                    done = true;
+                } catch (ExecutionException e) {
+                    // Already reported by waitFor(), or hidden by the failure that aborted the rendering.
+                    done = true;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ThreadFactory createThreadFactory()
+    {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
 }
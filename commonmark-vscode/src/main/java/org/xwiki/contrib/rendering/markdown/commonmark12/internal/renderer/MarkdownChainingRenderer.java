@@ -21,7 +21,6 @@ package org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer;
 
 import java.io.StringReader;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +30,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.input.SAXBuilder;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.RenderStatistics;
 import org.xwiki.rendering.internal.renderer.xwiki20.XWikiSyntaxListenerChain;
 import org.xwiki.rendering.listener.Format;
 import org.xwiki.rendering.listener.HeaderLevel;
@@ -58,6 +58,11 @@ public class MarkdownChainingRenderer extends AbstractChainingPrintRenderer
 
     private static final String TRIPLE_BACKTICK = BACKTICK + BACKTICK + BACKTICK;
 
+    /**
+     * Separates the blocks.
+     */
+    static final String EMPTY_LINE = "\n\n";
+
     protected ResourceReferenceSerializer linkReferenceSerializer;
 
     protected ResourceReferenceSerializer imageReferenceSerializer;
@@ -81,6 +86,21 @@ public class MarkdownChainingRenderer extends AbstractChainingPrintRenderer
 
     private Stack<Map<String, String>> abbreviations = new Stack<>();
 
+    /**
+     * Cheap counters reported by the renderer in Flight Recorder events.
+     */
+    private final RenderStatistics statistics = new RenderStatistics();
+
+    /**
+     * The printer writing to the output, as opposed to the ones buffering nested content.
+     */
+    private MarkdownEscapeWikiPrinter outputPrinter;
+
+    /**
+     * Set when rendering a top-level block on its own, to record what's needed to join it with the other blocks.
+     */
+    private MarkdownFragment fragment;
+
     /**
      * @param listenerChain the chain of listener filters used to compute various states
      * @param linkReferenceSerializer the component to use for converting {@link ResourceReference} links to strings
@@ -104,19 +124,31 @@ public class MarkdownChainingRenderer extends AbstractChainingPrintRenderer
     @Override
     public void endDocument(MetaData metaData)
     {
-        // Display abbreviations
-        if (!this.abbreviations.peek().isEmpty()) {
+        Map<String, String> documentAbbreviations = this.abbreviations.pop();
+        if (this.fragment != null && this.abbreviations.isEmpty()) {
+            // The abbreviations are displayed once all the top-level blocks of the document have been joined.
+            this.fragment.getAbbreviations().putAll(documentAbbreviations);
+        } else if (!documentAbbreviations.isEmpty()) {
+            // Display abbreviations
             printEmptyLine();
-            Iterator<Map.Entry<String, String>> it = this.abbreviations.peek().entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<String, String> entry = it.next();
-                print("*[" + entry.getKey() + "]: " + entry.getValue());
-                if (it.hasNext()) {
-                    print("\n");
-                }
+            print(formatAbbreviations(documentAbbreviations));
+        }
+    }
+
+    /**
+     * @param abbreviations the abbreviations found in a document, by abbreviated text
+     * @return the Markdown definitions of the given abbreviations, one per line
+     */
+    static String formatAbbreviations(Map<String, String> abbreviations)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, String> entry : abbreviations.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append('\n');
             }
+            builder.append("*[").append(entry.getKey()).append("]: ").append(entry.getValue());
         }
-        this.abbreviations.pop();
+        return builder.toString();
     }
 
     @Override
@@ -458,6 +490,7 @@ public class MarkdownChainingRenderer extends AbstractChainingPrintRenderer
     public void beginTable(Map<String, String> parameters)
     {
         printEmptyLine();
+        this.statistics.incrementTableCount();
         this.tableCells.push(new ArrayList<>());
         this.tableHeadRowsCount.push(0);
     }
@@ -630,7 +663,18 @@ public class MarkdownChainingRenderer extends AbstractChainingPrintRenderer
 
     public MarkdownEscapeWikiPrinter createMarkdownPrinter(WikiPrinter printer)
     {
-        return new MarkdownEscapeWikiPrinter(printer, (XWikiSyntaxListenerChain) getListenerChain());
+        MarkdownEscapeWikiPrinter markdownPrinter =
+            new MarkdownEscapeWikiPrinter(printer, (XWikiSyntaxListenerChain) getListenerChain());
+        markdownPrinter.setStatistics(this.statistics, false);
+        return markdownPrinter;
+    }
+
+    /**
+     * @return the counters gathered while rendering
+     */
+    public RenderStatistics getStatistics()
+    {
+        return this.statistics;
     }
 
     @Override
@@ -642,7 +686,11 @@ public class MarkdownChainingRenderer extends AbstractChainingPrintRenderer
         if (printer instanceof MarkdownEscapeWikiPrinter) {
             super.setPrinter(printer);
         } else {
-            super.setPrinter(createMarkdownPrinter(printer));
+            // This is the printer writing to the output, as opposed to the ones buffering nested content.
+            MarkdownEscapeWikiPrinter markdownPrinter = createMarkdownPrinter(printer);
+            markdownPrinter.setStatistics(this.statistics, true);
+            this.outputPrinter = markdownPrinter;
+            super.setPrinter(markdownPrinter);
         }
     }
 
@@ -725,12 +773,42 @@ public class MarkdownChainingRenderer extends AbstractChainingPrintRenderer
     protected void printEmptyLine()
     {
         if (this.isFirstElementRendered) {
-            print("\n\n");
+            print(EMPTY_LINE);
         } else {
             this.isFirstElementRendered = true;
+            if (this.fragment != null) {
+                this.fragment.onFirstEmptyLine(getPrinter() == this.outputPrinter
+                    && this.outputPrinter.getBuffer().length() == 0 && this.outputPrinter.isOnNewLine());
+            }
         }
     }
 
+    /**
+     * @return {@code true} if an empty line is printed before the next block, i.e. if a block has already been printed
+     */
+    public boolean isFirstElementRendered()
+    {
+        return this.isFirstElementRendered;
+    }
+
+    /**
+     * @param firstElementRendered {@code true} to print an empty line before the next block, e.g. when continuing the
+     *            rendering of a document started by another renderer
+     */
+    public void setFirstElementRendered(boolean firstElementRendered)
+    {
+        this.isFirstElementRendered = firstElementRendered;
+    }
+
+    /**
+     * @param fragment where to record the state needed to join the Markdown of the rendered top-level block with the
+     *            other blocks of its document, {@code null} when rendering whole documents
+     */
+    public void setFragment(MarkdownFragment fragment)
+    {
+        this.fragment = fragment;
+    }
+
     private BlockStateChainingListener getBlockState()
     {
         return getXWikiSyntaxListenerChain().getBlockStateChainingListener();
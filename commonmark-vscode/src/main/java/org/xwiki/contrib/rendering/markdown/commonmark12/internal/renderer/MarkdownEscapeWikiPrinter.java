@@ -19,6 +19,7 @@
  */
 package org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer;
 
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.RenderStatistics;
 import org.xwiki.rendering.internal.renderer.xwiki20.XWikiSyntaxListenerChain;
 import org.xwiki.rendering.renderer.printer.LookaheadWikiPrinter;
 import org.xwiki.rendering.renderer.printer.WikiPrinter;
@@ -39,6 +40,10 @@ public class MarkdownEscapeWikiPrinter extends LookaheadWikiPrinter
 
     private String lastPrinted;
 
+    private RenderStatistics statistics;
+
+    private boolean countOutput;
+
     public MarkdownEscapeWikiPrinter(WikiPrinter printer, XWikiSyntaxListenerChain listenerChain)
     {
         super(printer);
@@ -48,11 +53,25 @@ public class MarkdownEscapeWikiPrinter extends LookaheadWikiPrinter
         this.listenerChain = listenerChain;
     }
 
+    /**
+     * @param statistics where to count the escape flushes, and the printed characters if this is the output printer
+     * @param countOutput {@code true} if this printer writes to the final output (and not to a nested buffer)
+     */
+    public void setStatistics(RenderStatistics statistics, boolean countOutput)
+    {
+        this.statistics = statistics;
+        this.countOutput = countOutput;
+    }
+
     @Override
     protected void printInternal(String text)
     {
         super.printInternal(text);
 
+        if (this.countOutput) {
+            this.statistics.addOutputLength(text.length());
+        }
+
         int length = text.length();
 
         if (length > 0) {
@@ -67,6 +86,10 @@ public class MarkdownEscapeWikiPrinter extends LookaheadWikiPrinter
     {
         super.printlnInternal(text);
 
+        if (this.countOutput) {
+            this.statistics.addOutputLength(text.length() + 1L);
+        }
+
         this.escapeHandler.setOnNewLine(true);
 
         this.lastPrinted = "\n";
@@ -76,6 +99,9 @@ public class MarkdownEscapeWikiPrinter extends LookaheadWikiPrinter
     public void flush()
     {
         if (getBuffer().length() > 0) {
+            if (this.statistics != null) {
+                this.statistics.incrementEscapeFlushCount();
+            }
             this.escapeHandler.escape(getBuffer(), this.listenerChain);
             super.flush();
         }
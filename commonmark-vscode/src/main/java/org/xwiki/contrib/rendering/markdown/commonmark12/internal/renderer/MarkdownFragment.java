@@ -0,0 +1,212 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.SectionBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+
+/**
+ * The Markdown of a top-level block (or of consecutive top-level blocks) rendered on its own, with what's needed to
+ * join it with the Markdown of the other top-level blocks of its document, see {@link MarkdownFragmentJoiner}.
+ * <p>
+ * The only state shared by the top-level blocks is whether an empty line must be printed before the next block (when a
+ * block has already been printed), whether the output ends with a new line (which drives the escaping) and the
+ * abbreviations displayed at the end of the document. A block is rendered for a given state, and most blocks start with
+ * an empty line before printing anything, which makes them valid after any previous block.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public final class MarkdownFragment
+{
+    private final DefaultWikiPrinter printer = new DefaultWikiPrinter();
+
+    private final boolean firstElementRendered;
+
+    private final boolean onNewLine;
+
+    private final Map<String, String> abbreviations = new LinkedHashMap<>();
+
+    private AbstractMarkdownRenderer renderer;
+
+    private boolean leadingEmptyLine;
+
+    private boolean emptyLineRequested;
+
+    private String markdown;
+
+    /**
+     * Creates the renderer of the fragment, from the calling thread since the creation of the renderers may depend on
+     * its context.
+     *
+     * @param rendererFactory creates the Markdown renderers
+     * @param firstElementRendered {@code true} if a block has been printed before the fragment
+     * @param onNewLine {@code true} if the Markdown printed before the fragment ends with a new line (or is empty)
+     */
+    MarkdownFragment(PrintRendererFactory rendererFactory, boolean firstElementRendered, boolean onNewLine)
+    {
+        this.firstElementRendered = firstElementRendered;
+        this.onNewLine = onNewLine;
+        this.renderer = (AbstractMarkdownRenderer) rendererFactory.createRenderer(this.printer);
+        MarkdownChainingRenderer chainingRenderer = this.renderer.getMarkdownChainingRenderer();
+        chainingRenderer.setFragment(this);
+        chainingRenderer.setFirstElementRendered(firstElementRendered);
+        chainingRenderer.getMarkdownPrinter().setOnNewLine(onNewLine);
+    }
+
+    /**
+     * @param xdom a document
+     * @return the blocks of the document to render separately: its top-level blocks, the sections being replaced by
+     *         their content since they print nothing (otherwise a document starting with a heading would be a single
+     *         block)
+     */
+    public static List<Block> getTopLevelBlocks(XDOM xdom)
+    {
+        List<Block> blocks = new ArrayList<>();
+        addTopLevelBlocks(xdom.getChildren(), blocks);
+        return blocks;
+    }
+
+    private static void addTopLevelBlocks(List<Block> children, List<Block> blocks)
+    {
+        for (Block child : children) {
+            if (child instanceof SectionBlock) {
+                addTopLevelBlocks(child.getChildren(), blocks);
+            } else {
+                blocks.add(child);
+            }
+        }
+    }
+
+    /**
+     * Renders a top-level block as if it was the first one of its document.
+     *
+     * @param block the top-level block to render
+     * @param rendererFactory creates the Markdown renderers
+     * @return the rendered fragment
+     */
+    public static MarkdownFragment render(Block block, PrintRendererFactory rendererFactory)
+    {
+        return render(Collections.singletonList(block), rendererFactory, false, true);
+    }
+
+    /**
+     * Renders consecutive top-level blocks as if they followed the blocks that left the given state.
+     *
+     * @param blocks the top-level blocks to render
+     * @param rendererFactory creates the Markdown renderers
+     * @param firstElementRendered {@code true} if a block has already been printed
+     * @param onNewLine {@code true} if the Markdown printed so far ends with a new line (or is empty)
+     * @return the rendered fragment
+     */
+    public static MarkdownFragment render(List<Block> blocks, PrintRendererFactory rendererFactory,
+        boolean firstElementRendered, boolean onNewLine)
+    {
+        return new MarkdownFragment(rendererFactory, firstElementRendered, onNewLine).render(blocks);
+    }
+
+    /**
+     * @param blocks the consecutive top-level blocks to render, only once
+     * @return this fragment
+     */
+    MarkdownFragment render(List<Block> blocks)
+    {
+        this.renderer.beginDocument(MetaData.EMPTY);
+        for (Block block : blocks) {
+            block.traverse(this.renderer);
+        }
+        this.renderer.endDocument(MetaData.EMPTY);
+
+        this.emptyLineRequested = this.renderer.getMarkdownChainingRenderer().isFirstElementRendered();
+        this.markdown = this.printer.toString();
+        this.renderer = null;
+        return this;
+    }
+
+    /**
+     * Called when the block needs to be separated from a previous block for the first time.
+     *
+     * @param atLineStart {@code true} if the output ends with a new line and has no pending content to escape
+     */
+    void onFirstEmptyLine(boolean atLineStart)
+    {
+        this.leadingEmptyLine = atLineStart && this.printer.getBuffer().length() == 0;
+    }
+
+    /**
+     * @param previousFirstElementRendered {@code true} if a block has been printed before this fragment
+     * @param previousOnNewLine {@code true} if the Markdown printed before this fragment ends with a new line
+     * @return {@code true} if joining this fragment after the Markdown printed so far gives the same result as a
+     *         rendering of the whole document
+     */
+    public boolean isJoinable(boolean previousFirstElementRendered, boolean previousOnNewLine)
+    {
+        // Rendered in the same state.
+        return (previousFirstElementRendered == this.firstElementRendered && previousOnNewLine == this.onNewLine)
+            // Printed nothing, whatever the state.
+            || (!this.emptyLineRequested && this.markdown.isEmpty())
+            // Rendered as the first block, printing nothing before the empty line that separates it from the
+            // previous block.
+            || (previousFirstElementRendered && this.leadingEmptyLine);
+    }
+
+    /**
+     * @return {@code true} if an empty line must be printed before the Markdown of this fragment when a block has been
+     *         printed before it
+     */
+    public boolean hasLeadingEmptyLine()
+    {
+        return this.leadingEmptyLine;
+    }
+
+    /**
+     * @return {@code true} if a block printed after this fragment must be separated from it by an empty line
+     */
+    public boolean isEmptyLineRequested()
+    {
+        return this.emptyLineRequested;
+    }
+
+    /**
+     * @return the Markdown of the block, without the abbreviation definitions
+     */
+    public String getMarkdown()
+    {
+        return this.markdown;
+    }
+
+    /**
+     * @return the abbreviations used in the block, displayed at the end of its document
+     */
+    public Map<String, String> getAbbreviations()
+    {
+        return this.abbreviations;
+    }
+}
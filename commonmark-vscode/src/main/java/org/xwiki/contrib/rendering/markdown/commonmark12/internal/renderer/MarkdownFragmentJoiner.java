@@ -0,0 +1,115 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+
+/**
+ * Prints the Markdown of the top-level blocks of a document, rendered separately, as a single renderer would have
+ * printed it: the blocks are separated by empty lines and the abbreviations used in all the blocks are displayed at
+ * the end.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class MarkdownFragmentJoiner
+{
+    private final WikiPrinter printer;
+
+    private final Map<String, String> abbreviations = new LinkedHashMap<>();
+
+    private boolean firstElementRendered;
+
+    private boolean onNewLine = true;
+
+    /**
+     * @param printer where to print the Markdown of the document
+     */
+    public MarkdownFragmentJoiner(WikiPrinter printer)
+    {
+        this.printer = printer;
+    }
+
+    /**
+     * @param fragment the next top-level block of the document
+     * @return {@code true} if the fragment can be joined, {@code false} if the block must be rendered again for the
+     *         state left by the previous blocks, see {@link MarkdownFragment#render(org.xwiki.rendering.block.Block,
+     *         org.xwiki.rendering.renderer.PrintRendererFactory, boolean, boolean)}
+     */
+    public boolean canJoin(MarkdownFragment fragment)
+    {
+        return fragment.isJoinable(this.firstElementRendered, this.onNewLine);
+    }
+
+    /**
+     * @param fragment the next top-level block of the document, which must be joinable
+     */
+    public void join(MarkdownFragment fragment)
+    {
+        if (this.firstElementRendered && fragment.hasLeadingEmptyLine()) {
+            print(MarkdownChainingRenderer.EMPTY_LINE);
+        }
+        print(fragment.getMarkdown());
+        this.firstElementRendered |= fragment.isEmptyLineRequested();
+        // Same as the renderer: the first use of an abbreviation gives its position, the last one its definition.
+        this.abbreviations.putAll(fragment.getAbbreviations());
+    }
+
+    /**
+     * Displays the abbreviations once all the blocks have been joined.
+     */
+    public void end()
+    {
+        if (!this.abbreviations.isEmpty()) {
+            if (this.firstElementRendered) {
+                print(MarkdownChainingRenderer.EMPTY_LINE);
+            }
+            print(MarkdownChainingRenderer.formatAbbreviations(this.abbreviations));
+        }
+    }
+
+    /**
+     * @return {@code true} if a block has been printed, in which case the next one is separated from it by an empty
+     *         line
+     */
+    public boolean isFirstElementRendered()
+    {
+        return this.firstElementRendered;
+    }
+
+    /**
+     * @return {@code true} if the Markdown printed so far ends with a new line (or is empty)
+     */
+    public boolean isOnNewLine()
+    {
+        return this.onNewLine;
+    }
+
+    private void print(String text)
+    {
+        if (!text.isEmpty()) {
+            this.printer.print(text);
+            this.onNewLine = text.charAt(text.length() - 1) == '\n';
+        }
+    }
+}
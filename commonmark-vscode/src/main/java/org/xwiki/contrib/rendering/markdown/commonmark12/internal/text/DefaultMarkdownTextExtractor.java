@@ -0,0 +1,73 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.text;
+
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfigurationSnapshots;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.StreamParser;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+
+/**
+ * Streams the events generated from the Flexmark AST straight to the plain text renderer, the math macros being
+ * turned into verbatim text on the way.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Component
+@Named("commonmark-vscode/0.1")
+@Singleton
+public class DefaultMarkdownTextExtractor implements MarkdownTextExtractor
+{
+    @Inject
+    @Named("commonmark-vscode/0.1")
+    private StreamParser streamParser;
+
+    @Inject
+    @Named("plain/1.0")
+    private PrintRendererFactory plainRendererFactory;
+
+    @Inject
+    private MarkdownConfigurationSnapshots configurationSnapshots;
+
+    @Override
+    public void extract(Reader source, Appendable output) throws ParseException
+    {
+        MathTextListener listener = new MathTextListener(
+            this.plainRendererFactory.createRenderer(new AppendableWikiPrinter(output)),
+            this.configurationSnapshots.getCurrent().getMathMacroId());
+        try {
+            this.streamParser.parse(source, listener);
+        } catch (ParseException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw new ParseException("Failed to write the text of the Markdown content", e.getCause().getCause());
+            }
+            throw e;
+        }
+    }
+}
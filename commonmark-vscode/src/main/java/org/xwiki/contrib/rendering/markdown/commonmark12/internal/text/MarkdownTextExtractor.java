@@ -0,0 +1,43 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.text;
+
+import java.io.Reader;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.parser.ParseException;
+
+/**
+ * Extracts the text of Markdown content, e.g. for search indexing, without building its XDOM.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Role
+public interface MarkdownTextExtractor
+{
+    /**
+     * @param source the Markdown content
+     * @param output receives the same text as the {@code plain/1.0} renderer would generate from the XDOM of the
+     *            content, plus the content of the math expressions
+     * @throws ParseException if the content can't be parsed or the output can't be written
+     */
+    void extract(Reader source, Appendable output) throws ParseException;
+}
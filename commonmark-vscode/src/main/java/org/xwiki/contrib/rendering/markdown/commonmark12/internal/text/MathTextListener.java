@@ -0,0 +1,69 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.text;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.WrappingListener;
+
+/**
+ * Replaces the math macros by verbatim text, so that the plain text renderer (which ignores macros) outputs the math
+ * expressions, without their {@code \(...\)} or {@code \[...\]} delimiters.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class MathTextListener extends WrappingListener
+{
+    private final String mathMacroId;
+
+    /**
+     * @param listener the listener receiving the events, with the math macros replaced
+     * @param mathMacroId the id of the macro used for the math expressions
+     */
+    public MathTextListener(Listener listener, String mathMacroId)
+    {
+        setWrappedListener(listener);
+        this.mathMacroId = mathMacroId;
+    }
+
+    @Override
+    public void onMacro(String id, Map<String, String> parameters, String content, boolean inline)
+    {
+        if (this.mathMacroId.equals(id) && content != null) {
+            super.onVerbatim(stripDelimiters(content.trim()), inline, Collections.emptyMap());
+        } else {
+            super.onMacro(id, parameters, content, inline);
+        }
+    }
+
+    private String stripDelimiters(String content)
+    {
+        if (content.length() >= 4 && content.charAt(0) == '\\'
+            && (content.startsWith("\\(") && content.endsWith("\\)")
+                || content.startsWith("\\[") && content.endsWith("\\]")))
+        {
+            return content.substring(2, content.length() - 2).trim();
+        }
+        return content;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.xhtml;
+
+import java.io.Reader;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.ExtensionProfile;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.MacroNodes;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.ParseCancellationToken;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.ProfiledStreamParser;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.configuration.RenderingConfiguration;
+import org.xwiki.rendering.internal.parser.XDOMGeneratorListener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.TransformationContext;
+import org.xwiki.rendering.transformation.TransformationException;
+import org.xwiki.rendering.transformation.TransformationManager;
+
+import static org.xwiki.contrib.rendering.markdown.commonmark12.internal.CommonMark12SyntaxProvider.COMMONMARK_VSCODE_0_1;
+
+/**
+ * Streams the events of the content straight to the XHTML renderer. The path is chosen once the Flexmark AST of the
+ * content is built, before any event is generated: when the AST has nodes that become macros (including math and
+ * HTML), or when transformations other than the macro one are configured, the content goes through the standard
+ * pipeline instead: XDOM, transformations and XHTML block renderer, so that the macros see the whole document.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Component
+@Named("commonmark-vscode/0.1")
+@Singleton
+public class DefaultMarkdownXHTMLRenderer implements MarkdownXHTMLRenderer
+{
+    private static final String XHTML = "xhtml/1.0";
+
+    private static final String MACRO_TRANSFORMATION = "macro";
+
+    @Inject
+    @Named("commonmark-vscode/0.1")
+    private ProfiledStreamParser streamParser;
+
+    /**
+     * Looked up when needed since the XHTML syntax and the transformations are provided by the platform.
+     */
+    @Inject
+    @Named(XHTML)
+    private Provider<PrintRendererFactory> xhtmlRendererFactoryProvider;
+
+    @Inject
+    @Named(XHTML)
+    private Provider<BlockRenderer> xhtmlBlockRendererProvider;
+
+    @Inject
+    private Provider<TransformationManager> transformationManagerProvider;
+
+    @Inject
+    private Provider<RenderingConfiguration> renderingConfigurationProvider;
+
+    @Override
+    public void render(Reader source, TransformationContext context, WikiPrinter printer) throws ParseException
+    {
+        // The other transformations (e.g. the icons) can change any block, so they always need the XDOM.
+        boolean transformationsNeeded = !Collections.singletonList(MACRO_TRANSFORMATION)
+            .equals(this.renderingConfigurationProvider.get().getTransformationNames());
+        XDOMGeneratorListener xdomGenerator = new XDOMGeneratorListener();
+        AtomicBoolean transformed = new AtomicBoolean();
+        this.streamParser.parse(source, document -> {
+            if (transformationsNeeded || document != null && MacroNodes.contains(document)) {
+                transformed.set(true);
+                return xdomGenerator;
+            }
+            return this.xhtmlRendererFactoryProvider.get().createRenderer(printer);
+        }, ExtensionProfile.FULL, new ParseCancellationToken());
+
+        if (transformed.get()) {
+            renderTransformed(xdomGenerator.getXDOM(), context, printer);
+        }
+    }
+
+    private void renderTransformed(XDOM xdom, TransformationContext context, WikiPrinter printer)
+        throws ParseException
+    {
+        context.setXDOM(xdom);
+        if (context.getSyntax() == null) {
+            context.setSyntax(COMMONMARK_VSCODE_0_1);
+        }
+        if (context.getTargetSyntax() == null) {
+            context.setTargetSyntax(Syntax.XHTML_1_0);
+        }
+        try {
+            this.transformationManagerProvider.get().performTransformations(xdom, context);
+        } catch (TransformationException e) {
+            throw new ParseException("Failed to execute the macros of the Markdown content", e);
+        }
+        this.xhtmlBlockRendererProvider.get().render(xdom, printer);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.xhtml;
+
+import java.io.Reader;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.transformation.TransformationContext;
+
+/**
+ * Renders Markdown content to XHTML for read-only views, without building the XDOM of the content that doesn't need
+ * the macro transformation. The content containing macros (including math and HTML) goes through the standard
+ * pipeline, and so does any content when transformations other than the macro one are configured.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@Role
+public interface MarkdownXHTMLRenderer
+{
+    /**
+     * @param source the Markdown content to render
+     * @param printer receives the same XHTML as the XHTML renderer would generate from the transformed XDOM of the
+     *            content
+     * @throws ParseException if the content can't be parsed or its macros can't be executed
+     */
+    default void render(Reader source, WikiPrinter printer) throws ParseException
+    {
+        render(source, new TransformationContext(), printer);
+    }
+
+    /**
+     * @param source the Markdown content to render
+     * @param context the context of the transformations, used if the content contains macros, e.g. to execute them
+     *            with the id and the restricted mode of the calling document; its XDOM is set to the one of the content
+     * @param printer receives the same XHTML as the XHTML renderer would generate from the transformed XDOM of the
+     *            content
+     * @throws ParseException if the content can't be parsed or its macros can't be executed
+     */
+    void render(Reader source, TransformationContext context, WikiPrinter printer) throws ParseException;
+}
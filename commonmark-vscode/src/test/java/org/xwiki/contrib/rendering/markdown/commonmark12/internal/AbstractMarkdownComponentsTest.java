@@ -0,0 +1,84 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.xwiki.rendering.wiki.WikiModel;
+import org.xwiki.test.annotation.AllComponents;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.mockito.MockitoComponentManagerRule;
+
+/**
+ * Base class of the tests running the Markdown parser and renderers with all the rendering components, in wiki mode as
+ * {@link Markdown12SpecificTest}. The System properties configuring the syntax must be set with
+ * {@link #setProperty(String, String)} so that they are cleared after each test.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@AllComponents
+public abstract class AbstractMarkdownComponentsTest
+{
+    /**
+     * The id of the tested syntax.
+     */
+    protected static final String SYNTAX = "commonmark-vscode/0.1";
+
+    @Rule
+    public MockitoComponentManagerRule mocker = new MockitoComponentManagerRule();
+
+    private final Set<String> properties = new HashSet<>();
+
+    @BeforeComponent
+    public void registerWikiModel() throws Exception
+    {
+        // Parse the wiki link references as document references, not as URLs.
+        this.mocker.registerMockComponent(WikiModel.class);
+    }
+
+    @After
+    public void clearProperties()
+    {
+        for (String key : this.properties) {
+            System.clearProperty(key);
+        }
+        this.properties.clear();
+    }
+
+    /**
+     * Sets a System property until the end of the test.
+     *
+     * @param key the name of the property
+     * @param value the value of the property, {@code null} to remove it
+     */
+    protected void setProperty(String key, String value)
+    {
+        if (value != null) {
+            System.setProperty(key, value);
+        } else {
+            System.clearProperty(key);
+        }
+        this.properties.add(key);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.bridge.DocumentModelBridge;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.FastAutolinkExtension;
+import org.xwiki.model.ModelContext;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.observation.EventListener;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.mockito.MockitoComponentManagerRule;
+
+import com.vladsch.flexmark.ext.tables.TablesExtension;
+import com.vladsch.flexmark.util.misc.Extension;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultMarkdownConfigurationSnapshots}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@ComponentList({
+    DefaultMarkdownConfigurationSnapshots.class,
+    DefaultMarkdownConfiguration.class,
+    MarkdownConfigurationChangedListener.class
+})
+public class DefaultMarkdownConfigurationSnapshotsTest
+{
+    @Rule
+    public MockitoComponentManagerRule mocker = new MockitoComponentManagerRule();
+
+    private ConfigurationSource wikiConfiguration;
+
+    private String currentWiki;
+
+    private MarkdownConfigurationSnapshots snapshots;
+
+    @BeforeComponent
+    public void setUpComponents() throws Exception
+    {
+        this.wikiConfiguration = this.mocker.registerMockComponent(ConfigurationSource.class, "wiki");
+
+        ModelContext modelContext = this.mocker.registerMockComponent(ModelContext.class);
+        when(modelContext.getCurrentEntityReference())
+            .thenAnswer(invocation -> this.currentWiki != null ? new WikiReference(this.currentWiki) : null);
+    }
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.snapshots = this.mocker.getInstance(MarkdownConfigurationSnapshots.class);
+    }
+
+    @Test
+    public void defaultConfiguration()
+    {
+        MarkdownConfigurationSnapshot snapshot = this.snapshots.getCurrent();
+
+        assertEquals(DefaultMarkdownConfigurationSnapshots.DEFAULT_WIKI, snapshot.getWikiId());
+        assertEquals("mathjax", snapshot.getMathMacroId());
+        assertEquals(Collections.emptyMap(), snapshot.getInlineMathMacroParameters());
+        assertTrue(hasExtension(snapshot, FastAutolinkExtension.class));
+        assertSame(snapshot, this.snapshots.getCurrent());
+    }
+
+    @Test
+    public void snapshotPerWiki()
+    {
+        when(this.wikiConfiguration.getProperty(DefaultMarkdownConfigurationSnapshots.MATH_MACRO, String.class))
+            .thenReturn("formula");
+        when(this.wikiConfiguration.getProperty(
+            DefaultMarkdownConfigurationSnapshots.INLINE_MATH_MACRO_PARAMETERS, String.class))
+            .thenReturn("inline = true, size=small");
+        when(this.wikiConfiguration.getProperty(DefaultMarkdownConfigurationSnapshots.DISABLED_EXTENSIONS,
+            String.class)).thenReturn("AutolinkExtension, " + TablesExtension.class.getName());
+        this.currentWiki = "subwiki";
+
+        MarkdownConfigurationSnapshot subwiki = this.snapshots.getCurrent();
+
+        assertEquals("subwiki", subwiki.getWikiId());
+        assertEquals("formula", subwiki.getMathMacroId());
+        Map<String, String> expectedParameters = new HashMap<>();
+        expectedParameters.put("inline", "true");
+        expectedParameters.put("size", "small");
+        assertEquals(expectedParameters, subwiki.getInlineMathMacroParameters());
+        // The fast autolink extension is disabled under the name of the Flexmark extension it replaces.
+        assertFalse(hasExtension(subwiki, FastAutolinkExtension.class));
+        assertFalse(hasExtension(subwiki, TablesExtension.class));
+
+        when(this.wikiConfiguration.getProperty(DefaultMarkdownConfigurationSnapshots.MATH_MACRO, String.class))
+            .thenReturn("mathjax");
+        this.currentWiki = "otherwiki";
+
+        assertEquals("mathjax", this.snapshots.getCurrent().getMathMacroId());
+
+        this.currentWiki = "subwiki";
+
+        assertSame(subwiki, this.snapshots.getCurrent());
+    }
+
+    @Test
+    public void invalidateOnConfigurationChange() throws Exception
+    {
+        this.currentWiki = "subwiki";
+        MarkdownConfigurationSnapshot snapshot = this.snapshots.getCurrent();
+
+        MarkdownConfigurationChangedListener listener = this.mocker.getInstance(
+            EventListener.class, MarkdownConfigurationChangedListener.NAME);
+
+        listener.onEvent(new MarkdownConfigurationChangedEvent("otherwiki"), null, null);
+        assertSame(snapshot, this.snapshots.getCurrent());
+
+        listener.onEvent(new MarkdownConfigurationChangedEvent("subwiki"), null, null);
+        MarkdownConfigurationSnapshot newSnapshot = this.snapshots.getCurrent();
+        assertNotSame(snapshot, newSnapshot);
+
+        listener.onEvent(new MarkdownConfigurationChangedEvent(), null, null);
+        assertNotSame(newSnapshot, this.snapshots.getCurrent());
+    }
+
+    @Test
+    public void invalidateOnPreferencesUpdate() throws Exception
+    {
+        this.currentWiki = "subwiki";
+        MarkdownConfigurationSnapshot snapshot = this.snapshots.getCurrent();
+
+        EventListener listener =
+            this.mocker.getInstance(EventListener.class, MarkdownConfigurationChangedListener.NAME);
+        assertTrue(listener.getEvents().stream().anyMatch(DocumentUpdatedEvent.class::isInstance));
+
+        listener.onEvent(new DocumentUpdatedEvent(), getDocument("subwiki", "Main", "WebHome"), null);
+        assertSame(snapshot, this.snapshots.getCurrent());
+
+        listener.onEvent(new DocumentUpdatedEvent(), getDocument("otherwiki", "XWiki", "XWikiPreferences"), null);
+        assertSame(snapshot, this.snapshots.getCurrent());
+
+        listener.onEvent(new DocumentUpdatedEvent(), getDocument("subwiki", "XWiki", "XWikiPreferences"), null);
+        assertNotSame(snapshot, this.snapshots.getCurrent());
+    }
+
+    private DocumentModelBridge getDocument(String wiki, String space, String page)
+    {
+        DocumentModelBridge document = mock(DocumentModelBridge.class);
+        when(document.getDocumentReference()).thenReturn(new DocumentReference(wiki, space, page));
+        return document;
+    }
+
+    private boolean hasExtension(MarkdownConfigurationSnapshot snapshot, Class<? extends Extension> extensionClass)
+    {
+        return snapshot.getExtensions().stream().anyMatch(extensionClass::isInstance);
+    }
+}
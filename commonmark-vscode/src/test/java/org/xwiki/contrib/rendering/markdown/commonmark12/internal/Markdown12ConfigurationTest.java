@@ -65,7 +65,8 @@ import static org.mockito.Mockito.when;
         Markdown12RendererCompat.class,
         Markdown12LinkReferenceSerializer.class,
         Markdown12ImageReferenceSerializer.class,
-        XWiki20ResourceReferenceTypeSerializer.class
+        XWiki20ResourceReferenceTypeSerializer.class,
+        DefaultMarkdownConfigurationSnapshots.class
     })
 public class Markdown12ConfigurationTest
 {
@@ -26,7 +26,9 @@ import java.io.StringReader;
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.JMXMarkdownMetrics;
 import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.DefaultFlexmarkNodeVisitor;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.DefaultResourceReferenceCache;
 import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.Markdown12Parser;
 import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.Markdown12ParserCompat;
 import org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.Markdown12StreamParser;
@@ -65,7 +67,10 @@ import static org.mockito.ArgumentMatchers.any;
         Markdown12ParserCompat.class,
         Markdown12StreamParser.class,
         Markdown12StreamParserCompat.class,
-        DefaultFlexmarkNodeVisitor.class
+        DefaultFlexmarkNodeVisitor.class,
+        DefaultResourceReferenceCache.class,
+        JMXMarkdownMetrics.class,
+        DefaultMarkdownConfigurationSnapshots.class
     })
 public class Markdown12SpaceIntoNewlineTest
 {
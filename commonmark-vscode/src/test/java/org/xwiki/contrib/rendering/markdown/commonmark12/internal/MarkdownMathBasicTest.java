@@ -42,7 +42,10 @@ import static org.mockito.Mockito.when;
         org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.Markdown12ParserCompat.class,
         org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.Markdown12StreamParserCompat.class,
         org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.DefaultFlexmarkNodeVisitor.class,
-        org.xwiki.contrib.rendering.markdown.commonmark12.internal.DefaultMarkdownConfiguration.class
+        org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser.DefaultResourceReferenceCache.class,
+        org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.JMXMarkdownMetrics.class,
+        org.xwiki.contrib.rendering.markdown.commonmark12.internal.DefaultMarkdownConfiguration.class,
+        org.xwiki.contrib.rendering.markdown.commonmark12.internal.DefaultMarkdownConfigurationSnapshots.class
 })
 public class MarkdownMathBasicTest
 {
@@ -0,0 +1,193 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.export;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.DefaultMarkdownConfiguration;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.ExportMetrics;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.JMXMarkdownMetrics;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.mockito.MockitoComponentManagerRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Unit tests for {@link DefaultMarkdownExporter}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@ComponentList({
+    DefaultMarkdownExporter.class,
+    JMXMarkdownMetrics.class,
+    DefaultMarkdownConfiguration.class
+})
+public class DefaultMarkdownExporterTest
+{
+    private static final String THREADS = "xwiki.commonmarkvscode.export.threads";
+
+    private static final int DOCUMENT_COUNT = 50;
+
+    private static final int FAILING_DOCUMENT = 7;
+
+    @Rule
+    public MockitoComponentManagerRule mocker = new MockitoComponentManagerRule();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeComponent
+    public void setUpComponents() throws Exception
+    {
+        System.setProperty(THREADS, "4");
+
+        // Renders each document as its single word, repeated so that it takes several write buffers.
+        BlockRenderer renderer = this.mocker.registerMockComponent(BlockRenderer.class, "commonmark-vscode/0.1");
+        doAnswer(invocation -> {
+            XDOM xdom = invocation.getArgument(0);
+            ((WikiPrinter) invocation.getArgument(1)).print(render(xdom.getFirstChild()));
+            return null;
+        }).when(renderer).render(any(XDOM.class), any(WikiPrinter.class));
+    }
+
+    @After
+    public void tearDown()
+    {
+        System.clearProperty(THREADS);
+    }
+
+    @Test
+    public void exportToDirectory() throws Exception
+    {
+        Path root = this.folder.newFolder().toPath();
+        ExportMetrics metrics = export(new DirectoryExportTarget(root));
+
+        assertMetrics(metrics);
+        for (int i = 0; i < DOCUMENT_COUNT; i++) {
+            Path file = root.resolve(getPath(i));
+            if (i == FAILING_DOCUMENT) {
+                assertFalse(Files.exists(file));
+            } else {
+                assertEquals(render(new WordBlock(getWord(i))),
+                    new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    public void exportToZip() throws Exception
+    {
+        Path zip = this.folder.newFile("export.zip").toPath();
+        ExportMetrics metrics;
+        try (ZipExportTarget target = new ZipExportTarget(zip)) {
+            metrics = export(target);
+        }
+
+        assertMetrics(metrics);
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            assertEquals(DOCUMENT_COUNT - 1, zipFile.size());
+            ZipEntry entry = zipFile.getEntry(getPath(3));
+            assertEquals(render(new WordBlock(getWord(3))),
+                new String(zipFile.getInputStream(entry).readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void invalidPath() throws Exception
+    {
+        try {
+            new DirectoryExportTarget(this.folder.newFolder().toPath()).openEntry("../outside.md");
+            fail("The export should not write outside of its root directory");
+        } catch (IOException expected) {
+            // Expected.
+        }
+    }
+
+    private ExportMetrics export(ExportTarget target) throws Exception
+    {
+        List<ExportDocument> documents = new ArrayList<>();
+        for (int i = 0; i < DOCUMENT_COUNT; i++) {
+            XDOM xdom = new XDOM(Collections.<Block>singletonList(new WordBlock(getWord(i))));
+            boolean failing = i == FAILING_DOCUMENT;
+            documents.add(new ExportDocument(getPath(i), () -> {
+                if (failing) {
+                    throw new IllegalStateException("Failed to load the document");
+                }
+                return xdom;
+            }));
+        }
+
+        ExportMetrics metrics = new ExportMetrics();
+        this.mocker.<MarkdownExporter>getInstance(MarkdownExporter.class, "commonmark-vscode/0.1")
+            .export(documents.iterator(), target, metrics);
+        return metrics;
+    }
+
+    private void assertMetrics(ExportMetrics metrics)
+    {
+        assertEquals(DOCUMENT_COUNT - 1, metrics.getExportedCount());
+        assertEquals(1, metrics.getFailedCount());
+        assertEquals(0, metrics.getActiveCount());
+        assertEquals((DOCUMENT_COUNT - 1) * 10000L * 4, metrics.getWrittenBytes());
+    }
+
+    private static String render(Block block)
+    {
+        // Ends with a 2-byte character to check the encoding at the buffer boundaries.
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            content.append(((WordBlock) block).getWord()).append('é');
+        }
+        return content.toString();
+    }
+
+    private static String getWord(int index)
+    {
+        return String.format("%02d", index);
+    }
+
+    private static String getPath(int index)
+    {
+        return String.format("Space%d/Page%d.md", index % 5, index);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.mockito.MockitoComponentManagerRule;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.xwiki.contrib.rendering.markdown.commonmark12.internal.CommonMark12SyntaxProvider.COMMONMARK_VSCODE_0_1;
+
+/**
+ * Unit tests for {@link JMXMarkdownMetrics}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@ComponentList({
+    JMXMarkdownMetrics.class
+})
+public class JMXMarkdownMetricsTest
+{
+    @Rule
+    public MockitoComponentManagerRule mocker = new MockitoComponentManagerRule();
+
+    @BeforeComponent
+    public void setUpComponents() throws Exception
+    {
+        this.mocker.registerMockComponent(MarkdownConfiguration.class);
+    }
+
+    @Test
+    public void concurrentExportKeepsTheFirstExportMetrics() throws Exception
+    {
+        MarkdownMetrics metrics = this.mocker.getInstance(MarkdownMetrics.class);
+        ObjectName name = new ObjectName(String.format("%s:type=ExportMetrics,syntax=%s",
+            "org.xwiki.contrib.rendering.markdown", ObjectName.quote(COMMONMARK_VSCODE_0_1.toIdString())));
+
+        try {
+            ExportMetrics first = new ExportMetrics();
+            metrics.register(COMMONMARK_VSCODE_0_1, first);
+            // The second export can't be published while the first one runs.
+            ExportMetrics second = new ExportMetrics();
+            metrics.register(COMMONMARK_VSCODE_0_1, second);
+            metrics.unregister(COMMONMARK_VSCODE_0_1, second);
+            assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+
+            metrics.unregister(COMMONMARK_VSCODE_0_1, first);
+            assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        } finally {
+            ((Disposable) metrics).dispose();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link SyntaxParseMetrics}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class SyntaxParseMetricsTest
+{
+    @Test
+    public void outcomeCounts()
+    {
+        SyntaxParseMetrics metrics = new SyntaxParseMetrics();
+        ParseStatistics statistics = new ParseStatistics();
+        metrics.add(statistics);
+        statistics.setOutcome(ParseOutcome.ABORTED);
+        metrics.add(statistics);
+        metrics.add(statistics);
+
+        Map<String, Long> outcomeCounts = metrics.getOutcomeCounts();
+        assertEquals(3, metrics.getParseCount());
+        assertEquals(Long.valueOf(1), outcomeCounts.get(ParseOutcome.SUCCEEDED.name()));
+        assertEquals(Long.valueOf(2), outcomeCounts.get(ParseOutcome.ABORTED.name()));
+        assertEquals(Long.valueOf(0), outcomeCounts.get(ParseOutcome.FAILED.name()));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link VisitProfile}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class VisitProfileTest
+{
+    @Test
+    public void nestedHandlers() throws Exception
+    {
+        VisitProfile profile = new VisitProfile();
+
+        profile.enter();
+        profile.enter();
+        Thread.sleep(5);
+        profile.exit("TextNodeVisitor");
+        profile.enter();
+        profile.exit("TextNodeVisitor");
+        profile.exit("ParagraphNodeVisitor");
+
+        VisitProfile.HandlerStatistics paragraph = profile.getHandlers().get("ParagraphNodeVisitor");
+        VisitProfile.HandlerStatistics text = profile.getHandlers().get("TextNodeVisitor");
+        assertEquals(1, paragraph.getVisitCount());
+        assertEquals(2, text.getVisitCount());
+        assertEquals(text.getInclusiveDuration(), text.getExclusiveDuration());
+        assertEquals(paragraph.getInclusiveDuration() - text.getInclusiveDuration(),
+            paragraph.getExclusiveDuration());
+        assertTrue(paragraph.getExclusiveDuration() < text.getExclusiveDuration());
+    }
+}
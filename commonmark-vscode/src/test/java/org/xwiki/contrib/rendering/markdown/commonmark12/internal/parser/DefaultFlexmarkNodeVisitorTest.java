@@ -0,0 +1,88 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.AbstractMarkdownComponentsTest;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.LinkBlock;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.block.match.ClassBlockMatcher;
+import org.xwiki.rendering.internal.parser.XDOMGeneratorListener;
+
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.xwiki.contrib.rendering.markdown.commonmark12.internal.CommonMark12SyntaxProvider.COMMONMARK_VSCODE_0_1;
+
+/**
+ * Unit tests for {@link DefaultFlexmarkNodeVisitor}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class DefaultFlexmarkNodeVisitorTest extends AbstractMarkdownComponentsTest
+{
+    private static final String CONTENT = "[xwiki]: https://www.xwiki.org\n\nFirst paragraph.\n\nA [link][xwiki].\n";
+
+    @Test
+    public void keepVisitedBlocks() throws Exception
+    {
+        Document document = Parser.builder().build().parse(CONTENT);
+
+        assertContent(visit(document, false));
+        assertNotNull(document.getFirstChild());
+    }
+
+    @Test
+    public void releaseVisitedBlocks() throws Exception
+    {
+        Document document = Parser.builder().build().parse(CONTENT);
+
+        // The link reference definition is still resolved once released.
+        assertContent(visit(document, true));
+        assertNull(document.getFirstChild());
+    }
+
+    private XDOM visit(Document document, boolean releaseVisitedBlocks) throws Exception
+    {
+        FlexmarkNodeVisitor visitor = this.mocker.getInstance(FlexmarkNodeVisitor.class);
+        XDOMGeneratorListener listener = new XDOMGeneratorListener();
+        visitor.visit(document, listener, COMMONMARK_VSCODE_0_1, new ParseBudget(), releaseVisitedBlocks);
+        return listener.getXDOM();
+    }
+
+    private void assertContent(XDOM xdom)
+    {
+        assertEquals(2, xdom.getBlocks(new ClassBlockMatcher(ParagraphBlock.class), Block.Axes.DESCENDANT).size());
+        WordBlock word = xdom.getFirstBlock(new ClassBlockMatcher(WordBlock.class), Block.Axes.DESCENDANT);
+        assertEquals("First", word.getWord());
+        List<LinkBlock> links = xdom.getBlocks(new ClassBlockMatcher(LinkBlock.class), Block.Axes.DESCENDANT);
+        assertEquals(1, links.size());
+        assertEquals("https://www.xwiki.org", links.get(0).getReference().getReference());
+    }
+}
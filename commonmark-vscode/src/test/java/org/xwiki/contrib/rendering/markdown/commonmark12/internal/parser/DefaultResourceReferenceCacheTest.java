@@ -0,0 +1,128 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.MarkdownMetrics;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.ReferenceCacheMetrics;
+import org.xwiki.rendering.listener.reference.DocumentResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.parser.ResourceReferenceParser;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.mockito.MockitoComponentManagerRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultResourceReferenceCache}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@ComponentList({
+    DefaultResourceReferenceCache.class
+})
+public class DefaultResourceReferenceCacheTest
+{
+    @Rule
+    public MockitoComponentManagerRule mocker = new MockitoComponentManagerRule();
+
+    private ResourceReferenceParser linkParser;
+
+    private MarkdownMetrics metrics;
+
+    @BeforeComponent
+    public void setUpComponents() throws Exception
+    {
+        MarkdownConfiguration configuration = this.mocker.registerMockComponent(MarkdownConfiguration.class);
+        when(configuration.getReferenceCacheSize()).thenReturn(2);
+        this.metrics = this.mocker.registerMockComponent(MarkdownMetrics.class);
+        when(this.metrics.isEnabled()).thenReturn(true);
+        this.mocker.registerMockComponent(ResourceReferenceParser.class, "image");
+        this.linkParser = this.mocker.registerMockComponent(ResourceReferenceParser.class, "link");
+        when(this.linkParser.parse("A")).thenAnswer(invocation -> new DocumentResourceReference("A"));
+        when(this.linkParser.parse("B")).thenAnswer(invocation -> new DocumentResourceReference("B"));
+        when(this.linkParser.parse("C")).thenAnswer(invocation -> new DocumentResourceReference("C"));
+    }
+
+    @Test
+    public void getLinkReferenceReturnsClones() throws Exception
+    {
+        ResourceReferenceCache cache = this.mocker.getInstance(ResourceReferenceCache.class);
+
+        ResourceReference first = cache.getLinkReference("A|anchor=H1");
+        first.setParameter("modified", "true");
+        ResourceReference second = cache.getLinkReference("A|anchor=H1");
+
+        assertNotSame(first, second);
+        assertEquals("H1", ((DocumentResourceReference) second).getAnchor());
+        assertEquals(null, second.getParameter("modified"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        verify(this.linkParser, times(1)).parse("A");
+    }
+
+    @Test
+    public void getLinkReferenceEvictsLeastRecentlyUsed() throws Exception
+    {
+        ResourceReferenceCache cache = this.mocker.getInstance(ResourceReferenceCache.class);
+
+        cache.getLinkReference("A");
+        cache.getLinkReference("B");
+        cache.getLinkReference("A");
+        // "B" is the least recently used reference and thus gets evicted.
+        cache.getLinkReference("C");
+        cache.getLinkReference("A");
+        cache.getLinkReference("B");
+
+        verify(this.linkParser, times(1)).parse("A");
+        verify(this.linkParser, times(2)).parse("B");
+        assertEquals(2, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void countsPublishedThroughMetrics() throws Exception
+    {
+        ResourceReferenceCache cache = this.mocker.getInstance(ResourceReferenceCache.class);
+        cache.getLinkReference("A");
+        cache.getLinkReference("A");
+
+        ArgumentCaptor<ReferenceCacheMetrics> captor = ArgumentCaptor.forClass(ReferenceCacheMetrics.class);
+        verify(this.metrics).register(captor.capture());
+        assertEquals(1, captor.getValue().getHitCount());
+        assertEquals(1, captor.getValue().getMissCount());
+        assertEquals(0.5, captor.getValue().getHitRatio(), 0);
+        assertEquals(2, captor.getValue().getMaxSize());
+
+        ((Disposable) cache).dispose();
+        verify(this.metrics).unregister(any(ReferenceCacheMetrics.class));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfiguration;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.mockito.MockitoComponentManagerRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultWordInterner}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@ComponentList({
+    DefaultWordInterner.class
+})
+public class DefaultWordInternerTest
+{
+    @Rule
+    public MockitoComponentManagerRule mocker = new MockitoComponentManagerRule();
+
+    @BeforeComponent
+    public void setUpComponents() throws Exception
+    {
+        // A single slot, so that all the words compete for it.
+        MarkdownConfiguration configuration = this.mocker.registerMockComponent(MarkdownConfiguration.class);
+        when(configuration.getWordInternTableSize()).thenReturn(1);
+    }
+
+    @Test
+    public void internSharesInstances() throws Exception
+    {
+        WordInterner interner = this.mocker.getInstance(WordInterner.class);
+
+        String word = new String("the");
+        assertSame(word, interner.intern(word));
+        assertSame(word, interner.intern(new String("the")));
+        assertEquals(1, interner.getHitCount());
+        assertEquals(1, interner.getMissCount());
+    }
+
+    @Test
+    public void longWordsAreNotShared() throws Exception
+    {
+        WordInterner interner = this.mocker.getInstance(WordInterner.class);
+
+        String word = "a".repeat(DefaultWordInterner.MAX_WORD_LENGTH + 1);
+        interner.intern(word);
+        assertNotSame(word, interner.intern(new String(word)));
+    }
+
+    @Test
+    public void frequentWordsAreKept() throws Exception
+    {
+        WordInterner interner = this.mocker.getInstance(WordInterner.class);
+
+        String frequent = new String("the");
+        interner.intern(frequent);
+        interner.intern(new String("the"));
+        interner.intern(new String("the"));
+
+        // A rare word doesn't replace a frequent one...
+        String rare = new String("rare");
+        interner.intern(rare);
+        assertSame(frequent, interner.intern(new String("the")));
+        assertNotSame(rare, interner.intern(new String("rare")));
+
+        // ...until it has been used more often.
+        for (int i = 0; i < 3; i++) {
+            interner.intern(rare);
+        }
+        assertSame(rare, interner.intern(new String("rare")));
+    }
+}
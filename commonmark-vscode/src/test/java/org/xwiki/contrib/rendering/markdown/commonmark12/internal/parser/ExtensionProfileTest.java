@@ -0,0 +1,118 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.io.StringReader;
+
+import org.junit.Test;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.AbstractMarkdownComponentsTest;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.ExtensionProfile;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.BulletedListBlock;
+import org.xwiki.rendering.block.HeaderBlock;
+import org.xwiki.rendering.block.LinkBlock;
+import org.xwiki.rendering.block.TableBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.block.match.ClassBlockMatcher;
+import org.xwiki.rendering.internal.parser.XDOMGeneratorListener;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the parsing with a given {@link ExtensionProfile}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class ExtensionProfileTest extends AbstractMarkdownComponentsTest
+{
+    private static final String TABLE = "| a | b |\n|---|---|\n| c | d |\n";
+
+    private static final String AUTOLINK = "See https://www.xwiki.org";
+
+    @Test
+    public void fromId()
+    {
+        for (ExtensionProfile profile : ExtensionProfile.values()) {
+            assertEquals(profile, ExtensionProfile.fromId(profile.getId()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromUnknownId()
+    {
+        ExtensionProfile.fromId("unknown");
+    }
+
+    @Test
+    public void full() throws Exception
+    {
+        assertEquals(1, count(parse("# Title", ExtensionProfile.FULL), HeaderBlock.class));
+        assertEquals(1, count(parse(TABLE, ExtensionProfile.FULL), TableBlock.class));
+        assertEquals(1, count(parse(AUTOLINK, ExtensionProfile.FULL), LinkBlock.class));
+    }
+
+    @Test
+    public void noAutolink() throws Exception
+    {
+        assertEquals(1, count(parse(TABLE, ExtensionProfile.NO_AUTOLINK), TableBlock.class));
+        assertEquals(0, count(parse(AUTOLINK, ExtensionProfile.NO_AUTOLINK), LinkBlock.class));
+        // Standard CommonMark autolinks are still supported.
+        assertEquals(1, count(parse("See <https://www.xwiki.org>", ExtensionProfile.NO_AUTOLINK), LinkBlock.class));
+    }
+
+    @Test
+    public void inlineOnly() throws Exception
+    {
+        assertEquals(0, count(parse("# Title", ExtensionProfile.INLINE_ONLY), HeaderBlock.class));
+        assertEquals(0, count(parse("* item", ExtensionProfile.INLINE_ONLY), BulletedListBlock.class));
+        assertEquals(0, count(parse(TABLE, ExtensionProfile.INLINE_ONLY), TableBlock.class));
+        assertEquals(1, count(parse(AUTOLINK, ExtensionProfile.INLINE_ONLY), LinkBlock.class));
+    }
+
+    @Test
+    public void links() throws Exception
+    {
+        assertEquals(1, count(parse("# Title", ExtensionProfile.LINKS), HeaderBlock.class));
+        assertEquals(0, count(parse(TABLE, ExtensionProfile.LINKS), TableBlock.class));
+        assertEquals(1, count(parse(AUTOLINK, ExtensionProfile.LINKS), LinkBlock.class));
+    }
+
+    @Test
+    public void minimal() throws Exception
+    {
+        assertEquals(1, count(parse("# Title", ExtensionProfile.MINIMAL), HeaderBlock.class));
+        assertEquals(0, count(parse(TABLE, ExtensionProfile.MINIMAL), TableBlock.class));
+        assertEquals(0, count(parse(AUTOLINK, ExtensionProfile.MINIMAL), LinkBlock.class));
+    }
+
+    private XDOM parse(String content, ExtensionProfile profile) throws Exception
+    {
+        ProfiledStreamParser parser = this.mocker.getInstance(ProfiledStreamParser.class, SYNTAX);
+        XDOMGeneratorListener listener = new XDOMGeneratorListener();
+        parser.parse(new StringReader(content), listener, profile);
+        return listener.getXDOM();
+    }
+
+    private int count(XDOM xdom, Class<? extends Block> blockClass)
+    {
+        return xdom.getBlocks(new ClassBlockMatcher(blockClass), Block.Axes.DESCENDANT).size();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.DefaultMarkdownConfiguration;
+
+import com.vladsch.flexmark.ext.autolink.AutolinkExtension;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.data.MutableDataHolder;
+import com.vladsch.flexmark.util.misc.Extension;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link FastAutolinkExtension}, comparing the generated AST with the one of Flexmark's
+ * {@link AutolinkExtension}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class FastAutolinkExtensionTest
+{
+    private static final String[] FRAGMENTS = { "word", " ", "\n", "\n\n", "http://", "https://www.xwiki.org",
+        "ftp://host/path", "x://", ":/", "://", "www.", "WWW.", "ww", "w", ".", "xwiki.org", "@", "john@doe.com",
+        "\\", "\\@", "&amp;", "&#64;", "&#x40;", "(", ")", ",", "*", "_", "`", "[[Page]]", "[label](url)",
+        "<b>", "</b>", "<span>www.xwiki.org</span>", "> ", "# ", "* ", "{{info}}", "{{/info}}", "\u001f" };
+
+    private final Parser autolinkParser = createParser(AutolinkExtension.create());
+
+    private final Parser fastAutolinkParser = createParser(FastAutolinkExtension.create());
+
+    @Test
+    public void trigger()
+    {
+        assertTrue(FastAutolinkPostProcessor.hasTrigger(BasedSequence.of("see http://xwiki.org")));
+        assertTrue(FastAutolinkPostProcessor.hasTrigger(BasedSequence.of("see www.xwiki.org")));
+        assertTrue(FastAutolinkPostProcessor.hasTrigger(BasedSequence.of("john@doe.com")));
+        assertTrue(FastAutolinkPostProcessor.hasTrigger(BasedSequence.of("a &amp; b")));
+        assertFalse(FastAutolinkPostProcessor.hasTrigger(BasedSequence.of("plain: text/with w.w.")));
+        assertFalse(FastAutolinkPostProcessor.hasTrigger(BasedSequence.of("ends with www")));
+        assertFalse(FastAutolinkPostProcessor.hasTrigger(BasedSequence.of("ends with :/")));
+    }
+
+    @Test
+    public void sameLinks()
+    {
+        assertSameAST("Visit https://www.xwiki.org or www.xwiki.org, or write to john@doe.com.");
+        assertSameAST("Links (http://xwiki.org/a_(b)) and <https://xwiki.org> and [label](www.xwiki.org)");
+        assertSameAST("Escaped http:\\//xwiki.org and www\\.xwiki.org and john\\@doe.com");
+        assertSameAST("Entities http&#58;//xwiki.org and john&#64;doe.com and www&period;xwiki.org");
+        assertSameAST("No link in this text: 12:30, w.w.w and /path/to://");
+        assertSameAST("[[Page]] www.xwiki.org `http://code` {{info}}www.xwiki.org{{/info}}");
+        assertSameAST("<span>www.xwiki.org</span> *www.xwiki.org* **john@doe.com**");
+        assertSameAST("[http://xwiki.org](http://xwiki.org) and [www.xwiki.org][ref]\n\n[ref]: www.xwiki.org");
+        assertSameAST("Code span `www.xwiki.org and john@doe.com` and ``http://xwiki.org``");
+    }
+
+    @Test
+    public void sameLinksOnRandomContent()
+    {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder content = new StringBuilder();
+            int length = random.nextInt(30);
+            for (int j = 0; j < length; j++) {
+                content.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            assertSameAST(content.toString());
+        }
+    }
+
+    private void assertSameAST(String content)
+    {
+        assertEquals(content, toAST(this.autolinkParser.parse(content)),
+            toAST(this.fastAutolinkParser.parse(content)));
+    }
+
+    private String toAST(Node node)
+    {
+        StringBuilder ast = new StringBuilder();
+        appendAST(node, 0, ast);
+        return ast.toString();
+    }
+
+    private void appendAST(Node node, int depth, StringBuilder ast)
+    {
+        ast.append(depth).append(' ').append(node.getClass().getName()).append('[').append(node.getStartOffset())
+            .append(',').append(node.getEndOffset()).append("] ").append(node.getChars()).append('\n');
+        for (Node child : node.getChildren()) {
+            appendAST(child, depth + 1, ast);
+        }
+    }
+
+    private static Parser createParser(Extension autolinkExtension)
+    {
+        // Start from the default configuration, replacing the autolink extension.
+        MutableDataHolder options = new DefaultMarkdownConfiguration().getOptions();
+        List<Extension> extensions = new ArrayList<>();
+        for (Extension extension : Parser.EXTENSIONS.get(options)) {
+            extensions.add(extension instanceof FastAutolinkExtension ? autolinkExtension : extension);
+        }
+        options.set(Parser.EXTENSIONS, extensions);
+        return Parser.builder(options).build();
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.AbstractMarkdownComponentsTest;
+import org.xwiki.model.ModelContext;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.block.match.ClassBlockMatcher;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.annotation.BeforeComponent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link Markdown12AsyncParser}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class Markdown12AsyncParserTest extends AbstractMarkdownComponentsTest
+{
+    private static final String PREFIX = "xwiki.commonmarkvscode.async.";
+
+    private String callerWiki;
+
+    private ConfigurationSource wikiConfiguration;
+
+    private Execution execution;
+
+    private final ExecutionContext callerContext = new ExecutionContext();
+
+    private final ExecutionContext clonedContext = new ExecutionContext();
+
+    private final CountDownLatch reading = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeComponent
+    public void setUpComponents() throws Exception
+    {
+        // A single thread and a single waiting parsing.
+        setProperty(PREFIX + "threads", "1");
+        setProperty(PREFIX + "queueSize", "1");
+
+        // Only the test thread knows the current wiki, like the request threads in XWiki.
+        this.wikiConfiguration = this.mocker.registerMockComponent(ConfigurationSource.class, "wiki");
+        Thread testThread = Thread.currentThread();
+        this.execution = this.mocker.registerMockComponent(Execution.class);
+        when(this.execution.getContext())
+            .thenAnswer(invocation -> Thread.currentThread() == testThread ? this.callerContext : null);
+        ExecutionContextManager executionContextManager =
+            this.mocker.registerMockComponent(ExecutionContextManager.class);
+        when(executionContextManager.clone(this.callerContext)).thenReturn(this.clonedContext);
+        ModelContext modelContext = this.mocker.registerMockComponent(ModelContext.class);
+        when(modelContext.getCurrentEntityReference()).thenAnswer(invocation -> Thread.currentThread() == testThread
+            && this.callerWiki != null ? new WikiReference(this.callerWiki) : null);
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.release.countDown();
+    }
+
+    @Test
+    public void parseAsync() throws Exception
+    {
+        AsyncMarkdownParser parser = this.mocker.getInstance(AsyncMarkdownParser.class, SYNTAX);
+
+        XDOM xdom = parser.parseAsync(new StringReader("Some **content**")).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, xdom.getChildren().size());
+        assertTrue(xdom.getChildren().get(0) instanceof ParagraphBlock);
+    }
+
+    @Test
+    public void parseAsyncWithCallerWikiConfiguration() throws Exception
+    {
+        when(this.wikiConfiguration.getProperty("markdownMathMacro", String.class)).thenReturn("formula");
+        this.callerWiki = "subwiki";
+        AsyncMarkdownParser parser = this.mocker.getInstance(AsyncMarkdownParser.class, SYNTAX);
+
+        XDOM xdom = parser.parseAsync(new StringReader("Energy $E = mc^2$")).get(10, TimeUnit.SECONDS);
+
+        MacroBlock macro = xdom.getFirstBlock(new ClassBlockMatcher(MacroBlock.class), Block.Axes.DESCENDANT);
+        assertEquals("formula", macro.getId());
+    }
+
+    @Test
+    public void parseAsyncInCallerContext() throws Exception
+    {
+        // Record the class loader seen by the parsing thread.
+        CancellableStreamParser streamParser = this.mocker.getInstance(CancellableStreamParser.class, SYNTAX);
+        CompletableFuture<ClassLoader> classLoader = new CompletableFuture<>();
+        this.mocker.registerComponent(CancellableStreamParser.class, SYNTAX, new RecordingStreamParser(streamParser,
+            new CompletableFuture<>(), () -> classLoader.complete(Thread.currentThread().getContextClassLoader())));
+        AsyncMarkdownParser parser = this.mocker.getInstance(AsyncMarkdownParser.class, SYNTAX);
+        Thread testThread = Thread.currentThread();
+        ClassLoader testClassLoader = testThread.getContextClassLoader();
+        ClassLoader callerClassLoader = new URLClassLoader(new URL[0], testClassLoader);
+
+        testThread.setContextClassLoader(callerClassLoader);
+        CompletableFuture<XDOM> future;
+        try {
+            future = parser.parseAsync(new StringReader("content"));
+        } finally {
+            testThread.setContextClassLoader(testClassLoader);
+        }
+        future.get(10, TimeUnit.SECONDS);
+
+        assertSame(callerClassLoader, classLoader.get(10, TimeUnit.SECONDS));
+        // The parsing runs with its own copy of the caller's execution context.
+        verify(this.execution).pushContext(this.clonedContext);
+        verify(this.execution, timeout(10000)).popContext();
+    }
+
+    @Test
+    public void rejectedWhenQueueIsFull() throws Exception
+    {
+        AsyncMarkdownParser parser = this.mocker.getInstance(AsyncMarkdownParser.class, SYNTAX);
+
+        CompletableFuture<XDOM> running = parser.parseAsync(new BlockingReader());
+        CompletableFuture<XDOM> waiting = parser.parseAsync(new StringReader("waiting"));
+        CompletableFuture<XDOM> rejected = parser.parseAsync(new StringReader("rejected"));
+
+        assertFailure(RejectedExecutionException.class, rejected);
+
+        this.release.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        waiting.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void cancelStopsTheRunningParser() throws Exception
+    {
+        // Record how the running parsing ends, since the cancelled future doesn't tell.
+        CancellableStreamParser streamParser = this.mocker.getInstance(CancellableStreamParser.class, SYNTAX);
+        CompletableFuture<Exception> outcome = new CompletableFuture<>();
+        this.mocker.registerComponent(CancellableStreamParser.class, SYNTAX,
+            new RecordingStreamParser(streamParser, outcome, () -> { }));
+        AsyncMarkdownParser parser = this.mocker.getInstance(AsyncMarkdownParser.class, SYNTAX);
+        ParseCancellationToken token = new ParseCancellationToken();
+
+        CompletableFuture<XDOM> future = parser.parseAsync(new BlockingReader(), token);
+        assertTrue(this.reading.await(10, TimeUnit.SECONDS));
+        future.cancel(false);
+
+        assertTrue(token.isCancelled());
+        this.release.countDown();
+
+        Exception error = outcome.get(10, TimeUnit.SECONDS);
+        assertTrue(String.valueOf(error), error instanceof ParseAbortedException);
+        assertEquals(ParseAbortedException.Reason.CANCELLED, ((ParseAbortedException) error).getReason());
+    }
+
+    @Test
+    public void parseFailure() throws Exception
+    {
+        AsyncMarkdownParser parser = this.mocker.getInstance(AsyncMarkdownParser.class, SYNTAX);
+        ParseCancellationToken token = new ParseCancellationToken();
+        token.cancel();
+
+        assertFailure(ParseAbortedException.class, parser.parseAsync(new StringReader("content"), token));
+    }
+
+    private void assertFailure(Class<? extends Throwable> expectedCause, CompletableFuture<XDOM> future)
+        throws Exception
+    {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("The parsing should have failed");
+        } catch (ExecutionException expected) {
+            assertTrue(expectedCause.isInstance(expected.getCause()));
+        }
+    }
+
+    /**
+     * Holds the parsing thread until the test releases it.
+     */
+    private final class BlockingReader extends Reader
+    {
+        @Override
+        public int read(char[] buffer, int offset, int length)
+        {
+            reading.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return -1;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    /**
+     * Records the outcome of the parsing, {@code null} when it succeeds, after running a probe in the parsing thread.
+     */
+    private static final class RecordingStreamParser implements CancellableStreamParser
+    {
+        private final CancellableStreamParser parser;
+
+        private final CompletableFuture<Exception> outcome;
+
+        private final Runnable probe;
+
+        RecordingStreamParser(CancellableStreamParser parser, CompletableFuture<Exception> outcome, Runnable probe)
+        {
+            this.parser = parser;
+            this.outcome = outcome;
+            this.probe = probe;
+        }
+
+        @Override
+        public Syntax getSyntax()
+        {
+            return this.parser.getSyntax();
+        }
+
+        @Override
+        public void parse(Reader source, Listener listener) throws ParseException
+        {
+            parse(source, listener, new ParseCancellationToken());
+        }
+
+        @Override
+        public void parse(Reader source, Listener listener, ParseCancellationToken cancellationToken)
+            throws ParseException
+        {
+            this.probe.run();
+            try {
+                this.parser.parse(source, listener, cancellationToken);
+                this.outcome.complete(null);
+            } catch (ParseException | RuntimeException e) {
+                this.outcome.complete(e);
+                throw e;
+            }
+        }
+    }
+}
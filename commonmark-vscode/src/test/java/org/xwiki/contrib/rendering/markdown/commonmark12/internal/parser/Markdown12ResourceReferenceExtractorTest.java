@@ -0,0 +1,122 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.DefaultMarkdownConfiguration;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.DefaultMarkdownConfigurationSnapshots;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.metrics.JMXMarkdownMetrics;
+import org.xwiki.rendering.listener.reference.DocumentResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+import org.xwiki.rendering.parser.ResourceReferenceParser;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.mockito.MockitoComponentManagerRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link Markdown12ResourceReferenceExtractor}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+@ComponentList({
+    Markdown12ResourceReferenceExtractor.class,
+    DefaultResourceReferenceCache.class,
+    JMXMarkdownMetrics.class,
+    DefaultMarkdownConfiguration.class,
+    DefaultMarkdownConfigurationSnapshots.class
+})
+public class Markdown12ResourceReferenceExtractorTest
+{
+    @Rule
+    public MockitoComponentManagerRule mocker = new MockitoComponentManagerRule();
+
+    @BeforeComponent
+    public void setUpComponents() throws Exception
+    {
+        ResourceReferenceParser linkParser = this.mocker.registerMockComponent(ResourceReferenceParser.class, "link");
+        when(linkParser.parse(anyString()))
+            .thenAnswer(invocation -> new DocumentResourceReference(invocation.getArgument(0)));
+        ResourceReferenceParser imageParser =
+            this.mocker.registerMockComponent(ResourceReferenceParser.class, "image");
+        when(imageParser.parse(anyString()))
+            .thenAnswer(invocation -> new ResourceReference(invocation.getArgument(0), ResourceType.ATTACHMENT));
+    }
+
+    @Test
+    public void extract() throws Exception
+    {
+        String source = "Math $x$ and [label ![alt](image.png)](http://xwiki.org) then <http://auto.org>\n"
+            + "{{info}}[[Hidden]]{{/info}} [[Space.Page]] ![[photo.png]] [ref]\n\n[ref]: http://ref.org\n";
+
+        ResourceReferenceExtractor extractor =
+            this.mocker.getInstance(ResourceReferenceExtractor.class, "commonmark-vscode/0.1");
+        List<ExtractedResourceReference> references = extractor.extract(new StringReader(source));
+
+        assertEquals(6, references.size());
+        assertReference(source, references.get(0), "http://xwiki.org", ResourceType.URL, false,
+            "[label ![alt](image.png)](http://xwiki.org)");
+        assertReference(source, references.get(1), "image.png", ResourceType.URL, true, "![alt](image.png)");
+        assertReference(source, references.get(2), "http://auto.org", ResourceType.URL, false, "<http://auto.org>");
+        assertTrue(references.get(2).isFreeStandingURI());
+        assertFalse(references.get(3).isFreeStandingURI());
+        assertReference(source, references.get(3), "Space.Page", ResourceType.DOCUMENT, false, "[[Space.Page]]");
+        assertReference(source, references.get(4), "photo.png", ResourceType.ATTACHMENT, true, "![[photo.png]]");
+        assertReference(source, references.get(5), "http://ref.org", ResourceType.URL, false, "[ref]");
+    }
+
+    @Test
+    public void extractFromBlocksParsedAsText() throws Exception
+    {
+        // Tables and definition lists are parsed as paragraph text, the links they contain are still found.
+        String source = "| a | [[Space.Page]] |\n|---|---|\n| ![alt](image.png) | d |\n\n"
+            + "Term\n: [label](http://xwiki.org)\n";
+
+        ResourceReferenceExtractor extractor =
+            this.mocker.getInstance(ResourceReferenceExtractor.class, "commonmark-vscode/0.1");
+        List<ExtractedResourceReference> references = extractor.extract(new StringReader(source));
+
+        assertEquals(3, references.size());
+        assertReference(source, references.get(0), "Space.Page", ResourceType.DOCUMENT, false, "[[Space.Page]]");
+        assertReference(source, references.get(1), "image.png", ResourceType.URL, true, "![alt](image.png)");
+        assertReference(source, references.get(2), "http://xwiki.org", ResourceType.URL, false,
+            "[label](http://xwiki.org)");
+    }
+
+    private void assertReference(String source, ExtractedResourceReference extracted, String reference,
+        ResourceType type, boolean image, String sourceSpan)
+    {
+        assertEquals(reference, extracted.getReference().getReference());
+        assertEquals(type, extracted.getReference().getType());
+        assertEquals(image, extracted.isImage());
+        assertEquals(sourceSpan, source.substring(extracted.getStartOffset(), extracted.getEndOffset()));
+    }
+}
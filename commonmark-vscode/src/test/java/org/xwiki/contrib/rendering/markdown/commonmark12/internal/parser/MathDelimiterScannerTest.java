@@ -0,0 +1,132 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link MathDelimiterScanner}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class MathDelimiterScannerTest
+{
+    @Test
+    public void escapes()
+    {
+        MathDelimiterScanner scanner = new MathDelimiterScanner("\\$a\\\\$b\\\\\\$c$");
+
+        assertTrue(scanner.isEscaped(1));
+        assertFalse(scanner.isEscaped(5));
+        assertTrue(scanner.isEscaped(10));
+        assertFalse(scanner.isEscaped(12));
+    }
+
+    @Test
+    public void findInlineClosing()
+    {
+        MathDelimiterScanner scanner = new MathDelimiterScanner("$a \\$ b $$ c $d");
+
+        // The second $ of a pair closes an inline expression, an escaped $ doesn't.
+        assertEquals(9, scanner.findInlineClosing(1));
+        assertEquals(13, scanner.findInlineClosing(10));
+        assertEquals(-1, scanner.findInlineClosing(14));
+    }
+
+    @Test
+    public void findBlockClosing()
+    {
+        MathDelimiterScanner scanner = new MathDelimiterScanner("$$a \\$$$ b $$");
+
+        // The escaped pair is skipped as a whole, so the pair overlapping it doesn't count.
+        assertEquals(11, scanner.findBlockClosing(2));
+        assertEquals(-1, scanner.findBlockClosing(12));
+    }
+
+    /**
+     * Compares with the straightforward backward and forward scans, on random texts made of delimiters and escapes.
+     */
+    @Test
+    public void sameResultsAsScanning()
+    {
+        Random random = new Random(0);
+        char[] alphabet = { '$', '$', '\\', 'a', ' ', '\n' };
+        for (int i = 0; i < 10000; i++) {
+            StringBuilder builder = new StringBuilder();
+            for (int j = random.nextInt(30); j > 0; j--) {
+                builder.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            String text = builder.toString();
+
+            MathDelimiterScanner scanner = new MathDelimiterScanner(text);
+            for (int position = 0; position <= text.length(); position++) {
+                assertEquals(text, scanInlineClosing(text, position), scanner.findInlineClosing(position));
+                assertEquals(text, scanBlockClosing(text, position), scanner.findBlockClosing(position));
+                if (position < text.length() && text.charAt(position) == '$') {
+                    assertEquals(text, scanEscaped(text, position), scanner.isEscaped(position));
+                }
+            }
+        }
+    }
+
+    private static int scanInlineClosing(String text, int start)
+    {
+        for (int i = start; i < text.length(); i++) {
+            if (text.charAt(i) == '$' && !scanEscaped(text, i)
+                && (i + 1 == text.length() || text.charAt(i + 1) != '$'))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int scanBlockClosing(String text, int start)
+    {
+        int index = start;
+        while (index < text.length() - 1) {
+            int candidate = text.indexOf("$$", index);
+            if (candidate == -1) {
+                return -1;
+            }
+            if (!scanEscaped(text, candidate)) {
+                return candidate;
+            }
+            index = candidate + 2;
+        }
+        return -1;
+    }
+
+    private static boolean scanEscaped(String text, int position)
+    {
+        int backslashes = 0;
+        for (int i = position - 1; i >= 0 && text.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return (backslashes & 1) == 1;
+    }
+}
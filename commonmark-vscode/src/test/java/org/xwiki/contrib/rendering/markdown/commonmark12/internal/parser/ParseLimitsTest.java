@@ -0,0 +1,229 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.AbstractMarkdownComponentsTest;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.VerbatimBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.internal.parser.XDOMGeneratorListener;
+import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.parser.Parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for the parsing limits, see {@link ParseBudget}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class ParseLimitsTest extends AbstractMarkdownComponentsTest
+{
+    private static final String PREFIX = "xwiki.commonmarkvscode.limits.";
+
+    private static final String NESTED = "First paragraph.\n\n> > > > Deep quote\n\nLast paragraph.\n";
+
+    @Test
+    public void inputTooLong() throws Exception
+    {
+        setProperty(PREFIX + "maxInputLength", "10");
+
+        assertAborted(ParseAbortedException.Reason.INPUT_LENGTH, "More than ten characters");
+    }
+
+    @Test
+    public void inputTooLongNotFullyRead() throws Exception
+    {
+        setProperty(PREFIX + "maxInputLength", "10");
+
+        // An endless content.
+        Reader source = new Reader()
+        {
+            @Override
+            public int read(char[] buffer, int offset, int length)
+            {
+                Arrays.fill(buffer, offset, offset + length, 'a');
+                return length;
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+
+        assertAborted(ParseAbortedException.Reason.INPUT_LENGTH, source);
+    }
+
+    @Test
+    public void tooManyMathTokens() throws Exception
+    {
+        setProperty(PREFIX + "maxMathTokens", "2");
+
+        assertAborted(ParseAbortedException.Reason.MATH_TOKENS, "$a$ $b$ $c$");
+    }
+
+    @Test
+    public void nestedTooDeep() throws Exception
+    {
+        setProperty(PREFIX + "maxNestingDepth", "3");
+
+        assertAborted(ParseAbortedException.Reason.NESTING_DEPTH, NESTED);
+    }
+
+    @Test
+    public void fencedQuoteMarkersNotNested() throws Exception
+    {
+        setProperty(PREFIX + "maxNestingDepth", "3");
+
+        Parser parser = this.mocker.getInstance(Parser.class, SYNTAX);
+        XDOM xdom = parser.parse(new StringReader("```\n> > > > Not a quote\n```\n"));
+
+        assertEquals(1, xdom.getChildren().size());
+    }
+
+    @Test
+    public void tooManyNodes() throws Exception
+    {
+        setProperty(PREFIX + "maxNodeCount", "5");
+
+        assertAborted(ParseAbortedException.Reason.NODE_COUNT, NESTED);
+    }
+
+    @Test
+    public void cancelled() throws Exception
+    {
+        ParseCancellationToken token = new ParseCancellationToken();
+        token.cancel();
+
+        CancellableStreamParser parser = this.mocker.getInstance(CancellableStreamParser.class, SYNTAX);
+        try {
+            parser.parse(new StringReader("content"), new XDOMGeneratorListener(), token);
+            fail("The parsing should have been cancelled");
+        } catch (ParseAbortedException expected) {
+            assertEquals(ParseAbortedException.Reason.CANCELLED, expected.getReason());
+        }
+    }
+
+    @Test
+    public void timeout() throws Exception
+    {
+        setProperty(PREFIX + "timeout", "1");
+
+        assertAborted(ParseAbortedException.Reason.TIMEOUT, createList(100000));
+    }
+
+    @Test
+    public void degradedTimeoutInHugeBlock() throws Exception
+    {
+        setProperty(PREFIX + "timeout", "1");
+        setProperty(PREFIX + "degraded", "true");
+
+        // A single top-level block can't be cut, so it doesn't get to run to completion.
+        assertAborted(ParseAbortedException.Reason.TIMEOUT, createList(100000));
+    }
+
+    @Test
+    public void cancelledDuringVisit() throws Exception
+    {
+        ParseCancellationToken token = new ParseCancellationToken();
+        XDOMGeneratorListener listener = new XDOMGeneratorListener()
+        {
+            @Override
+            public void beginDocument(MetaData metaData)
+            {
+                super.beginDocument(metaData);
+                token.cancel();
+            }
+        };
+
+        CancellableStreamParser parser = this.mocker.getInstance(CancellableStreamParser.class, "commonmark-vscode/0.1");
+        try {
+            parser.parse(new StringReader(createList(1000)), listener, token);
+            fail("The parsing should have been cancelled");
+        } catch (ParseAbortedException expected) {
+            assertEquals(ParseAbortedException.Reason.CANCELLED, expected.getReason());
+        }
+    }
+
+    @Test
+    public void degradedFromBlockExceedingLimit() throws Exception
+    {
+        setProperty(PREFIX + "maxNestingDepth", "3");
+        setProperty(PREFIX + "degraded", "true");
+
+        Parser parser = this.mocker.getInstance(Parser.class, SYNTAX);
+        XDOM xdom = parser.parse(new StringReader(NESTED));
+
+        List<Block> blocks = xdom.getChildren();
+        assertEquals(2, blocks.size());
+        assertTrue(blocks.get(1) instanceof VerbatimBlock);
+        assertEquals("> > > > Deep quote\n\nLast paragraph.\n",
+            ((VerbatimBlock) blocks.get(1)).getProtectedString());
+    }
+
+    @Test
+    public void degradedInputTooLong() throws Exception
+    {
+        setProperty(PREFIX + "maxInputLength", "10");
+        setProperty(PREFIX + "degraded", "true");
+
+        Parser parser = this.mocker.getInstance(Parser.class, SYNTAX);
+        XDOM xdom = parser.parse(new StringReader("More than *ten* characters"));
+
+        assertEquals(1, xdom.getChildren().size());
+        assertEquals("More than *ten* characters",
+            ((VerbatimBlock) xdom.getChildren().get(0)).getProtectedString());
+    }
+
+    private String createList(int size)
+    {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            content.append("* item *").append(i).append("*\n");
+        }
+        return content.toString();
+    }
+
+    private void assertAborted(ParseAbortedException.Reason reason, String content) throws Exception
+    {
+        assertAborted(reason, new StringReader(content));
+    }
+
+    private void assertAborted(ParseAbortedException.Reason reason, Reader source) throws Exception
+    {
+        Parser parser = this.mocker.getInstance(Parser.class, SYNTAX);
+        try {
+            parser.parse(source);
+            fail("The parsing should have been aborted");
+        } catch (ParseAbortedException expected) {
+            assertEquals(reason, expected.getReason());
+        }
+    }
+}
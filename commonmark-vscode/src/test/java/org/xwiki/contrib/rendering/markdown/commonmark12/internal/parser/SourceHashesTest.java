@@ -0,0 +1,96 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.AbstractMarkdownComponentsTest;
+import org.xwiki.rendering.parser.Parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for {@link SourceHashes}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class SourceHashesTest extends AbstractMarkdownComponentsTest
+{
+    private static final String ENABLED = "xwiki.commonmarkvscode.hash.enabled";
+
+    private static final String CONTENT = "# Title\n\nSome $x^2$ text.\n\n- one\n- two\n";
+
+    @Test
+    public void disabledByDefault() throws Exception
+    {
+        assertNull(parse(CONTENT));
+    }
+
+    @Test
+    public void blockOffsets() throws Exception
+    {
+        setProperty(ENABLED, "true");
+
+        List<SourceHashes.BlockHash> blocks = parse(CONTENT).getBlocks();
+
+        assertEquals(3, blocks.size());
+        assertEquals("# Title", CONTENT.substring(blocks.get(0).getStartOffset(), blocks.get(0).getEndOffset()));
+        assertEquals("Some $x^2$ text.",
+            CONTENT.substring(blocks.get(1).getStartOffset(), blocks.get(1).getEndOffset()));
+        assertEquals("- one\n- two", CONTENT.substring(blocks.get(2).getStartOffset(), blocks.get(2).getEndOffset()));
+    }
+
+    @Test
+    public void onlyChangedBlockHashChanges() throws Exception
+    {
+        setProperty(ENABLED, "true");
+
+        SourceHashes before = parse(CONTENT);
+        SourceHashes after = parse(CONTENT.replace("x^2", "x^3"));
+
+        assertEquals(before.getBlocks().get(0).getHash(), after.getBlocks().get(0).getHash());
+        assertNotEquals(before.getBlocks().get(1).getHash(), after.getBlocks().get(1).getHash());
+        assertEquals(before.getBlocks().get(2).getHash(), after.getBlocks().get(2).getHash());
+        assertNotEquals(before.getRootHash(), after.getRootHash());
+    }
+
+    @Test
+    public void blankLinesNotHashed() throws Exception
+    {
+        setProperty(ENABLED, "true");
+
+        SourceHashes before = parse(CONTENT);
+        SourceHashes after = parse("# Title\n\n\n\nSome $x^2$ text.\n\n- one\n- two");
+
+        assertEquals(before.getRootHash(), after.getRootHash());
+        assertEquals(before.getBlocks().get(1).getHash(), after.getBlocks().get(1).getHash());
+    }
+
+    private SourceHashes parse(String content) throws Exception
+    {
+        Parser parser = this.mocker.getInstance(Parser.class, SYNTAX);
+        return SourceHashes.get(parser.parse(new StringReader(content)).getMetaData());
+    }
+}
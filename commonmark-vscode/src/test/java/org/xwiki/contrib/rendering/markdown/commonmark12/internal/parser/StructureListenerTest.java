@@ -0,0 +1,138 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.parser;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.xwiki.rendering.listener.HeaderLevel;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.MetaData;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link StructureListener}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class StructureListenerTest
+{
+    private static final Map<String, String> NO_PARAMETERS = Collections.emptyMap();
+
+    private Listener listener;
+
+    private StructureListener structureListener;
+
+    @Before
+    public void setUp()
+    {
+        this.listener = mock(Listener.class);
+        this.structureListener = new StructureListener();
+        this.structureListener.setWrappedListener(this.listener);
+    }
+
+    @Test
+    public void paragraphsInNestedQuotesAndListItems()
+    {
+        // > first
+        // > * item
+        // >
+        // >   > nested
+        // > second
+        this.structureListener.beginQuotation(NO_PARAMETERS);
+        this.structureListener.beginQuotationLines();
+        paragraph("first");
+        this.structureListener.beginListItem();
+        this.structureListener.beginSwallowParagraphs();
+        paragraph("item");
+        this.structureListener.beginQuotation(NO_PARAMETERS);
+        this.structureListener.beginQuotationLines();
+        paragraph("nested");
+        this.structureListener.endQuotationLines();
+        this.structureListener.endQuotation(NO_PARAMETERS);
+        this.structureListener.endSwallowParagraphs();
+        this.structureListener.endListItem();
+        paragraph("second");
+        this.structureListener.endQuotationLines();
+        this.structureListener.endQuotation(NO_PARAMETERS);
+        paragraph("last");
+
+        InOrder order = inOrder(this.listener);
+        order.verify(this.listener).beginQuotation(NO_PARAMETERS);
+        order.verify(this.listener).beginQuotationLine();
+        order.verify(this.listener).onWord("first");
+        order.verify(this.listener).beginListItem();
+        order.verify(this.listener).onWord("item");
+        order.verify(this.listener).beginQuotation(NO_PARAMETERS);
+        order.verify(this.listener).beginQuotationLine();
+        order.verify(this.listener).onWord("nested");
+        order.verify(this.listener).endQuotationLine();
+        order.verify(this.listener).endQuotation(NO_PARAMETERS);
+        order.verify(this.listener).endListItem();
+        order.verify(this.listener).endQuotationLine();
+        order.verify(this.listener).beginQuotationLine();
+        order.verify(this.listener).onWord("second");
+        order.verify(this.listener).endQuotationLine();
+        order.verify(this.listener).endQuotation(NO_PARAMETERS);
+        order.verify(this.listener).beginParagraph(NO_PARAMETERS);
+        order.verify(this.listener).onWord("last");
+        order.verify(this.listener).endParagraph(NO_PARAMETERS);
+        order.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void sections()
+    {
+        this.structureListener.beginDocument(MetaData.EMPTY);
+        this.structureListener.beginHeader(HeaderLevel.LEVEL1, "H1", NO_PARAMETERS);
+        this.structureListener.beginHeader(HeaderLevel.LEVEL2, "H2", NO_PARAMETERS);
+        this.structureListener.beginHeader(HeaderLevel.LEVEL1, "H3", NO_PARAMETERS);
+        this.structureListener.endDocument(MetaData.EMPTY);
+
+        InOrder order = inOrder(this.listener);
+        order.verify(this.listener).beginDocument(MetaData.EMPTY);
+        order.verify(this.listener).beginSection(NO_PARAMETERS);
+        order.verify(this.listener).beginHeader(HeaderLevel.LEVEL1, "H1", NO_PARAMETERS);
+        order.verify(this.listener).beginSection(NO_PARAMETERS);
+        order.verify(this.listener).beginHeader(HeaderLevel.LEVEL2, "H2", NO_PARAMETERS);
+        order.verify(this.listener, times(2)).endSection(NO_PARAMETERS);
+        order.verify(this.listener).beginSection(NO_PARAMETERS);
+        order.verify(this.listener).beginHeader(HeaderLevel.LEVEL1, "H3", NO_PARAMETERS);
+        order.verify(this.listener).endSection(NO_PARAMETERS);
+        order.verify(this.listener).endDocument(MetaData.EMPTY);
+        verify(this.listener, never()).beginParagraph(NO_PARAMETERS);
+    }
+
+    private void paragraph(String word)
+    {
+        this.structureListener.beginParagraph(NO_PARAMETERS);
+        this.structureListener.onWord(word);
+        this.structureListener.endParagraph(NO_PARAMETERS);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer;
+
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.AbstractMarkdownComponentsTest;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.RawBlock;
+import org.xwiki.rendering.block.SpaceBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.Transformation;
+import org.xwiki.rendering.transformation.TransformationContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.xwiki.contrib.rendering.markdown.commonmark12.internal.CommonMark12SyntaxProvider.COMMONMARK_VSCODE_0_1;
+
+/**
+ * Unit tests for {@link DefaultIncrementalMarkdownRenderer}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class DefaultIncrementalMarkdownRendererTest extends AbstractMarkdownComponentsTest
+{
+    @Test
+    public void reuseUnchangedBlocks() throws Exception
+    {
+        IncrementalRenderCache cache = new IncrementalRenderCache();
+
+        assertSameMarkdown(parse("# Title\n\nFirst paragraph.\n\n* item 1\n* item 2\n\nLast paragraph.\n"), cache);
+        assertEquals(0, cache.getReusedBlockCount());
+        assertEquals(4, cache.getRenderedBlockCount());
+
+        assertSameMarkdown(parse("# Title\n\nFirst *edited* paragraph.\n\n* item 1\n* item 2\n\nLast paragraph.\n"),
+            cache);
+        assertEquals(3, cache.getReusedBlockCount());
+        assertEquals(1, cache.getRenderedBlockCount());
+
+        // The first block printed doesn't start with an empty line.
+        assertSameMarkdown(parse("* item 1\n* item 2\n\n# Title\n\nLast paragraph.\n"), cache);
+        assertEquals(3, cache.getReusedBlockCount());
+        assertEquals(0, cache.getRenderedBlockCount());
+    }
+
+    @Test
+    public void abbreviations() throws Exception
+    {
+        Block first = paragraph(new WordBlock("The"), new SpaceBlock(),
+            new RawBlock("<abbr title=\"Hyper Text Markup Language\">HTML</abbr>", Syntax.HTML_5_0));
+        Block second = paragraph(new RawBlock("<abbr title=\"World Wide Web Consortium\">W3C</abbr>", Syntax.HTML_5_0),
+            new SpaceBlock(), new RawBlock("<abbr title=\"HyperText Markup Language\">HTML</abbr>", Syntax.HTML_5_0));
+        Block third = paragraph(new WordBlock("Last"));
+        IncrementalRenderCache cache = new IncrementalRenderCache();
+
+        assertSameMarkdown(new XDOM(Arrays.asList(first, second, third)), cache);
+        assertSameMarkdown(new XDOM(Arrays.asList(second, third, first)), cache);
+        assertEquals(3, cache.getReusedBlockCount());
+        assertSameMarkdown(new XDOM(Arrays.asList(third, paragraph(new WordBlock("Other")))), cache);
+    }
+
+    @Test
+    public void sameMarkdownAsBlockRenderer() throws Exception
+    {
+        // The cache is shared by all the documents so that some blocks are reused from one document to another.
+        IncrementalRenderCache cache = new IncrementalRenderCache();
+        for (MarkdownTestCorpus.Input input : MarkdownTestCorpus.load()) {
+            XDOM xdom = parse(input.getContent());
+            if (input.isTransformed()) {
+                Transformation transformation = this.mocker.getInstance(Transformation.class, "macro");
+                transformation.transform(xdom, new TransformationContext(xdom, COMMONMARK_VSCODE_0_1));
+            }
+
+            assertSameMarkdown(input.getName(), xdom, cache);
+            // Once again, reusing the blocks.
+            assertSameMarkdown(input.getName(), xdom, cache);
+        }
+    }
+
+    private XDOM parse(String content) throws Exception
+    {
+        return this.mocker.<Parser>getInstance(Parser.class, SYNTAX).parse(new StringReader(content));
+    }
+
+    private Block paragraph(Block... children)
+    {
+        return new ParagraphBlock(Arrays.asList(children));
+    }
+
+    private void assertSameMarkdown(XDOM xdom, IncrementalRenderCache cache) throws Exception
+    {
+        assertSameMarkdown(null, xdom, cache);
+    }
+
+    private void assertSameMarkdown(String message, XDOM xdom, IncrementalRenderCache cache) throws Exception
+    {
+        WikiPrinter expected = new DefaultWikiPrinter();
+        this.mocker.<BlockRenderer>getInstance(BlockRenderer.class, SYNTAX).render(xdom, expected);
+
+        WikiPrinter actual = new DefaultWikiPrinter();
+        this.mocker.<IncrementalMarkdownRenderer>getInstance(IncrementalMarkdownRenderer.class, SYNTAX)
+            .render(xdom, actual, cache);
+
+        assertEquals(message, expected.toString(), actual.toString());
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer;
+
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.AbstractMarkdownComponentsTest;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfigurationSnapshot;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.MarkdownConfigurationSnapshots;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.transformation.Transformation;
+import org.xwiki.rendering.transformation.TransformationContext;
+import org.xwiki.test.annotation.BeforeComponent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.xwiki.contrib.rendering.markdown.commonmark12.internal.CommonMark12SyntaxProvider.COMMONMARK_VSCODE_0_1;
+
+/**
+ * Checks that the parallel rendering of {@link Markdown12BlockRenderer} gives the same Markdown as the sequential one.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class Markdown12BlockRendererParallelTest extends AbstractMarkdownComponentsTest
+{
+    private static final String THRESHOLD = "xwiki.commonmarkvscode.render.parallelThreshold";
+
+    private Execution execution;
+
+    private ExecutionContextManager executionContextManager;
+
+    @BeforeComponent
+    public void setUpComponents() throws Exception
+    {
+        this.execution = this.mocker.registerMockComponent(Execution.class);
+        this.executionContextManager = this.mocker.registerMockComponent(ExecutionContextManager.class);
+    }
+
+    @Test
+    public void sameMarkdownOverTestCorpus() throws Exception
+    {
+        for (MarkdownTestCorpus.Input input : MarkdownTestCorpus.load()) {
+            XDOM xdom = parse(input.getContent(), input.isTransformed());
+
+            assertEquals(input.getName(), render(xdom, false), render(xdom, true));
+        }
+    }
+
+    @Test
+    public void sameMarkdownForLargeDocument() throws Exception
+    {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append("## Section ").append(i).append("\n\n");
+            content.append("Some *text* using HTML and W3C, with a [link](http://xwiki.org/").append(i).append(").\n\n");
+            switch (i % 4) {
+                case 0:
+                    content.append("* item 1\n* item 2\n    1. nested\n\n");
+                    break;
+                case 1:
+                    content.append("> quoted\n> lines\n\n");
+                    break;
+                case 2:
+                    content.append("| a | b |\n|---|---|\n| 1 | 2 |\n\n");
+                    break;
+                default:
+                    content.append("```java\ncode();\n```\n\n---\n\n");
+            }
+        }
+        content.append("*[HTML]: Hyper Text Markup Language\n*[W3C]: World Wide Web Consortium\n");
+        XDOM xdom = parse(content.toString(), true);
+
+        assertEquals(render(xdom, false), render(xdom, true));
+    }
+
+    @Test
+    public void renderInCallerContext() throws Exception
+    {
+        ExecutionContext context = new ExecutionContext();
+        Thread caller = Thread.currentThread();
+        when(this.execution.getContext()).thenAnswer(invocation -> Thread.currentThread() == caller ? context : null);
+        List<ExecutionContext> clones = new CopyOnWriteArrayList<>();
+        when(this.executionContextManager.clone(context)).thenAnswer(invocation -> {
+            ExecutionContext clone = new ExecutionContext();
+            clones.add(clone);
+            return clone;
+        });
+        ClassLoader callerClassLoader = caller.getContextClassLoader();
+        ClassLoader classLoader = new URLClassLoader(new URL[0], callerClassLoader);
+        MarkdownConfigurationSnapshots snapshots = this.mocker.getInstance(MarkdownConfigurationSnapshots.class);
+        Map<Thread, ThreadState> states = new ConcurrentHashMap<>();
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            blocks.add(new ParagraphBlock(Collections.singletonList(new WordBlock("block" + i)))
+            {
+                @Override
+                public void traverse(Listener listener)
+                {
+                    Thread thread = Thread.currentThread();
+                    states.putIfAbsent(thread,
+                        new ThreadState(thread.getContextClassLoader(), snapshots.getCurrent()));
+                    super.traverse(listener);
+                }
+            });
+        }
+
+        caller.setContextClassLoader(classLoader);
+        try {
+            render(new XDOM(blocks), true);
+        } finally {
+            caller.setContextClassLoader(callerClassLoader);
+        }
+
+        MarkdownConfigurationSnapshot snapshot = snapshots.getCurrent();
+        assertTrue(states.keySet().stream().anyMatch(thread -> thread.getName().startsWith("Markdown render-")));
+        for (ThreadState state : states.values()) {
+            assertSame(classLoader, state.classLoader);
+            assertSame(snapshot, state.configurationSnapshot);
+        }
+        // Each task runs with its own copy of the caller's context.
+        assertFalse(clones.isEmpty());
+        assertEquals(clones.size(), clones.stream().distinct().count());
+        for (ExecutionContext clone : clones) {
+            verify(this.execution).pushContext(same(clone));
+        }
+        verify(this.execution, never()).pushContext(same(context));
+        verify(this.execution, times(clones.size())).popContext();
+    }
+
+    @Test
+    public void renderFailureWaitsForTheOtherGroups() throws Exception
+    {
+        AtomicInteger running = new AtomicInteger();
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            boolean failing = i == 0;
+            blocks.add(new ParagraphBlock(Collections.singletonList(new WordBlock("block" + i)))
+            {
+                @Override
+                public void traverse(Listener listener)
+                {
+                    running.incrementAndGet();
+                    try {
+                        if (failing) {
+                            throw new IllegalStateException("failed");
+                        }
+                        Thread.sleep(5);
+                        super.traverse(listener);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                }
+            });
+        }
+
+        try {
+            render(new XDOM(blocks), true);
+            fail();
+        } catch (IllegalStateException expected) {
+            assertEquals("failed", expected.getMessage());
+        }
+
+        // No group is still being rendered in the renderers of the failed rendering.
+        assertEquals(0, running.get());
+        verify(this.execution, never()).pushContext(any());
+    }
+
+    private XDOM parse(String content, boolean transformed) throws Exception
+    {
+        XDOM xdom = this.mocker.<Parser>getInstance(Parser.class, SYNTAX).parse(new StringReader(content));
+        if (transformed) {
+            Transformation transformation = this.mocker.getInstance(Transformation.class, "macro");
+            transformation.transform(xdom, new TransformationContext(xdom, COMMONMARK_VSCODE_0_1));
+        }
+        return xdom;
+    }
+
+    private String render(XDOM xdom, boolean parallel) throws Exception
+    {
+        setProperty(THRESHOLD, parallel ? "1" : null);
+        // The threshold is read once per configuration snapshot.
+        this.mocker.<MarkdownConfigurationSnapshots>getInstance(MarkdownConfigurationSnapshots.class).invalidateAll();
+        WikiPrinter printer = new DefaultWikiPrinter();
+        this.mocker.<BlockRenderer>getInstance(BlockRenderer.class, SYNTAX).render(xdom, printer);
+        return printer.toString();
+    }
+
+    private static final class ThreadState
+    {
+        private final ClassLoader classLoader;
+
+        private final MarkdownConfigurationSnapshot configurationSnapshot;
+
+        ThreadState(ClassLoader classLoader, MarkdownConfigurationSnapshot configurationSnapshot)
+        {
+            this.classLoader = classLoader;
+            this.configurationSnapshot = configurationSnapshot;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.renderer;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Markdown inputs of the specific rendering tests ({@code *.test} files), used to check that the alternative
+ * rendering paths give the same Markdown as the block renderer.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+final class MarkdownTestCorpus
+{
+    private static final String INPUT = ".input|commonmark-vscode/0.1";
+
+    /**
+     * A Markdown input.
+     */
+    static final class Input
+    {
+        private final String name;
+
+        private final String content;
+
+        private final boolean transformed;
+
+        Input(String name, String content, boolean transformed)
+        {
+            this.name = name;
+            this.content = content;
+            this.transformed = transformed;
+        }
+
+        String getName()
+        {
+            return this.name;
+        }
+
+        String getContent()
+        {
+            return this.content;
+        }
+
+        /**
+         * @return {@code true} if the macros must be executed before rendering the parsed content
+         */
+        boolean isTransformed()
+        {
+            return this.transformed;
+        }
+    }
+
+    private MarkdownTestCorpus()
+    {
+    }
+
+    static List<Input> load() throws Exception
+    {
+        URL directory = MarkdownTestCorpus.class.getClassLoader().getResource("markdown12/specific");
+        File[] files = new File(directory.toURI()).listFiles((dir, name) -> name.endsWith(".test"));
+        Arrays.sort(files);
+
+        List<Input> inputs = new ArrayList<>();
+        for (File file : files) {
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            boolean transformed = lines.contains(".runTransformations");
+            StringBuilder content = null;
+            for (String line : lines) {
+                if (line.startsWith(INPUT)) {
+                    content = new StringBuilder();
+                } else if (line.startsWith(".input") || line.startsWith(".expect")) {
+                    addInput(inputs, file, content, transformed);
+                    content = null;
+                } else if (content != null && !line.startsWith(".#")) {
+                    content.append(line).append('\n');
+                }
+            }
+            addInput(inputs, file, content, transformed);
+        }
+        return inputs;
+    }
+
+    private static void addInput(List<Input> inputs, File file, StringBuilder content, boolean transformed)
+    {
+        if (content != null) {
+            inputs.add(new Input(file.getName(), content.toString(), transformed));
+        }
+    }
+}
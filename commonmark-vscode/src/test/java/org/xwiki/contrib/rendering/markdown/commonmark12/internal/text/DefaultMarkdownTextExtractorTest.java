@@ -0,0 +1,79 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.text;
+
+import java.io.StringReader;
+
+import org.junit.Test;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.AbstractMarkdownComponentsTest;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link DefaultMarkdownTextExtractor}.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class DefaultMarkdownTextExtractorTest extends AbstractMarkdownComponentsTest
+{
+    @Test
+    public void sameTextAsPlainRenderer() throws Exception
+    {
+        assertSameText("# Title\n\nSome *emphasis* and **strong** text.\n\n* item 1\n* item 2\n\n> quoted\n");
+        assertSameText("A [link label](http://xwiki.org), http://xwiki.org and a [[label>>Some.Page]].\n");
+        assertSameText("| a | b |\n|---|---|\n| 1 | 2 |\n\nText with line  \nbreak.\n");
+    }
+
+    @Test
+    public void mathContent() throws Exception
+    {
+        String text = extract("Energy $E = mc^2$ here.\n\n$$\nx^2\n$$\n");
+
+        assertTrue(text, text.startsWith("Energy E = mc^2 here."));
+        assertTrue(text, text.trim().endsWith("x^2"));
+        assertFalse(text, text.contains("\\("));
+    }
+
+    private void assertSameText(String content) throws Exception
+    {
+        Parser parser = this.mocker.getInstance(Parser.class, SYNTAX);
+        XDOM xdom = parser.parse(new StringReader(content));
+        WikiPrinter expected = new DefaultWikiPrinter();
+        this.mocker.<BlockRenderer>getInstance(BlockRenderer.class, "plain/1.0").render(xdom, expected);
+
+        assertEquals(expected.toString(), extract(content));
+    }
+
+    private String extract(String content) throws Exception
+    {
+        StringBuilder output = new StringBuilder();
+        this.mocker.<MarkdownTextExtractor>getInstance(MarkdownTextExtractor.class, SYNTAX)
+            .extract(new StringReader(content), output);
+        return output.toString();
+    }
+}
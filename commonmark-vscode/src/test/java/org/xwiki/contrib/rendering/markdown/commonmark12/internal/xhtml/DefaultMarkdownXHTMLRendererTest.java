@@ -0,0 +1,157 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.rendering.markdown.commonmark12.internal.xhtml;
+
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.xwiki.contrib.rendering.markdown.commonmark12.internal.AbstractMarkdownComponentsTest;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.configuration.RenderingConfiguration;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.TransformationContext;
+import org.xwiki.rendering.transformation.TransformationManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.xwiki.contrib.rendering.markdown.commonmark12.internal.CommonMark12SyntaxProvider.COMMONMARK_VSCODE_0_1;
+
+/**
+ * Checks that {@link DefaultMarkdownXHTMLRenderer} generates the same XHTML as the standard pipeline, with and without
+ * macros.
+ *
+ * @version $Id$
+ * @since 0.2
+ */
+public class DefaultMarkdownXHTMLRendererTest extends AbstractMarkdownComponentsTest
+{
+    private static final String MACRO = "macro";
+
+    @Test
+    public void sameOutputAsStandardPipeline() throws Exception
+    {
+        assertSameTransformedOutput("# Title\n\nSome *emphasis* and **strong** text.\n\n## Sub title\n\nMore text.\n");
+        assertSameTransformedOutput(
+            "* item 1\n* item 2\n  1. nested\n  2. items\n\n> quoted\n> lines\n\n---\n\nlast\n");
+        assertSameTransformedOutput(
+            "A [link](http://xwiki.org \"title\"), an autolink http://xwiki.org and a [[wiki link]].\n");
+        assertSameTransformedOutput("| a | b |\n|---|---|\n| 1 | 2 |\n\nText with line  \nbreak.\n");
+    }
+
+    @Test
+    public void sameOutputWithMacros() throws Exception
+    {
+        assertSameTransformedOutput("# Title\n\nEnergy $E = mc^2$ here.\n\n$$\nx^2\n$$\n\nLast paragraph.\n");
+        assertSameTransformedOutput("# Title\n\nSome <strong>inline</strong> HTML.\n\nLast paragraph.\n");
+        assertSameTransformedOutput("# Title\n\nSome `code` and &copy; entity.\n\n    indented code\n");
+    }
+
+    @Test
+    public void tableOfContentsSeesWholeDocument() throws Exception
+    {
+        String output = assertSameTransformedOutput("{{toc/}}\n\n# First\n\nText.\n\n## Second\n\nMore text.\n");
+
+        assertTrue(output, output.contains("href=\"#HSecond\""));
+    }
+
+    @Test
+    public void directPathWithoutMacros() throws Exception
+    {
+        TransformationManager transformationManager = mockTransformations(MACRO);
+        String content = "# Title\n\nSome *text* without macros.\n";
+
+        WikiPrinter expected = new DefaultWikiPrinter();
+        this.mocker.<BlockRenderer>getInstance(BlockRenderer.class, "xhtml/1.0")
+            .render(this.mocker.<Parser>getInstance(Parser.class, SYNTAX).parse(new StringReader(content)), expected);
+        WikiPrinter actual = new DefaultWikiPrinter();
+        this.mocker.<MarkdownXHTMLRenderer>getInstance(MarkdownXHTMLRenderer.class, SYNTAX)
+            .render(new StringReader(content), actual);
+
+        assertEquals(expected.toString(), actual.toString());
+        verify(transformationManager, never()).performTransformations(any(), any());
+    }
+
+    @Test
+    public void standardPipelineWithMacros() throws Exception
+    {
+        TransformationManager transformationManager = mockTransformations(MACRO);
+
+        this.mocker.<MarkdownXHTMLRenderer>getInstance(MarkdownXHTMLRenderer.class, SYNTAX)
+            .render(new StringReader("# Title\n\nSome `code`.\n"), new DefaultWikiPrinter());
+
+        verify(transformationManager).performTransformations(any(), any());
+    }
+
+    @Test
+    public void standardPipelineWithOtherTransformations() throws Exception
+    {
+        TransformationManager transformationManager = mockTransformations(MACRO, "icon");
+
+        this.mocker.<MarkdownXHTMLRenderer>getInstance(MarkdownXHTMLRenderer.class, SYNTAX)
+            .render(new StringReader("# Title\n\nSome *text* without macros.\n"), new DefaultWikiPrinter());
+
+        verify(transformationManager).performTransformations(any(), any());
+    }
+
+    private TransformationManager mockTransformations(String... transformationNames) throws Exception
+    {
+        RenderingConfiguration renderingConfiguration =
+            this.mocker.registerMockComponent(RenderingConfiguration.class);
+        when(renderingConfiguration.getTransformationNames()).thenReturn(Arrays.asList(transformationNames));
+        return this.mocker.registerMockComponent(TransformationManager.class);
+    }
+
+    private String assertSameTransformedOutput(String content) throws Exception
+    {
+        Parser parser = this.mocker.getInstance(Parser.class, SYNTAX);
+        XDOM xdom = parser.parse(new StringReader(content));
+        TransformationContext context = createContext();
+        context.setXDOM(xdom);
+        context.setSyntax(COMMONMARK_VSCODE_0_1);
+        this.mocker.<TransformationManager>getInstance(TransformationManager.class).performTransformations(xdom,
+            context);
+        WikiPrinter expected = new DefaultWikiPrinter();
+        this.mocker.<BlockRenderer>getInstance(BlockRenderer.class, "xhtml/1.0").render(xdom, expected);
+
+        WikiPrinter actual = new DefaultWikiPrinter();
+        this.mocker.<MarkdownXHTMLRenderer>getInstance(MarkdownXHTMLRenderer.class, SYNTAX)
+            .render(new StringReader(content), createContext(), actual);
+
+        assertEquals(expected.toString(), actual.toString());
+        return actual.toString();
+    }
+
+    private TransformationContext createContext()
+    {
+        TransformationContext context = new TransformationContext();
+        context.setId("Some.Page");
+        context.setTargetSyntax(Syntax.XHTML_1_0);
+        return context;
+    }
+}